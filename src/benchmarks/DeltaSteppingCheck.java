@@ -0,0 +1,92 @@
+package benchmarks;
+
+import graphs.*;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The {@code DeltaSteppingCheck} class is a randomized check that {@link DeltaStepping}
+ * computes the same distances as {@link Dijkstra}. It searches Erdos-Renyi and road-like
+ * graphs from several sources, with bucket widths from far below to far above the
+ * default and on pools of several sizes, and compares {@code hasPathTo} and
+ * {@code distTo} for every vertex. It exits with status {@code 1} on the first mismatch.
+ *
+ * <p>Usage:
+ * <pre>
+ * java -cp out benchmarks.DeltaSteppingCheck [--size=20000] [--graphs=5] [--sources=3] [--seed=42]
+ * </pre>
+ */
+public final class DeltaSteppingCheck {
+    private static final double[] DELTA_FACTORS = {1e-9, 1e-3, 0.1, 1, 10, 1e6};
+    private static final int[] POOL_SIZES = {1, 2, 4};
+
+    private DeltaSteppingCheck() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = Options.parse(args);
+        int size = Integer.parseInt(options.getOrDefault("size", "20000"));
+        int graphs = Integer.parseInt(options.getOrDefault("graphs", "5"));
+        int sources = Integer.parseInt(options.getOrDefault("sources", "3"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        ForkJoinPool[] pools = new ForkJoinPool[POOL_SIZES.length];
+        for (int p = 0; p < pools.length; p++)
+            pools[p] = new ForkJoinPool(POOL_SIZES[p]);
+
+        long checks = 0;
+        try {
+            for (GraphGenerators.Kind kind : List.of(GraphGenerators.Kind.RANDOM, GraphGenerators.Kind.ROAD)) {
+                for (int g = 0; g < graphs; g++) {
+                    for (boolean undirected : new boolean[]{true, false}) {
+                        EdgeList edges = new EdgeList();
+                        kind.generate(size, seed + g, edges);
+                        CompactGraph<Integer> graph = edges.toWeightedGraph(undirected).toCompact();
+                        Random random = new Random(seed + g);
+                        double defaultDelta = DeltaStepping.defaultDelta(graph);
+
+                        for (int s = 0; s < sources; s++) {
+                            Integer source = graph.vertexAt(random.nextInt(graph.getVerticesCount()));
+                            Dijkstra<Integer> expected = new Dijkstra<>(graph, source);
+
+                            for (double factor : DELTA_FACTORS) {
+                                for (ForkJoinPool pool : pools) {
+                                    DeltaStepping<Integer> actual =
+                                            new DeltaStepping<>(graph, source, defaultDelta * factor, pool);
+                                    String mismatch = compare(graph, expected, actual);
+                                    if (mismatch != null) {
+                                        System.out.printf("MISMATCH %s %s graph %d, source %d, delta %g, %d threads: %s%n",
+                                                kind, (undirected ? "undirected" : "directed"), g, source,
+                                                actual.getDelta(), pool.getParallelism(), mismatch);
+                                        System.exit(1);
+                                    }
+                                    checks++;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            for (ForkJoinPool pool : pools)
+                pool.shutdown();
+        }
+
+        System.out.printf("OK: %d searches matched Dijkstra%n", checks);
+    }
+
+    /**
+     * Returns a description of the first vertex on which the two searches differ, or {@code null}.
+     */
+    private static String compare(CompactGraph<Integer> graph, Dijkstra<Integer> expected, DeltaStepping<Integer> actual) {
+        for (int i = 0; i < graph.getVerticesCount(); i++) {
+            Integer v = graph.vertexAt(i);
+            if (expected.hasPathTo(v) != actual.hasPathTo(v))
+                return "hasPathTo(" + v + ") is " + actual.hasPathTo(v) + ", expected " + expected.hasPathTo(v);
+            if (expected.distTo(v) != actual.distTo(v))
+                return "distTo(" + v + ") is " + actual.distTo(v) + ", expected " + expected.distTo(v);
+        }
+        return null;
+    }
+}
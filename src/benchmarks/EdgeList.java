@@ -0,0 +1,131 @@
+package benchmarks;
+
+import graphs.ConcurrentWeightedGraph;
+import graphs.IntWeightedGraph;
+import graphs.MyGraph;
+import graphs.WeightedGraph;
+
+import java.util.Arrays;
+
+/**
+ * The {@code EdgeList} class records generated edges in primitive arrays,
+ * so that a graph can be rebuilt from them without paying for generation again.
+ */
+public final class EdgeList implements GraphGenerators.EdgeSink {
+    private int size;
+    private int[] sources = new int[16];
+    private int[] dests = new int[16];
+    private double[] weights = new double[16];
+
+    /**
+     * Records one edge.
+     *
+     * @param source the source vertex
+     * @param dest   the destination vertex
+     * @param weight the weight of the edge
+     */
+    @Override
+    public void accept(int source, int dest, double weight) {
+        if (size == sources.length) {
+            sources = Arrays.copyOf(sources, size * 2);
+            dests = Arrays.copyOf(dests, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+
+        sources[size] = source;
+        dests[size] = dest;
+        weights[size] = weight;
+        size++;
+    }
+
+    /**
+     * Returns the number of recorded edges.
+     *
+     * @return the number of edges
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the source vertex of the edge at the given position.
+     *
+     * @param i the position
+     * @return the source vertex
+     */
+    public int source(int i) {
+        return sources[i];
+    }
+
+    /**
+     * Returns the destination vertex of the edge at the given position.
+     *
+     * @param i the position
+     * @return the destination vertex
+     */
+    public int dest(int i) {
+        return dests[i];
+    }
+
+    /**
+     * Returns the weight of the edge at the given position.
+     *
+     * @param i the position
+     * @return the weight
+     */
+    public double weight(int i) {
+        return weights[i];
+    }
+
+    /**
+     * Replays the recorded edges into a new weighted graph.
+     *
+     * @param undirected {@code true} for an undirected graph, {@code false} for a directed one
+     * @return the graph
+     */
+    public WeightedGraph<Integer> toWeightedGraph(boolean undirected) {
+        WeightedGraph<Integer> graph = new WeightedGraph<>(undirected);
+        for (int i = 0; i < size; i++)
+            graph.addEdge(sources[i], dests[i], weights[i]);
+        return graph;
+    }
+
+    /**
+     * Replays the recorded edges into a new primitive weighted graph.
+     *
+     * @param undirected {@code true} for an undirected graph, {@code false} for a directed one
+     * @return the graph
+     */
+    public IntWeightedGraph toIntWeightedGraph(boolean undirected) {
+        IntWeightedGraph graph = new IntWeightedGraph(undirected);
+        for (int i = 0; i < size; i++)
+            graph.addEdge(sources[i], dests[i], weights[i]);
+        return graph;
+    }
+
+    /**
+     * Replays the recorded edges into a new concurrent weighted graph.
+     *
+     * @param undirected {@code true} for an undirected graph, {@code false} for a directed one
+     * @return the graph
+     */
+    public ConcurrentWeightedGraph<Integer> toConcurrentWeightedGraph(boolean undirected) {
+        ConcurrentWeightedGraph<Integer> graph = new ConcurrentWeightedGraph<>(undirected);
+        for (int i = 0; i < size; i++)
+            graph.addEdge(sources[i], dests[i], weights[i]);
+        return graph;
+    }
+
+    /**
+     * Replays the recorded edges into a new unweighted graph.
+     *
+     * @param undirected {@code true} for an undirected graph, {@code false} for a directed one
+     * @return the graph
+     */
+    public MyGraph<Integer> toGraph(boolean undirected) {
+        MyGraph<Integer> graph = new MyGraph<>(undirected);
+        for (int i = 0; i < size; i++)
+            graph.addEdge(sources[i], dests[i]);
+        return graph;
+    }
+}
@@ -0,0 +1,398 @@
+package benchmarks;
+
+import graphs.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The {@code GraphBenchmark} class is a small self-contained benchmark harness for
+ * graph construction and searches, in the spirit of JMH with its GC profiler.
+ * Every case is run for a number of warmup iterations, then for a number of
+ * measured iterations of at least {@code --time} milliseconds each, and reports
+ * the average time per operation, the bytes allocated per operation and the
+ * allocation rate of the benchmark thread.
+ *
+ * <p>Usage:
+ * <pre>
+ * java -Xmx8g -cp out benchmarks.GraphBenchmark [--sizes=1000,10000,100000]
+ *     [--kinds=GRID,RANDOM,POWER_LAW,ROAD] [--filter=Dijkstra] [--warmup=3]
+ *     [--iterations=5] [--time=500] [--seed=42]
+ * </pre>
+ * Sizes are approximate edge counts; up to {@code 10000000} is supported with a large enough heap.
+ */
+public final class GraphBenchmark {
+
+    /**
+     * A benchmarked operation. The returned value is consumed so that the
+     * computation cannot be removed as dead code.
+     */
+    @FunctionalInterface
+    interface Operation {
+        Object run();
+    }
+
+    /**
+     * A named operation on one generated graph, with the setup that builds its fixture
+     * and returns the operation to measure.
+     */
+    record Case(String name, Supplier<Operation> setup) {
+
+        static Case of(String name, Operation operation) {
+            return new Case(name, () -> operation);
+        }
+
+        static <T> Case of(String name, Supplier<T> fixture, Function<T, Object> operation) {
+            return new Case(name, () -> {
+                T value = fixture.get();
+                return () -> operation.apply(value);
+            });
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile int sink;
+
+    private GraphBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = Options.parse(args);
+        int[] sizes = Arrays.stream(options.getOrDefault("sizes", "1000,10000,100000").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        String[] kinds = options.getOrDefault("kinds", "GRID,RANDOM,POWER_LAW,ROAD").split(",");
+        String filter = options.getOrDefault("filter", "");
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "3"));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "5"));
+        long time = Long.parseLong(options.getOrDefault("time", "500")) * 1_000_000L;
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        System.out.printf("%-10s %10s  %-32s %14s %14s %12s%n",
+                "kind", "edges", "benchmark", "us/op", "bytes/op", "alloc MB/s");
+
+        for (String kindName : kinds) {
+            GraphGenerators.Kind kind = GraphGenerators.Kind.valueOf(kindName.trim());
+            for (int size : sizes) {
+                EdgeList edges = new EdgeList();
+                kind.generate(size, seed, edges);
+
+                for (Case c : cases(kind, edges)) {
+                    if (!c.name().contains(filter)) continue;
+                    measure(kind.name(), edges.size(), c.name(), c.setup().get(), warmup, iterations, time);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the benchmark cases for one generated graph. Fixtures are built when the
+     * first case that needs them is set up, so a filtered run only builds its own.
+     *
+     * @param edges the generated edges
+     * @return the cases to run
+     */
+    static List<Case> cases(GraphGenerators.Kind kind, EdgeList edges) {
+        Integer source = edges.source(0);
+        Integer target = edges.dest(edges.size() - 1);
+        int vertices = countVertices(edges);
+        Supplier<WeightedGraph<Integer>> weighted = lazy(() -> edges.toWeightedGraph(true));
+        Supplier<MyGraph<Integer>> graph = lazy(() -> edges.toGraph(true));
+        Supplier<Dijkstra<Integer>> tree = lazy(() -> new Dijkstra<>(weighted.get(), source));
+        Supplier<CompactGraph<Integer>> compact = lazy(() -> weighted.get().toCompact());
+
+        List<Case> cases = new ArrayList<>();
+        cases.add(Case.of("WeightedGraph.addEdge", () -> edges.toWeightedGraph(true)));
+        cases.add(Case.of("MyGraph.addEdge", () -> edges.toGraph(true)));
+        cases.add(Case.of("IntWeightedGraph.addEdge", () -> edges.toIntWeightedGraph(true)));
+        cases.add(Case.of("WeightedGraph.getEdgesCount", weighted, WeightedGraph::getEdgesCount));
+        cases.add(Case.of("BreadthFirstSearch", graph, g -> new BreadthFirstSearch<>(g, source)));
+        cases.add(Case.of("DepthFirstSearch", graph, g -> new DepthFirstSearch<>(g, source)));
+        cases.add(Case.of("Dijkstra", weighted, g -> new Dijkstra<>(g, source)));
+        if (vertices <= 20_000)
+            cases.add(Case.of("Dijkstra.LINEAR_SCAN", weighted, g -> new Dijkstra<>(g, source, Dijkstra.Engine.LINEAR_SCAN)));
+        cases.add(Case.of("Search.pathTo", tree, t -> t.pathTo(target)));
+        cases.add(Case.of("Search.pathTo.iterate", tree, t -> {
+            int length = 0;
+            for (Integer ignored : t.pathTo(target))
+                length++;
+            return length;
+        }));
+        cases.add(Case.of("IncrementalSearch.nearest", weighted, g ->
+                new IncrementalSearch<>(g, source, IncrementalSearch.Order.DIJKSTRA).nearest(16, v -> true)));
+        cases.add(Case.of("IncrementalSearch.DIJKSTRA", weighted, g ->
+                new IncrementalSearch<>(g, source, IncrementalSearch.Order.DIJKSTRA).stream().count()));
+        cases.add(Case.of("Dijkstra.target", weighted, g -> new Dijkstra<>(g, source, target)));
+        cases.add(Case.of("BidirectionalDijkstra", weighted, g -> new BidirectionalDijkstra<>(g, source, target)));
+        cases.add(Case.of("WeightedGraph.toCompact", weighted, WeightedGraph::toCompact));
+        cases.add(Case.of("CompactGraph.BreadthFirstSearch", compact, g -> new BreadthFirstSearch<>(g, source)));
+        cases.add(Case.of("ParallelBreadthFirstSearch", compact, g -> new ParallelBreadthFirstSearch<>(g, source)));
+        cases.add(Case.of("CompactGraph.DepthFirstSearch", compact, g -> new DepthFirstSearch<>(g, source)));
+        cases.add(Case.of("CompactGraph.Dijkstra", compact, g -> new Dijkstra<>(g, source)));
+        cases.add(Case.of("DeltaStepping", compact, g -> new DeltaStepping<>(g, source)));
+        Supplier<IntWeightedGraph> primitive = lazy(() -> edges.toIntWeightedGraph(true));
+        cases.add(Case.of("IntBreadthFirstSearch", primitive, g -> new IntBreadthFirstSearch(g, source)));
+        cases.add(Case.of("IntDepthFirstSearch", primitive, g -> new IntDepthFirstSearch(g, source)));
+        cases.add(Case.of("IntDijkstra", primitive, g -> new IntDijkstra(g, source)));
+        Supplier<ConcurrentWeightedGraph<Integer>> concurrent = lazy(() -> edges.toConcurrentWeightedGraph(true));
+        Integer next = edges.dest(0);
+        double weight = edges.weight(0);
+        cases.add(Case.of("ConcurrentWeightedGraph.addEdge", () -> edges.toConcurrentWeightedGraph(true)));
+        cases.add(Case.of("ConcurrentWeightedGraph.setEdgeWeight", concurrent, g -> g.setEdgeWeight(source, next, weight)));
+        cases.add(Case.of("ConcurrentWeightedGraph.Dijkstra", concurrent, g -> new Dijkstra<>(g, source)));
+        cases.add(Case.of("VersionedGraph.commit", () -> versioned(compact.get(), edges), g -> reweigh(g, edges, 100)));
+        cases.add(Case.of("VersionedGraph.Dijkstra", () -> versioned(compact.get(), edges).snapshot(), s -> new Dijkstra<>(s, source)));
+        cases.add(new Case("DynamicDijkstra.setEdgeWeight", () -> {
+            WeightedGraph<Integer> live = edges.toWeightedGraph(true);
+            DynamicDijkstra<Integer> dynamic = new DynamicDijkstra<>(live, source);
+            int[] update = {0};
+            // the update includes the repair of the tree of the attached DynamicDijkstra
+            return () -> reweigh(live, edges, update[0]++) + dynamic.getRepairedCount();
+        }));
+        cases.add(new Case("Dijkstra.afterUpdate", () -> {
+            WeightedGraph<Integer> live = edges.toWeightedGraph(true);
+            int[] update = {0};
+            return () -> {
+                reweigh(live, edges, update[0]++);
+                return new Dijkstra<>(live, source);
+            };
+        }));
+        cases.add(Case.of("ShortestPathCache.get", () -> new ShortestPathCache<>(weighted.get(), 16),
+                cache -> cache.get(source).distTo(target)));
+        List<Integer> depots = sample(edges, 0, 16), customers = sample(edges, 1, 64);
+        cases.add(Case.of("DistanceMatrix", compact, g -> g.distanceMatrix(depots, customers)));
+        List<Integer> sources = sample(edges, 2, MultiSourceBreadthFirstSearch.BATCH);
+        Supplier<CompactGraph<Integer>> unweighted = lazy(() -> graph.get().toCompact());
+        cases.add(Case.of("MultiSourceBreadthFirstSearch", unweighted, g -> new MultiSourceBreadthFirstSearch<>(g, sources)));
+        cases.add(Case.of("CompactGraph.BreadthFirstSearch.x64", unweighted, g -> {
+            for (Integer s : sources)
+                new BreadthFirstSearch<>(g, s);
+            return sources;
+        }));
+        ForkJoinPool common = ForkJoinPool.commonPool();
+        if (vertices <= 20_000) {
+            Supplier<Centrality<Integer>> centrality = lazy(() -> new Centrality<>(unweighted.get(), false, common));
+            cases.add(Case.of("Centrality.betweenness.sampled", centrality, c -> c.betweenness(0.1, 0.1, 42)));
+            cases.add(Case.of("Centrality.harmonic.sampled", centrality, c -> c.harmonic(0.1, 0.1, 42)));
+        }
+        cases.add(Case.of("Components.TARJAN", () -> edges.toGraph(false).toCompact(),
+                g -> new Components<>(g, Components.Engine.TARJAN, common)));
+        cases.add(Case.of("Components.UNION_FIND", unweighted, g -> new Components<>(g, Components.Engine.UNION_FIND, common)));
+        cases.add(Case.of("Components.AFFOREST", unweighted, g -> new Components<>(g, Components.Engine.AFFOREST, common)));
+        // vertex ids of real inputs are not laid out like the generators'; start the orderings from a shuffle
+        Supplier<CompactGraph<Integer>> shuffled =
+                lazy(() -> VertexOrdering.of(compact.get(), shuffle(compact.get().getVerticesCount(), 42)).getGraph());
+        Map<VertexOrdering.Strategy, Supplier<VertexOrdering<Integer>>> orderings = new LinkedHashMap<>();
+        for (VertexOrdering.Strategy strategy : EnumSet.range(VertexOrdering.Strategy.REVERSE_CUTHILL_MCKEE, VertexOrdering.Strategy.DEGREE))
+            orderings.put(strategy, () -> VertexOrdering.of(shuffled.get(), strategy));
+        if (kind == GraphGenerators.Kind.GRID || kind == GraphGenerators.Kind.ROAD) {
+            int side = (int) Math.round(Math.sqrt(vertices));
+            orderings.put(VertexOrdering.Strategy.HILBERT, () -> VertexOrdering.hilbert(shuffled.get(), v -> v % side, v -> v / side));
+        }
+        orderings.forEach((strategy, ordering) -> cases.add(Case.of("VertexOrdering." + strategy, ordering::get)));
+        cases.add(Case.of("CompactGraph.BreadthFirstSearch.shuffled", shuffled, g -> new BreadthFirstSearch<>(g, source)));
+        cases.add(Case.of("CompactGraph.Dijkstra.shuffled", shuffled, g -> new Dijkstra<>(g, source)));
+        orderings.forEach((strategy, ordering) -> {
+            Supplier<CompactGraph<Integer>> reordered = lazy(() -> ordering.get().getGraph());
+            cases.add(Case.of("CompactGraph.BreadthFirstSearch." + strategy, reordered, g -> new BreadthFirstSearch<>(g, source)));
+            cases.add(Case.of("CompactGraph.Dijkstra." + strategy, reordered, g -> new Dijkstra<>(g, source)));
+        });
+        cases.add(new Case("GraphFile.write", () -> {
+            CompactGraph<Integer> g = compact.get();
+            Path file = temporaryFile();
+            return () -> write(g, file);
+        }));
+        cases.add(Case.of("GraphFile.map", () -> write(compact.get(), temporaryFile()), GraphBenchmark::map));
+        GraphLoader<Integer> loader = new GraphLoader<>(GraphLoader.Format.SNAP, true, Integer::valueOf);
+        cases.add(Case.of("GraphLoader.load", () -> writeEdgeList(edges, temporaryFile()), file -> load(loader, file)));
+        cases.add(new Case("AStar.landmarks", () -> {
+            WeightedGraph<Integer> g = weighted.get();
+            Landmarks<Integer> landmarks = Landmarks.build(g, 16);
+            return () -> new AStar<>(g, source, target, landmarks.heuristic());
+        }));
+        cases.add(Case.of("ContractionHierarchy.build", compact, ContractionHierarchy::build));
+        Supplier<ContractionHierarchy<Integer>> hierarchy = lazy(() -> ContractionHierarchy.build(compact.get()));
+        cases.add(Case.of("ContractionHierarchy.distance", hierarchy, h -> h.distance(source, target)));
+        cases.add(Case.of("ContractionHierarchySearch", hierarchy, h -> new ContractionHierarchySearch<>(h, source, target)));
+        cases.add(Case.of("DistanceMatrix.hierarchy", hierarchy, h -> h.distanceMatrix(depots, customers)));
+        return cases;
+    }
+
+    /**
+     * Returns a supplier that calls the given factory once, on its first use, and then
+     * returns the same fixture.
+     */
+    private static <T> Supplier<T> lazy(Supplier<T> factory) {
+        return new Supplier<>() {
+            private T value;
+
+            @Override
+            public T get() {
+                if (value == null) value = factory.get();
+                return value;
+            }
+        };
+    }
+
+    private static int countVertices(EdgeList edges) {
+        BitSet seen = new BitSet();
+        for (int i = 0; i < edges.size(); i++) {
+            seen.set(edges.source(i));
+            seen.set(edges.dest(i));
+        }
+        return seen.cardinality();
+    }
+
+    /**
+     * Returns a versioned graph over the snapshot with the deepest chain of uncompacted versions.
+     */
+    private static VersionedGraph<Integer> versioned(CompactGraph<Integer> compact, EdgeList edges) {
+        VersionedGraph<Integer> versioned = new VersionedGraph<>(compact);
+        for (int i = 0; i < VersionedGraph.MAX_DEPTH; i++)
+            versioned.setEdgeWeight(edges.source(i), edges.dest(i), edges.weight(i) + 1);
+        return versioned;
+    }
+
+    private static VersionedGraph.Snapshot<Integer> reweigh(VersionedGraph<Integer> graph, EdgeList edges, int count) {
+        VersionedGraph<Integer>.Batch batch = graph.batch();
+        for (int i = 0; i < count && i < edges.size(); i++)
+            batch.setEdgeWeight(edges.source(i), edges.dest(i), edges.weight(i));
+        return batch.commit();
+    }
+
+    /**
+     * Doubles the weight of one edge of the graph, or restores it on every other pass over the edges.
+     */
+    private static long reweigh(WeightedGraph<Integer> graph, EdgeList edges, int update) {
+        int i = update % edges.size();
+        if (edges.source(i) == edges.dest(i)) return graph.version();
+
+        double factor = ((update / edges.size()) % 2 == 0 ? 2 : 1);
+        graph.setEdgeWeight(edges.source(i), edges.dest(i), edges.weight(i) * factor);
+        return graph.version();
+    }
+
+    /**
+     * Returns a random permutation of {@code [0, n)}.
+     */
+    private static int[] shuffle(int n, long seed) {
+        Random random = new Random(seed);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++)
+            order[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1), t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        return order;
+    }
+
+    /**
+     * Picks {@code count} vertices spread over the recorded edges, starting at {@code offset}.
+     */
+    private static List<Integer> sample(EdgeList edges, int offset, int count) {
+        List<Integer> vertices = new ArrayList<>(count);
+        int step = Math.max(1, edges.size() / count);
+        for (int i = offset; vertices.size() < count && i < edges.size(); i += step)
+            vertices.add(edges.source(i));
+        return vertices;
+    }
+
+    private static Path temporaryFile() {
+        try {
+            Path file = Files.createTempFile("benchmark", ".grph");
+            file.toFile().deleteOnExit();
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path write(CompactGraph<Integer> graph, Path file) {
+        try {
+            GraphFile.write(graph, file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path writeEdgeList(EdgeList edges, Path file) {
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < edges.size(); i++)
+                out.write(edges.source(i) + "\t" + edges.dest(i) + "\t" + edges.weight(i) + "\n");
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static CompactGraph<Integer> load(GraphLoader<Integer> loader, Path file) {
+        try {
+            return loader.load(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MappedGraph<Integer> map(Path file) {
+        try {
+            return GraphFile.map(file, Integer::valueOf);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Runs one case and prints its results.
+     */
+    private static void measure(String kind, int edges, String name, Operation operation,
+                                int warmup, int iterations, long time) {
+        try {
+            for (int i = 0; i < warmup; i++)
+                iteration(operation, time);
+
+            long ops = 0, nanos = 0, bytes = 0;
+            for (int i = 0; i < iterations; i++) {
+                long[] r = iteration(operation, time);
+                ops += r[0];
+                nanos += r[1];
+                bytes += r[2];
+            }
+
+            System.out.printf("%-10s %10d  %-32s %14.3f %14d %12.1f%n", kind, edges, name,
+                    nanos / 1e3 / ops, bytes / ops, bytes / 1e6 / (nanos / 1e9));
+        } catch (StackOverflowError e) {
+            System.out.printf("%-10s %10d  %-32s %14s%n", kind, edges, name, "StackOverflowError");
+        }
+    }
+
+    /**
+     * Runs the operation repeatedly for at least the given time.
+     *
+     * @return the number of operations, the elapsed nanoseconds and the allocated bytes
+     */
+    private static long[] iteration(Operation operation, long time) {
+        long allocated = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long elapsed, ops = 0;
+
+        do {
+            sink += Objects.hashCode(operation.run());
+            ops++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < time);
+
+        return new long[]{ops, elapsed, THREADS.getCurrentThreadAllocatedBytes() - allocated};
+    }
+}
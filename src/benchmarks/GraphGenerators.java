@@ -0,0 +1,198 @@
+package benchmarks;
+
+import graphs.MyGraph;
+import graphs.WeightedGraph;
+
+import java.util.Random;
+
+/**
+ * The {@code GraphGenerators} class builds reproducible synthetic graphs for benchmarks.
+ * Every generator is driven by a seed, so the same arguments always produce the same
+ * edges in the same order. Vertices are the integers {@code [0, n)}.
+ */
+public final class GraphGenerators {
+
+    /**
+     * The {@code EdgeSink} interface receives the edges produced by a generator.
+     */
+    @FunctionalInterface
+    public interface EdgeSink {
+
+        /**
+         * Accepts one generated edge.
+         *
+         * @param source the source vertex
+         * @param dest   the destination vertex
+         * @param weight the weight of the edge
+         */
+        void accept(int source, int dest, double weight);
+    }
+
+    /**
+     * The kinds of graphs the generators can produce.
+     */
+    public enum Kind {
+        GRID, RANDOM, POWER_LAW, ROAD;
+
+        /**
+         * Generates a graph of this kind with roughly the given number of edges.
+         *
+         * @param edges the approximate number of undirected edges
+         * @param seed  the random seed
+         * @param out   the sink receiving the edges
+         */
+        public void generate(int edges, long seed, EdgeSink out) {
+            switch (this) {
+                case GRID -> {
+                    int side = Math.max(2, (int) Math.sqrt(edges / 2.0));
+                    grid(side, side, seed, out);
+                }
+                case RANDOM -> erdosRenyi(Math.max(2, edges / 4), edges, seed, out);
+                case POWER_LAW -> barabasiAlbert(Math.max(4, edges / 3), 3, seed, out);
+                case ROAD -> {
+                    int side = Math.max(2, (int) Math.sqrt(edges / 2.2));
+                    roadLike(side, side, seed, out);
+                }
+            }
+        }
+    }
+
+    private GraphGenerators() {
+    }
+
+    /**
+     * Generates a {@code rows x cols} grid where every cell is connected to its right
+     * and lower neighbors, with weights drawn uniformly from {@code [1, 10)}.
+     *
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param seed the random seed
+     * @param out  the sink receiving the edges
+     */
+    public static void grid(int rows, int cols, long seed, EdgeSink out) {
+        Random random = new Random(seed);
+
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int v = r * cols + c;
+                if (c + 1 < cols) out.accept(v, v + 1, 1 + 9 * random.nextDouble());
+                if (r + 1 < rows) out.accept(v, v + cols, 1 + 9 * random.nextDouble());
+            }
+        }
+    }
+
+    /**
+     * Generates an Erdos-Renyi G(n, m) graph: {@code m} edges between uniformly chosen
+     * endpoints, with weights drawn uniformly from {@code [1, 100)}.
+     * Self-loops and duplicates are passed to the sink, which the graphs ignore.
+     *
+     * @param n    the number of vertices
+     * @param m    the number of edges
+     * @param seed the random seed
+     * @param out  the sink receiving the edges
+     */
+    public static void erdosRenyi(int n, int m, long seed, EdgeSink out) {
+        Random random = new Random(seed);
+
+        for (int i = 0; i < m; i++)
+            out.accept(random.nextInt(n), random.nextInt(n), 1 + 99 * random.nextDouble());
+    }
+
+    /**
+     * Generates a scale-free graph by Barabasi-Albert preferential attachment:
+     * every new vertex connects to {@code k} existing vertices chosen with
+     * probability proportional to their degree.
+     *
+     * @param n    the number of vertices
+     * @param k    the number of edges added with every vertex
+     * @param seed the random seed
+     * @param out  the sink receiving the edges
+     */
+    public static void barabasiAlbert(int n, int k, long seed, EdgeSink out) {
+        Random random = new Random(seed);
+        int[] endpoints = new int[2 * n * k];
+        int size = 0;
+
+        for (int v = 1; v <= k && v < n; v++) {
+            out.accept(0, v, 1 + 99 * random.nextDouble());
+            endpoints[size++] = 0;
+            endpoints[size++] = v;
+        }
+
+        for (int v = k + 1; v < n; v++) {
+            int existing = size;
+            for (int j = 0; j < k; j++) {
+                int u = endpoints[random.nextInt(existing)];
+                out.accept(v, u, 1 + 99 * random.nextDouble());
+                endpoints[size++] = v;
+                endpoints[size++] = u;
+            }
+        }
+    }
+
+    /**
+     * Generates a road-like network: vertices are jittered points on a {@code rows x cols}
+     * lattice, connected to their lattice neighbors with about 10% of the links removed,
+     * plus occasional diagonals. Weights are the Euclidean lengths of the links.
+     *
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param seed the random seed
+     * @param out  the sink receiving the edges
+     */
+    public static void roadLike(int rows, int cols, long seed, EdgeSink out) {
+        Random random = new Random(seed);
+        double[] x = new double[rows * cols];
+        double[] y = new double[rows * cols];
+
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                x[r * cols + c] = c + 0.4 * (random.nextDouble() - 0.5);
+                y[r * cols + c] = r + 0.4 * (random.nextDouble() - 0.5);
+            }
+        }
+
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int v = r * cols + c;
+                if (c + 1 < cols && random.nextDouble() < 0.9) link(v, v + 1, x, y, out);
+                if (r + 1 < rows && random.nextDouble() < 0.9) link(v, v + cols, x, y, out);
+                if (c + 1 < cols && r + 1 < rows && random.nextDouble() < 0.2) link(v, v + cols + 1, x, y, out);
+            }
+        }
+    }
+
+    private static void link(int u, int v, double[] x, double[] y, EdgeSink out) {
+        out.accept(u, v, Math.hypot(x[u] - x[v], y[u] - y[v]));
+    }
+
+    /**
+     * Generates a weighted graph of the given kind.
+     *
+     * @param kind       the kind of graph
+     * @param edges      the approximate number of edges
+     * @param seed       the random seed
+     * @param undirected {@code true} for an undirected graph, {@code false} for a directed one
+     * @return the generated graph
+     */
+    public static WeightedGraph<Integer> weighted(Kind kind, int edges, long seed, boolean undirected) {
+        WeightedGraph<Integer> graph = new WeightedGraph<>(undirected);
+        kind.generate(edges, seed, graph::addEdge);
+        return graph;
+    }
+
+    /**
+     * Generates an unweighted graph of the given kind.
+     *
+     * @param kind       the kind of graph
+     * @param edges      the approximate number of edges
+     * @param seed       the random seed
+     * @param undirected {@code true} for an undirected graph, {@code false} for a directed one
+     * @return the generated graph
+     */
+    public static MyGraph<Integer> unweighted(Kind kind, int edges, long seed, boolean undirected) {
+        MyGraph<Integer> graph = new MyGraph<>(undirected);
+        kind.generate(edges, seed, (source, dest, weight) -> graph.addEdge(source, dest));
+        return graph;
+    }
+}
@@ -0,0 +1,31 @@
+package benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code Options} class parses the {@code --key=value} command-line options
+ * shared by the benchmark and check programs.
+ */
+final class Options {
+
+    private Options() {
+    }
+
+    /**
+     * Parses options of the form {@code --key=value}. A later value replaces an earlier one.
+     *
+     * @param args the command-line arguments
+     * @return the value of every option, by key
+     * @throws IllegalArgumentException if an argument is not of the form {@code --key=value}
+     */
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("="))
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,117 @@
+package benchmarks;
+
+import graphs.*;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The {@code QueryLoadGenerator} class measures the throughput and the latency of a
+ * {@link QueryService} in process, with no network or external load tool involved.
+ * A number of clients, each on its own thread from {@link QueryService#newRequestExecutor()},
+ * send route and reachability requests back to back over a generated graph. Sources are
+ * drawn from a small set of hot vertices so that concurrent requests can share searches,
+ * targets from the whole graph.
+ *
+ * <p>Usage:
+ * <pre>
+ * java -Xmx8g -cp out benchmarks.QueryLoadGenerator [--size=100000] [--kind=ROAD]
+ *     [--requests=200000] [--concurrency=256] [--sources=16] [--reachable=0.5]
+ *     [--workers=N] [--queue=1024] [--batch=64] [--seed=42]
+ * </pre>
+ * The size is an approximate edge count, as for {@link GraphBenchmark}.
+ */
+public final class QueryLoadGenerator {
+
+    private QueryLoadGenerator() {
+    }
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        Map<String, String> options = Options.parse(args);
+        int size = Integer.parseInt(options.getOrDefault("size", "100000"));
+        GraphGenerators.Kind kind = GraphGenerators.Kind.valueOf(options.getOrDefault("kind", "ROAD"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "200000"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "256"));
+        int sources = Integer.parseInt(options.getOrDefault("sources", "16"));
+        double reachable = Double.parseDouble(options.getOrDefault("reachable", "0.5"));
+        int workers = Integer.parseInt(options.getOrDefault("workers",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int queue = Integer.parseInt(options.getOrDefault("queue", "1024"));
+        int batch = Integer.parseInt(options.getOrDefault("batch", String.valueOf(QueryService.DEFAULT_MAX_BATCH)));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        EdgeList edges = new EdgeList();
+        kind.generate(size, seed, edges);
+        CompactGraph<Integer> graph = edges.toWeightedGraph(true).toCompact();
+        Integer[] vertices = new Integer[graph.getVerticesCount()];
+        for (int i = 0; i < vertices.length; i++)
+            vertices[i] = graph.vertexAt(i);
+
+        Random random = new Random(seed);
+        Integer[] hot = new Integer[Math.min(sources, vertices.length)];
+        for (int i = 0; i < hot.length; i++)
+            hot[i] = vertices[random.nextInt(vertices.length)];
+
+        System.out.printf("%s graph: %d vertices, %d edges; %d requests from %d clients, %d hot sources, "
+                        + "%d workers, queue %d, batch %d%n",
+                kind, graph.getVerticesCount(), edges.size(), requests, concurrency, hot.length,
+                workers, queue, batch);
+
+        try (QueryService<Integer> service = new QueryService<>(graph, workers, queue, batch)) {
+            run(service, vertices, hot, reachable, Math.min(requests, 10_000), concurrency, seed + 1);  // warmup
+            QueryService.Stats before = service.getStats();
+
+            LatencyHistogram latency = new LatencyHistogram();
+            long elapsed = run(service, vertices, hot, reachable, requests, concurrency, seed + 2, latency);
+            QueryService.Stats after = service.getStats();
+
+            System.out.printf("throughput %.0f requests/s; latency mean %.1f us, p50 %.1f us, p99 %.1f us, "
+                            + "p99.9 %.1f us, max %.1f us%n",
+                    requests * 1e9 / elapsed, latency.mean() / 1e3, latency.percentile(50) / 1e3,
+                    latency.percentile(99) / 1e3, latency.percentile(99.9) / 1e3, latency.max() / 1e3);
+            System.out.println(new QueryService.Stats(after.requests() - before.requests(),
+                    after.rejected() - before.rejected(), after.batches() - before.batches(),
+                    after.searches() - before.searches()));
+        }
+    }
+
+    private static long run(QueryService<Integer> service, Integer[] vertices, Integer[] hot, double reachable,
+                            int requests, int concurrency, long seed) throws InterruptedException, ExecutionException {
+        return run(service, vertices, hot, reachable, requests, concurrency, seed, new LatencyHistogram());
+    }
+
+    /**
+     * Sends the requests from {@code concurrency} clients and returns the elapsed time in nanoseconds.
+     */
+    private static long run(QueryService<Integer> service, Integer[] vertices, Integer[] hot, double reachable,
+                            int requests, int concurrency, long seed, LatencyHistogram latency)
+            throws InterruptedException, ExecutionException {
+        List<Future<?>> clients = new ArrayList<>();
+        long started = System.nanoTime();
+
+        ExecutorService executor = QueryService.newRequestExecutor();
+        try {
+            for (int c = 0; c < concurrency; c++) {
+                int count = requests / concurrency + (c < requests % concurrency ? 1 : 0);
+                Random random = new Random(seed + c);
+                clients.add(executor.submit(() -> {
+                    for (int i = 0; i < count; i++) {
+                        Integer source = hot[random.nextInt(hot.length)];
+                        Integer target = vertices[random.nextInt(vertices.length)];
+                        long start = System.nanoTime();
+                        if (random.nextDouble() < reachable) service.reachable(source, target);
+                        else service.route(source, target);
+                        latency.record(System.nanoTime() - start);
+                    }
+                }));
+            }
+            for (Future<?> client : clients)
+                client.get();
+        } finally {
+            executor.shutdown();
+        }
+        return System.nanoTime() - started;
+    }
+}
@@ -0,0 +1,141 @@
+package graphs;
+
+import java.util.*;
+
+/**
+ * The {@code AStar} class represents a data type for
+ * finding the shortest path between a source and a target vertex
+ * in a weighted graph with the A* algorithm.
+ * Vertices are settled in order of their distance from the source plus the
+ * {@link Heuristic} estimate of their distance to the target, and the search
+ * stops as soon as the target is settled. With a good heuristic only a small
+ * part of the graph is explored.
+ *
+ * <p>After the search, {@link #hasPathTo(Object)} and {@link #pathTo(Object)} answer for
+ * the target and for every other settled vertex. With an admissible heuristic, the path
+ * to the target is a shortest path; settled vertices are reopened when a shorter path
+ * to them is found, so the heuristic does not need to be consistent.
+ *
+ * @param <Vertex> the type of vertices in the graph
+ */
+public class AStar<Vertex> extends Search<Vertex> {
+    private final Vertex target;
+    private final Map<Vertex, Double> distances;
+    private int settledCount;
+
+    /**
+     * Initializes an A* search from the source vertex to the target vertex in the given graph.
+     *
+     * @param graph     the weighted graph to search
+     * @param source    the source vertex
+     * @param target    the target vertex
+     * @param heuristic an admissible estimate of the distance to the target
+     */
+    public AStar(GraphView<Vertex> graph, Vertex source, Vertex target, Heuristic<Vertex> heuristic) {
+        super(source);
+        this.target = target;
+        this.distances = new HashMap<>();
+
+        if (graph.hasVertex(source) && graph.hasVertex(target)) aStar(graph, heuristic);
+        else report(0, 0, 0, 0);
+    }
+
+    /**
+     * Performs the A* search.
+     *
+     * @param graph     the graph to search
+     * @param heuristic the estimate of the distance to the target
+     *
+     * Time complexity: O((V + E) log V) in the worst case, where V is the number of vertices
+     * and E is the number of edges in the graph; usually far less.
+     */
+    private void aStar(GraphView<Vertex> graph, Heuristic<Vertex> heuristic) {
+        Map<Vertex, Integer> indices = new HashMap<>();
+        List<Vertex> vertices = new ArrayList<>();
+        IndexMinPQ pq = new IndexMinPQ(16);
+
+        indices.put(source, 0);
+        vertices.add(source);
+        distances.put(source, 0D);
+        pq.insert(0, heuristic.estimate(source, target));
+
+        var relaxer = new NeighborVisitor<Vertex>() {
+            private Vertex from;
+            private double fromDistance;
+
+            private long scanned;
+
+            @Override
+            public void visit(Vertex neighbor, double weight) {
+                scanned++;
+                double newDistance = fromDistance + weight;
+                Double old = distances.get(neighbor);
+                if (old != null && old <= newDistance) return;
+
+                distances.put(neighbor, newDistance);
+                edgeTo.put(neighbor, from);
+                marked.remove(neighbor);
+
+                double priority = newDistance + heuristic.estimate(neighbor, target);
+                Integer index = indices.get(neighbor);
+                if (index == null) {
+                    index = vertices.size();
+                    indices.put(neighbor, index);
+                    vertices.add(neighbor);
+                    pq.insert(index, priority);
+                } else if (pq.contains(index)) {
+                    if (priority < pq.keyOf(index)) pq.decreaseKey(index, priority);
+                } else {
+                    pq.insert(index, priority);
+                }
+            }
+
+            NeighborVisitor<Vertex> from(Vertex v) {
+                from = v;
+                fromDistance = distances.get(v);
+                return this;
+            }
+        };
+
+        while (!pq.isEmpty()) {
+            Vertex current = vertices.get(pq.delMin());
+            marked.add(current);
+            settledCount++;
+
+            if (current.equals(target)) break;
+
+            graph.forEachNeighbor(current, relaxer.from(current));
+        }
+
+        report(settledCount, relaxer.scanned, pq.peak(), pq.operations());
+    }
+
+    /**
+     * Returns the length of the shortest path from the source to the target.
+     *
+     * @return the length of the path, or {@code Double.POSITIVE_INFINITY} if there is none
+     */
+    public double distance() {
+        return distTo(target);
+    }
+
+    /**
+     * Returns the length of the path found from the source to a settled vertex.
+     *
+     * @param v the vertex
+     * @return the length of the path, or {@code Double.POSITIVE_INFINITY} if {@code v} was not settled
+     */
+    public double distTo(Vertex v) {
+        if (!hasPathTo(v)) return Double.POSITIVE_INFINITY;
+        return distances.get(v);
+    }
+
+    /**
+     * Returns the number of times a vertex was settled, a measure of the work done by the search.
+     *
+     * @return the number of settled vertices
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+}
@@ -0,0 +1,83 @@
+package graphs;
+
+import java.util.Arrays;
+
+/**
+ * The {@code Adjacency} class represents the edges leaving a vertex as a pair of
+ * immutable arrays: the neighbors and, at the same positions, the weights of the edges.
+ * Changes return a new copy, so an instance can be shared freely between threads
+ * and between versions of a graph.
+ * It backs {@link ConcurrentWeightedGraph} and {@link VersionedGraph}.
+ */
+final class Adjacency {
+    static final Adjacency EMPTY = new Adjacency(new Object[0], new double[0]);
+
+    final Object[] neighbors;
+    final double[] weights;
+
+    Adjacency(Object[] neighbors, double[] weights) {
+        this.neighbors = neighbors;
+        this.weights = weights;
+    }
+
+    /**
+     * Returns the position of the specified neighbor, or {@code -1} if there is no edge to it.
+     *
+     * @param v the neighbor
+     * @return the position of {@code v}, or {@code -1}
+     */
+    int indexOf(Object v) {
+        for (int k = 0; k < neighbors.length; k++)
+            if (neighbors[k].equals(v)) return k;
+        return -1;
+    }
+
+    /**
+     * Returns a copy with the edge to {@code v} added, or reweighed if it exists.
+     *
+     * @param v      the neighbor
+     * @param weight the weight of the edge
+     * @return the new adjacency
+     */
+    Adjacency with(Object v, double weight) {
+        int k = indexOf(v);
+        if (k != -1) {
+            double[] w = weights.clone();
+            w[k] = weight;
+            return new Adjacency(neighbors, w);
+        }
+
+        Object[] n = Arrays.copyOf(neighbors, neighbors.length + 1);
+        double[] w = Arrays.copyOf(weights, weights.length + 1);
+        n[neighbors.length] = v;
+        w[weights.length] = weight;
+        return new Adjacency(n, w);
+    }
+
+    /**
+     * Returns a copy without the edge at the specified position.
+     *
+     * @param k the position of the edge
+     * @return the new adjacency
+     */
+    Adjacency without(int k) {
+        Object[] n = new Object[neighbors.length - 1];
+        double[] w = new double[weights.length - 1];
+        System.arraycopy(neighbors, 0, n, 0, k);
+        System.arraycopy(weights, 0, w, 0, k);
+        System.arraycopy(neighbors, k + 1, n, k, n.length - k);
+        System.arraycopy(weights, k + 1, w, k, w.length - k);
+        return new Adjacency(n, w);
+    }
+
+    /**
+     * Passes every edge to the given visitor.
+     *
+     * @param visitor the visitor to call for every neighbor
+     */
+    @SuppressWarnings("unchecked")
+    <V> void forEach(NeighborVisitor<V> visitor) {
+        for (int k = 0; k < neighbors.length; k++)
+            visitor.visit((V) neighbors[k], weights[k]);
+    }
+}
@@ -0,0 +1,87 @@
+package graphs;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The {@code AtomicBitSet} class represents a fixed-size set of bits
+ * that can be set concurrently by several threads.
+ * Bits are packed 64 to a word, so the set is compact and a reader can
+ * test a bit without locking.
+ */
+public class AtomicBitSet {
+    private final AtomicLongArray words;
+    private final int size;
+
+    /**
+     * Initializes a bit set of the given size with every bit cleared.
+     *
+     * @param size the number of bits
+     */
+    public AtomicBitSet(int size) {
+        this.size = size;
+        this.words = new AtomicLongArray((size + 63) >>> 6);
+    }
+
+    /**
+     * Returns the number of bits in the set.
+     *
+     * @return the number of bits
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value of the bit at the given index.
+     *
+     * @param i the index
+     * @return {@code true} if the bit is set, {@code false} otherwise
+     */
+    public boolean get(int i) {
+        return (words.get(i >>> 6) & (1L << i)) != 0;
+    }
+
+    /**
+     * Atomically sets the bit at the given index.
+     *
+     * @param i the index
+     * @return {@code true} if this call set the bit, {@code false} if it was already set
+     */
+    public boolean set(int i) {
+        int w = i >>> 6;
+        long mask = 1L << i;
+
+        while (true) {
+            long old = words.get(w);
+            if ((old & mask) != 0) return false;
+            if (words.compareAndSet(w, old, old | mask)) return true;
+        }
+    }
+
+    /**
+     * Returns the word holding bits {@code [64 * w, 64 * w + 64)}.
+     *
+     * @param w the word index
+     * @return the word
+     */
+    long word(int w) {
+        return words.get(w);
+    }
+
+    /**
+     * Returns the number of words backing the set.
+     *
+     * @return the number of words
+     */
+    int wordCount() {
+        return words.length();
+    }
+
+    /**
+     * Clears every bit. Must not run concurrently with {@link #set(int)}.
+     */
+    public void clear() {
+        for (int w = 0; w < words.length(); w++)
+            words.set(w, 0L);
+    }
+}
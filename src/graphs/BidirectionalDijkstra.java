@@ -0,0 +1,193 @@
+package graphs;
+
+import java.util.*;
+
+/**
+ * The {@code BidirectionalDijkstra} class represents a data type for
+ * finding the shortest path between a source and a target vertex
+ * by running Dijkstra's algorithm forward from the source and backward from
+ * the target at the same time, always advancing the side with the smaller
+ * tentative distance. The search stops once the sum of both smallest tentative
+ * distances reaches the best source-target path seen so far, which is then
+ * a shortest path. Each side explores roughly a ball of half the radius of a
+ * one-sided search.
+ *
+ * <p>The backward search walks the edges of the graph in reverse; for a directed
+ * {@link WeightedGraph} these come from its recorded incoming edges.
+ * After the search, {@link #pathTo(Object)} returns the shortest path to the target,
+ * and also a shortest path to every vertex settled by the forward search.
+ *
+ * @param <Vertex> the type of vertices in the graph
+ */
+public class BidirectionalDijkstra<Vertex> extends Search<Vertex> {
+    private final Vertex target;
+    private double distance = Double.POSITIVE_INFINITY;
+    private Vertex meetFrom, meetTo;
+    private int settledCount;
+
+    /**
+     * Initializes a bidirectional search between two vertices of the given weighted graph.
+     *
+     * @param graph  the weighted graph to search
+     * @param source the source vertex
+     * @param target the target vertex
+     */
+    public BidirectionalDijkstra(WeightedGraph<Vertex> graph, Vertex source, Vertex target) {
+        this(graph, graph.reverse(), source, target);
+    }
+
+    /**
+     * Initializes a bidirectional search between two vertices of the given snapshot.
+     *
+     * @param graph  the snapshot to search
+     * @param source the source vertex
+     * @param target the target vertex
+     */
+    public BidirectionalDijkstra(CompactGraph<Vertex> graph, Vertex source, Vertex target) {
+        this(graph, graph.reverse(), source, target);
+    }
+
+    /**
+     * Initializes a bidirectional search between two vertices, given the graph and its reverse.
+     *
+     * @param forward  the graph to search from the source
+     * @param backward the same graph with every edge reversed, searched from the target
+     * @param source   the source vertex
+     * @param target   the target vertex
+     */
+    public BidirectionalDijkstra(GraphView<Vertex> forward, GraphView<Vertex> backward,
+                                 Vertex source, Vertex target) {
+        super(source);
+        this.target = target;
+
+        if (forward.hasVertex(source) && forward.hasVertex(target)) search(forward, backward);
+        else report(0, 0, 0, 0);
+    }
+
+    /**
+     * Performs the two searches until they provably meet on a shortest path.
+     *
+     * Time complexity: O((V + E) log V) in the worst case, where V is the number of vertices
+     * and E is the number of edges in the graph.
+     */
+    private void search(GraphView<Vertex> forward, GraphView<Vertex> backward) {
+        Side f = new Side(true, forward, source, marked, edgeTo);
+        Side b = new Side(false, backward, target, new HashSet<>(), new HashMap<>());
+        f.other = b;
+        b.other = f;
+
+        if (source.equals(target)) {
+            marked.add(source);
+            distance = 0;
+            report(1, 0, 1, 0);
+            return;
+        }
+
+        while (!f.pq.isEmpty() && !b.pq.isEmpty()) {
+            if (f.pq.minKey() + b.pq.minKey() >= distance) break;
+
+            if (f.pq.minKey() <= b.pq.minKey()) f.settleNext();
+            else b.settleNext();
+        }
+
+        settledCount = f.settled.size() + b.settled.size();
+        report(settledCount, f.scanned + b.scanned, f.pq.peak() + b.pq.peak(),
+                f.pq.operations() + b.pq.operations());
+        if (distance == Double.POSITIVE_INFINITY) return;
+
+        // The forward tree already covers the source side of the meeting edge;
+        // follow the backward tree from the other side of it to the target.
+        Vertex prev = meetFrom, v = meetTo;
+        while (true) {
+            marked.add(v);
+            edgeTo.put(v, prev);
+            if (v.equals(target)) break;
+            prev = v;
+            v = b.parent.get(v);
+        }
+    }
+
+    /**
+     * One direction of the search. Both sides record the meeting edge with the best
+     * total distance, in forward orientation.
+     */
+    private class Side implements NeighborVisitor<Vertex> {
+        private final boolean forward;
+        private final GraphView<Vertex> graph;
+        private final Set<Vertex> settled;
+        private final Map<Vertex, Vertex> parent;
+        private final Map<Vertex, Double> distances = new HashMap<>();
+        private final Map<Vertex, Integer> indices = new HashMap<>();
+        private final List<Vertex> vertices = new ArrayList<>();
+        private final IndexMinPQ pq = new IndexMinPQ(16);
+        private Side other;
+        private Vertex from;
+        private double fromDistance;
+        private long scanned;
+
+        Side(boolean forward, GraphView<Vertex> graph, Vertex start, Set<Vertex> settled, Map<Vertex, Vertex> parent) {
+            this.forward = forward;
+            this.graph = graph;
+            this.settled = settled;
+            this.parent = parent;
+            distances.put(start, 0D);
+            indices.put(start, 0);
+            vertices.add(start);
+            pq.insert(0, 0D);
+        }
+
+        void settleNext() {
+            from = vertices.get(pq.delMin());
+            fromDistance = distances.get(from);
+            settled.add(from);
+            graph.forEachNeighbor(from, this);
+        }
+
+        @Override
+        public void visit(Vertex neighbor, double weight) {
+            scanned++;
+            double newDistance = fromDistance + weight;
+
+            Double across = other.distances.get(neighbor);
+            if (across != null && newDistance + across < distance) {
+                distance = newDistance + across;
+                meetFrom = (forward ? from : neighbor);
+                meetTo = (forward ? neighbor : from);
+            }
+
+            Double old = distances.get(neighbor);
+            if (old != null && old <= newDistance) return;
+
+            distances.put(neighbor, newDistance);
+            parent.put(neighbor, from);
+
+            Integer index = indices.get(neighbor);
+            if (index == null) {
+                index = vertices.size();
+                indices.put(neighbor, index);
+                vertices.add(neighbor);
+                pq.insert(index, newDistance);
+            } else if (pq.contains(index)) {
+                pq.decreaseKey(index, newDistance);
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the shortest path from the source to the target.
+     *
+     * @return the length of the path, or {@code Double.POSITIVE_INFINITY} if there is none
+     */
+    public double distance() {
+        return distance;
+    }
+
+    /**
+     * Returns the number of vertices settled by both searches together.
+     *
+     * @return the number of settled vertices
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+}
@@ -1,6 +1,6 @@
 package graphs;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
 import java.util.Queue;
 
 /**
@@ -18,11 +18,22 @@ public class BreadthFirstSearch<Vertex> extends Search<Vertex> {
      * @param graph  the graph to search
      * @param source the source vertex
      */
-    public BreadthFirstSearch(MyGraph<Vertex> graph, Vertex source) {
+    public BreadthFirstSearch(GraphView<Vertex> graph, Vertex source) {
         super(source);
         bfs(graph, source);
     }
 
+    /**
+     * Initializes a breadth-first search from the source vertex in the given compact snapshot.
+     *
+     * @param graph  the snapshot to search
+     * @param source the source vertex
+     */
+    public BreadthFirstSearch(CompactGraph<Vertex> graph, Vertex source) {
+        super(graph, source);
+        bfs(graph, graph.indexOf(source));
+    }
+
     /**
      * Performs a breadth-first search in the given graph starting from the given vertex.
      *
@@ -32,22 +43,82 @@ public class BreadthFirstSearch<Vertex> extends Search<Vertex> {
      * Time complexity: O(V + E), where V is the number of vertices
      * and E is the number of edges in the graph.
      */
-    private void bfs(MyGraph<Vertex> graph, Vertex current) {
+    private void bfs(GraphView<Vertex> graph, Vertex current) {
         marked.add(current);
 
-        Queue<Vertex> queue = new LinkedList<>();
+        Queue<Vertex> queue = new ArrayDeque<>();
         queue.add(current);
 
+        Enqueuer enqueuer = new Enqueuer(queue);
+        int peak = 1;
+
         while (!queue.isEmpty()) {
-            Vertex v = queue.remove();
+            enqueuer.from = queue.remove();
+            graph.forEachNeighbor(enqueuer.from, enqueuer);
+            peak = Math.max(peak, queue.size());
+        }
+
+        report(marked.size(), enqueuer.scanned, peak, 0);
+    }
+
+    /**
+     * Marks and enqueues every unmarked neighbor of {@code from}.
+     * One instance is reused for the whole search.
+     */
+    private class Enqueuer implements NeighborVisitor<Vertex> {
+        private final Queue<Vertex> queue;
+        private Vertex from;
+        private long scanned;
+
+        Enqueuer(Queue<Vertex> queue) {
+            this.queue = queue;
+        }
 
-            for (Vertex vertex : graph.adjacencyList(v)) {
-                if (!marked.contains(vertex)) {
-                    marked.add(vertex);
-                    edgeTo.put(vertex, v);
-                    queue.add(vertex);
+        @Override
+        public void visit(Vertex vertex, double weight) {
+            scanned++;
+            if (marked.add(vertex)) {
+                edgeTo.put(vertex, from);
+                queue.add(vertex);
+            }
+        }
+    }
+
+    /**
+     * Performs a breadth-first search in the given snapshot starting from the given index.
+     * The queue is a plain array, since every vertex is enqueued at most once.
+     *
+     * @param graph   the snapshot to search
+     * @param current the index of the starting vertex
+     *
+     * Time complexity: O(V + E), where V is the number of vertices
+     * and E is the number of edges in the graph.
+     */
+    private void bfs(CompactGraph<Vertex> graph, int current) {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] queue = new int[graph.getVerticesCount()];
+        int head = 0, tail = 0, peak = 1;
+        long scanned = 0;
+
+        markedIds[current] = true;
+        queue[tail++] = current;
+
+        while (head < tail) {
+            int v = queue[head++];
+            scanned += offsets[v + 1] - offsets[v];
+
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int w = targets[e];
+                if (!markedIds[w]) {
+                    markedIds[w] = true;
+                    edgeToIds[w] = v;
+                    queue[tail++] = w;
                 }
             }
+            peak = Math.max(peak, tail - head);
         }
+
+        report(tail, scanned, peak, 0);
     }
 }
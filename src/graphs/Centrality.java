@@ -0,0 +1,435 @@
+package graphs;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The {@code Centrality} class represents a data type for computing betweenness,
+ * closeness and harmonic centrality of every vertex of a graph.
+ *
+ * <p>All three run one search per source: breadth-first search for unweighted graphs,
+ * Dijkstra's algorithm for weighted ones. Sources are processed in parallel on a
+ * {@link ForkJoinPool}; every task keeps its search state and its score accumulators in
+ * flat arrays indexed like the {@link CompactGraph} snapshot, reuses them for all its
+ * sources, and adds its accumulators to the result once at the end.
+ *
+ * <ul>
+ *     <li>Betweenness is computed with Brandes' algorithm: every search counts the shortest
+ *     paths to every vertex and then accumulates the dependencies of the source on every
+ *     vertex in reverse order of distance. In an undirected graph every pair is counted once.</li>
+ *     <li>Closeness of {@code v} is the number of other vertices {@code v} reaches divided by
+ *     the sum of their distances, so that only its component counts.</li>
+ *     <li>Harmonic centrality of {@code v} is the sum of {@code 1 / d(v, u)} over the other
+ *     vertices {@code u}, unreachable ones counting {@code 0}.</li>
+ * </ul>
+ *
+ * <p>Every measure also has a sampled mode for large graphs that only searches from
+ * {@link #sampleSize(int, double, double)} random sources and scales the result.
+ * By Hoeffding's inequality, with probability at least {@code 1 - delta} every
+ * normalized betweenness score (divided by {@code V * (V - 2)}) and every normalized
+ * harmonic score (divided by {@code V - 1}) is within {@code epsilon} of its exact value.
+ * Sampled closeness is the ratio of the two sampled sums, as proposed by Eppstein and Wang.
+ *
+ * @param <VertexData> the type of data stored in the vertices
+ */
+public class Centrality<VertexData> {
+    private static final int TASKS_PER_THREAD = 4;
+
+    private final CompactGraph<VertexData> graph;
+    private final boolean weighted;
+    private final ForkJoinPool pool;
+
+    /**
+     * Initializes the computation over a compact snapshot.
+     *
+     * @param graph    the snapshot to analyze
+     * @param weighted {@code true} to use edge weights, {@code false} to count edges
+     * @param pool     the pool to run the searches on
+     */
+    public Centrality(CompactGraph<VertexData> graph, boolean weighted, ForkJoinPool pool) {
+        this.graph = graph;
+        this.weighted = weighted;
+        this.pool = pool;
+    }
+
+    /**
+     * Initializes the computation over an unweighted graph, on the common pool.
+     *
+     * @param graph the graph to analyze
+     * @param <V>   the type of data stored in the vertices
+     * @return the centrality computation
+     */
+    public static <V> Centrality<V> of(MyGraph<V> graph) {
+        return new Centrality<>(graph.toCompact(), false, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Initializes the computation over a weighted graph, on the common pool.
+     *
+     * @param graph the graph to analyze
+     * @param <V>   the type of data stored in the vertices
+     * @return the centrality computation
+     */
+    public static <V> Centrality<V> of(WeightedGraph<V> graph) {
+        return new Centrality<>(graph.toCompact(), true, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns the number of sampled sources that keeps every normalized score within
+     * {@code epsilon} of its exact value with probability at least {@code 1 - delta}:
+     * {@code ceil(ln(2V / delta) / (2 epsilon^2))}.
+     *
+     * @param verticesCount the number of vertices V
+     * @param epsilon       the largest error of a normalized score, in {@code (0, 1)}
+     * @param delta         the probability of exceeding it, in {@code (0, 1)}
+     * @return the number of sources to sample
+     * @throws IllegalArgumentException if {@code epsilon} or {@code delta} is outside {@code (0, 1)}
+     */
+    public static int sampleSize(int verticesCount, double epsilon, double delta) {
+        if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1))
+            throw new IllegalArgumentException("Error bounds must be between 0 and 1!");
+
+        double k = Math.log(2.0 * Math.max(verticesCount, 1) / delta) / (2 * epsilon * epsilon);
+        return (int) Math.min(Integer.MAX_VALUE, Math.ceil(k));
+    }
+
+    /**
+     * Computes the exact betweenness centrality of every vertex.
+     *
+     * Time complexity: O(V * E) for unweighted graphs and O(V * (V + E) log V) for weighted
+     * ones, divided among the threads of the pool.
+     *
+     * @return the scores
+     */
+    public Scores<VertexData> betweenness() {
+        return betweenness(allSources());
+    }
+
+    /**
+     * Estimates the betweenness centrality of every vertex from a random sample of sources.
+     *
+     * @param epsilon the largest error of a normalized score, in {@code (0, 1)}
+     * @param delta   the probability of exceeding it, in {@code (0, 1)}
+     * @param seed    the seed of the sample
+     * @return the estimated scores
+     * @throws IllegalArgumentException if {@code epsilon} or {@code delta} is outside {@code (0, 1)}
+     */
+    public Scores<VertexData> betweenness(double epsilon, double delta, long seed) {
+        return betweenness(sample(epsilon, delta, seed));
+    }
+
+    /**
+     * Computes the exact closeness centrality of every vertex.
+     *
+     * @return the scores
+     */
+    public Scores<VertexData> closeness() {
+        return distances(allSources(), false);
+    }
+
+    /**
+     * Estimates the closeness centrality of every vertex from a random sample of sources.
+     *
+     * @param epsilon the largest error of a normalized score, in {@code (0, 1)}
+     * @param delta   the probability of exceeding it, in {@code (0, 1)}
+     * @param seed    the seed of the sample
+     * @return the estimated scores
+     * @throws IllegalArgumentException if {@code epsilon} or {@code delta} is outside {@code (0, 1)}
+     */
+    public Scores<VertexData> closeness(double epsilon, double delta, long seed) {
+        return distances(sample(epsilon, delta, seed), false);
+    }
+
+    /**
+     * Computes the exact harmonic centrality of every vertex.
+     *
+     * @return the scores
+     */
+    public Scores<VertexData> harmonic() {
+        return distances(allSources(), true);
+    }
+
+    /**
+     * Estimates the harmonic centrality of every vertex from a random sample of sources.
+     *
+     * @param epsilon the largest error of a normalized score, in {@code (0, 1)}
+     * @param delta   the probability of exceeding it, in {@code (0, 1)}
+     * @param seed    the seed of the sample
+     * @return the estimated scores
+     * @throws IllegalArgumentException if {@code epsilon} or {@code delta} is outside {@code (0, 1)}
+     */
+    public Scores<VertexData> harmonic(double epsilon, double delta, long seed) {
+        return distances(sample(epsilon, delta, seed), true);
+    }
+
+    private int[] allSources() {
+        int[] sources = new int[graph.getVerticesCount()];
+        for (int i = 0; i < sources.length; i++)
+            sources[i] = i;
+        return sources;
+    }
+
+    /**
+     * Draws the sources uniformly with replacement, or returns every vertex if the
+     * sample would not be smaller.
+     */
+    private int[] sample(double epsilon, double delta, long seed) {
+        int n = graph.getVerticesCount();
+        int k = sampleSize(n, epsilon, delta);
+        if (k >= n) return allSources();
+
+        Random random = new Random(seed);
+        int[] sources = new int[k];
+        for (int i = 0; i < k; i++)
+            sources[i] = random.nextInt(n);
+        return sources;
+    }
+
+    private Scores<VertexData> betweenness(int[] sources) {
+        int n = graph.getVerticesCount();
+        double[] scores = new double[n];
+
+        run(sources, graph, (worker, from, to) -> {
+            double[] local = new double[n];
+            for (int i = from; i < to; i++) {
+                int s = sources[i];
+                int settled = worker.search(s);
+                worker.accumulate(settled, s, local);
+                worker.reset(settled);
+            }
+            merge(scores, local);
+        });
+
+        double scale = n / (double) sources.length;
+        if (graph.isUndirected()) scale /= 2;
+        for (int v = 0; v < n; v++)
+            scores[v] *= scale;
+        return new Scores<>(graph, scores);
+    }
+
+    /**
+     * Computes closeness or harmonic centrality. Searching from {@code s} in the reverse
+     * graph gives {@code d(v, s)} for every {@code v}, which is one term of the score of {@code v}.
+     */
+    private Scores<VertexData> distances(int[] sources, boolean harmonic) {
+        int n = graph.getVerticesCount();
+        double[] sums = new double[n];
+        double[] counts = new double[n];
+
+        run(sources, graph.reverse(), (worker, from, to) -> {
+            double[] localSums = new double[n];
+            double[] localCounts = new double[n];
+            for (int i = from; i < to; i++) {
+                int settled = worker.search(sources[i]);
+                for (int k = 1; k < settled; k++) {
+                    int v = worker.order[k];
+                    double d = worker.dist[v];
+                    if (d == 0) continue;
+
+                    localSums[v] += (harmonic ? 1 / d : d);
+                    localCounts[v]++;
+                }
+                worker.reset(settled);
+            }
+            merge(sums, localSums);
+            merge(counts, localCounts);
+        });
+
+        double scale = n / (double) sources.length;
+        double[] scores = new double[n];
+        for (int v = 0; v < n; v++) {
+            if (harmonic) scores[v] = sums[v] * scale;
+            else scores[v] = (sums[v] == 0 ? 0 : counts[v] / sums[v]);
+        }
+        return new Scores<>(graph, scores);
+    }
+
+    private static synchronized void merge(double[] total, double[] local) {
+        for (int v = 0; v < total.length; v++)
+            total[v] += local[v];
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run(Worker worker, int from, int to);
+    }
+
+    /**
+     * Splits the sources into a few tasks per thread, each with its own worker.
+     */
+    private void run(int[] sources, CompactGraph<VertexData> searched, Task task) {
+        int tasks = Math.max(1, pool.getParallelism() * TASKS_PER_THREAD);
+        int grain = Math.max(1, (sources.length + tasks - 1) / tasks);
+        ParallelFor.run(pool, 0, sources.length, grain,
+                (from, to) -> task.run(new Worker(searched, weighted), from, to));
+    }
+
+    /**
+     * The array state of the searches of one task: distances, shortest path counts,
+     * dependencies and the vertices in the order they were settled.
+     */
+    private static final class Worker {
+        private final int[] offsets;
+        private final int[] targets;
+        private final double[] weights;
+        private final boolean weighted;
+        private final double[] dist;
+        private final double[] sigma;
+        private final double[] delta;
+        private final int[] order;
+        private final IndexMinPQ pq;
+
+        Worker(CompactGraph<?> graph, boolean weighted) {
+            int n = graph.getVerticesCount();
+            this.offsets = graph.offsets();
+            this.targets = graph.targets();
+            this.weights = graph.weights();
+            this.weighted = weighted;
+            dist = new double[n];
+            sigma = new double[n];
+            delta = new double[n];
+            order = new int[n];
+            pq = (weighted ? new IndexMinPQ(n) : null);
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        }
+
+        /**
+         * Searches from {@code s}, counting the shortest paths to every vertex.
+         *
+         * @return the number of vertices settled, listed in {@code order}
+         */
+        int search(int s) {
+            dist[s] = 0;
+            sigma[s] = 1;
+            return (weighted ? dijkstra(s) : bfs(s));
+        }
+
+        private int bfs(int s) {
+            int head = 0, tail = 0;
+            order[tail++] = s;
+
+            while (head < tail) {
+                int v = order[head++];
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    if (dist[w] == Double.POSITIVE_INFINITY) {
+                        dist[w] = dist[v] + 1;
+                        order[tail++] = w;
+                    }
+                    if (dist[w] == dist[v] + 1) sigma[w] += sigma[v];
+                }
+            }
+            return tail;
+        }
+
+        private int dijkstra(int s) {
+            int settled = 0;
+            pq.insert(s, 0);
+
+            while (!pq.isEmpty()) {
+                int v = pq.delMin();
+                order[settled++] = v;
+
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    double newDistance = dist[v] + weights[e];
+
+                    if (newDistance < dist[w]) {
+                        dist[w] = newDistance;
+                        sigma[w] = sigma[v];
+                        if (pq.contains(w)) pq.decreaseKey(w, newDistance);
+                        else pq.insert(w, newDistance);
+                    } else if (newDistance == dist[w]) {
+                        sigma[w] += sigma[v];
+                    }
+                }
+            }
+            return settled;
+        }
+
+        /**
+         * Adds the dependencies of source {@code s} on every vertex to {@code scores},
+         * visiting the settled vertices from the farthest and pulling the dependencies
+         * of their successors on shortest paths.
+         */
+        void accumulate(int settled, int s, double[] scores) {
+            for (int k = settled - 1; k >= 0; k--) {
+                int v = order[k];
+                double dependency = 0;
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    double length = (weighted ? weights[e] : 1);
+                    if (dist[w] == dist[v] + length && dist[w] != dist[v])
+                        dependency += sigma[v] / sigma[w] * (1 + delta[w]);
+                }
+                delta[v] = dependency;
+                if (v != s) scores[v] += dependency;
+            }
+        }
+
+        void reset(int settled) {
+            for (int k = 0; k < settled; k++) {
+                int v = order[k];
+                dist[v] = Double.POSITIVE_INFINITY;
+                sigma[v] = 0;
+                delta[v] = 0;
+            }
+        }
+    }
+
+    /**
+     * The {@code Scores} class represents one centrality score per vertex,
+     * stored by the dense vertex index of the snapshot.
+     *
+     * @param <VertexData> the type of data stored in the vertices
+     */
+    public static final class Scores<VertexData> {
+        private final CompactGraph<VertexData> graph;
+        private final double[] values;
+
+        private Scores(CompactGraph<VertexData> graph, double[] values) {
+            this.graph = graph;
+            this.values = values;
+        }
+
+        /**
+         * Returns the score of the specified vertex.
+         *
+         * @param v the vertex data
+         * @return the score of {@code v}
+         * @throws NoSuchElementException if {@code v} is not in the graph
+         */
+        public double get(VertexData v) {
+            int i = graph.indexOf(v);
+            if (i == -1) throw new NoSuchElementException("Vertex is not in the graph!");
+            return values[i];
+        }
+
+        /**
+         * Returns the scores by dense vertex index. This is the array of the scores itself.
+         *
+         * @return the scores
+         */
+        public double[] values() {
+            return values;
+        }
+
+        /**
+         * Returns the {@code k} vertices with the highest scores, highest first.
+         *
+         * @param k the number of vertices
+         * @return the top vertices
+         */
+        public List<VertexData> top(int k) {
+            Integer[] indices = new Integer[values.length];
+            for (int i = 0; i < indices.length; i++)
+                indices[i] = i;
+            Arrays.sort(indices, (a, b) -> Double.compare(values[b], values[a]));
+
+            List<VertexData> top = new ArrayList<>(Math.min(k, indices.length));
+            for (int i = 0; i < k && i < indices.length; i++)
+                top.add(graph.vertexAt(indices[i]));
+            return top;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package graphs;
+
+import java.util.*;
+
+/**
+ * The {@code CompactGraph} class represents an immutable snapshot of a graph
+ * in compressed sparse row (CSR) form.
+ * Every vertex is mapped to a dense index in {@code [0, V)}, and the edges leaving
+ * vertex {@code i} are stored in {@code targets[offsets[i] .. offsets[i + 1])}
+ * with their weights at the same positions in {@code weights}.
+ * Snapshots are created with {@link WeightedGraph#toCompact()} or {@link MyGraph#toCompact()}.
+ *
+ * @param <VertexData> the type of data stored in the vertices
+ */
+public class CompactGraph<VertexData> implements GraphView<VertexData> {
+    private final boolean undirected;
+    private final Object[] keys;
+    private final Map<VertexData, Integer> indices;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private volatile CompactGraph<VertexData> reverse;
+
+    /**
+     * Initializes a snapshot from already built CSR arrays.
+     *
+     * @param undirected {@code true} if the graph is undirected, {@code false} if directed
+     * @param keys       the vertex data of every index
+     * @param offsets    the edge offsets, of length {@code keys.length + 1}
+     * @param targets    the destination index of every edge
+     * @param weights    the weight of every edge
+     */
+    CompactGraph(boolean undirected, Object[] keys, int[] offsets, int[] targets, double[] weights) {
+        this.undirected = undirected;
+        this.keys = keys;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.indices = new HashMap<>(keys.length * 4 / 3 + 1);
+
+        for (int i = 0; i < keys.length; i++) {
+            @SuppressWarnings("unchecked")
+            VertexData key = (VertexData) keys[i];
+            indices.put(key, i);
+        }
+    }
+
+    /**
+     * Initializes a snapshot that shares its vertex indices with another snapshot.
+     */
+    private CompactGraph(boolean undirected, Object[] keys, Map<VertexData, Integer> indices,
+                         int[] offsets, int[] targets, double[] weights) {
+        this.undirected = undirected;
+        this.keys = keys;
+        this.indices = indices;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Builds a snapshot of the given vertices.
+     * Indices follow the iteration order of {@code vertices}, and the edges of every
+     * vertex follow their insertion order.
+     *
+     * @param vertices   the vertices of the graph
+     * @param undirected {@code true} if the graph is undirected, {@code false} if directed
+     * @return the snapshot
+     */
+    static <V> CompactGraph<V> of(Collection<Vertex<V>> vertices, boolean undirected) {
+        int n = vertices.size();
+        Map<Vertex<V>, Integer> index = new HashMap<>(n * 4 / 3 + 1);
+        Object[] keys = new Object[n];
+        int[] offsets = new int[n + 1];
+
+        int i = 0;
+        for (Vertex<V> v : vertices) {
+            index.put(v, i);
+            keys[i] = v.getData();
+            offsets[i + 1] = offsets[i] + v.degree();
+            i++;
+        }
+
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+
+        i = 0;
+        for (Vertex<V> v : vertices) {
+            int e = offsets[i++];
+            for (int j = 0; j < v.degree(); j++, e++) {
+                targets[e] = index.get(v.adjacentAt(j));
+                weights[e] = v.weightAt(j);
+            }
+        }
+
+        return new CompactGraph<>(undirected, keys, offsets, targets, weights);
+    }
+
+    /**
+     * Returns whether the graph is undirected.
+     *
+     * @return {@code true} if the graph is undirected, {@code false} if directed
+     */
+    public boolean isUndirected() {
+        return undirected;
+    }
+
+    /**
+     * Returns the number of vertices in the graph.
+     *
+     * @return the number of vertices
+     */
+    @Override
+    public int getVerticesCount() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the number of edges in the graph.
+     *
+     * @return the number of edges
+     */
+    public int getEdgesCount() {
+        int count = targets.length;
+
+        if (undirected) count /= 2;
+
+        return count;
+    }
+
+    /**
+     * Checks if the graph contains the specified vertex.
+     *
+     * @param v the vertex data
+     * @return {@code true} if the graph contains the vertex, {@code false} otherwise
+     */
+    @Override
+    public boolean hasVertex(VertexData v) {
+        return indices.containsKey(v);
+    }
+
+    /**
+     * Returns the dense index of the specified vertex, or {@code -1} if it is not in the graph.
+     *
+     * @param v the vertex data
+     * @return the index of {@code v}, or {@code -1}
+     */
+    public int indexOf(VertexData v) {
+        Integer i = indices.get(v);
+        return (i == null ? -1 : i);
+    }
+
+    /**
+     * Returns the vertex data stored at the specified index.
+     *
+     * @param i the index
+     * @return the vertex data
+     */
+    @SuppressWarnings("unchecked")
+    public VertexData vertexAt(int i) {
+        return (VertexData) keys[i];
+    }
+
+    /**
+     * Returns the number of edges leaving the vertex at the specified index.
+     *
+     * @param i the index
+     * @return the out-degree of the vertex
+     */
+    public int degree(int i) {
+        return offsets[i + 1] - offsets[i];
+    }
+
+    /**
+     * Returns the position of the first edge of the vertex at the specified index.
+     * The edges of vertex {@code i} are at positions {@code [edgeStart(i), edgeStart(i + 1))}.
+     *
+     * @param i the index, up to and including {@link #getVerticesCount()}
+     * @return the position of the first edge
+     */
+    public int edgeStart(int i) {
+        return offsets[i];
+    }
+
+    /**
+     * Returns the destination index of the edge at the specified position.
+     *
+     * @param e the edge position
+     * @return the destination index
+     */
+    public int target(int e) {
+        return targets[e];
+    }
+
+    /**
+     * Returns the weight of the edge at the specified position.
+     *
+     * @param e the edge position
+     * @return the weight of the edge
+     */
+    public double weight(int e) {
+        return weights[e];
+    }
+
+    /**
+     * Returns the reverse of this graph, in which every edge {@code u -> v} becomes {@code v -> u}
+     * with the same weight and vertices keep their indices.
+     * An undirected graph is its own reverse. The result is computed once and cached.
+     *
+     * Time complexity: O(V + E) on the first call.
+     *
+     * @return the reverse graph
+     */
+    public CompactGraph<VertexData> reverse() {
+        if (undirected) return this;
+
+        CompactGraph<VertexData> r = reverse;
+        if (r == null) {
+            r = transpose();
+            r.reverse = this;
+            reverse = r;
+        }
+        return r;
+    }
+
+    private CompactGraph<VertexData> transpose() {
+        int n = keys.length;
+        int[] rOffsets = new int[n + 1];
+        int[] rTargets = new int[targets.length];
+        double[] rWeights = new double[weights.length];
+
+        for (int t : targets)
+            rOffsets[t + 1]++;
+        for (int i = 0; i < n; i++)
+            rOffsets[i + 1] += rOffsets[i];
+
+        int[] next = Arrays.copyOf(rOffsets, n);
+        for (int v = 0; v < n; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int p = next[targets[e]]++;
+                rTargets[p] = v;
+                rWeights[p] = weights[e];
+            }
+        }
+
+        return new CompactGraph<>(false, keys, indices, rOffsets, rTargets, rWeights);
+    }
+
+    int[] offsets() {
+        return offsets;
+    }
+
+    int[] targets() {
+        return targets;
+    }
+
+    double[] weights() {
+        return weights;
+    }
+
+    /**
+     * Passes every neighbor of the specified vertex, with the weight of the edge
+     * leading to it, to the given visitor.
+     *
+     * @param v       the vertex data
+     * @param visitor the visitor to call for every neighbor
+     */
+    @Override
+    public void forEachNeighbor(VertexData v, NeighborVisitor<VertexData> visitor) {
+        int i = indexOf(v);
+        if (i == -1) return;
+
+        for (int e = offsets[i]; e < offsets[i + 1]; e++)
+            visitor.visit(vertexAt(targets[e]), weights[e]);
+    }
+
+    /**
+     * Returns the distances from every source to every target, computed in parallel
+     * batches on the common pool.
+     *
+     * @param sources the source vertices, one row each
+     * @param targets the target vertices, one column each
+     * @return the distance matrix
+     * @throws IllegalArgumentException if a vertex is not in the graph, or if the matrix has
+     *                                  more cells than an array can hold
+     * @see DistanceMatrix
+     */
+    public DistanceMatrix<VertexData> distanceMatrix(List<VertexData> sources, List<VertexData> targets) {
+        return DistanceMatrix.compute(this, sources, targets);
+    }
+
+    /**
+     * Returns the adjacency list of the specified vertex.
+     *
+     * @param v the vertex data
+     * @return a list of adjacent vertices
+     */
+    public List<VertexData> adjacencyList(VertexData v) {
+        int i = indexOf(v);
+        if (i == -1) return null;
+
+        List<VertexData> res = new ArrayList<>(degree(i));
+        for (int e = offsets[i]; e < offsets[i + 1]; e++)
+            res.add(vertexAt(targets[e]));
+        return res;
+    }
+}
@@ -0,0 +1,400 @@
+package graphs;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The {@code Components} class represents a partition of the vertices of a graph
+ * into connected components, computed once so that {@link #connected(Object, Object)}
+ * answers in constant time afterwards.
+ *
+ * <p>In a directed graph the {@link Engine#TARJAN} engine finds the strongly connected
+ * components, and the other engines find the weakly connected ones, ignoring edge
+ * directions. In an undirected graph every engine finds the connected components.
+ * Either way, two vertices in different components have no path between them, so a
+ * route request can be rejected before running {@link Dijkstra}; with strong components
+ * {@link #mayReach(Object, Object)} also rules out some pairs within a weak component.
+ *
+ * <p>Components are numbered densely from {@code 0}. The strong components of
+ * {@link Engine#TARJAN} are numbered in reverse topological order of the condensation:
+ * every component reachable from component {@code c} has a number no greater than {@code c}.
+ *
+ * @param <VertexData> the type of data stored in the vertices
+ */
+public class Components<VertexData> {
+    /**
+     * The algorithm used to find the components.
+     */
+    public enum Engine {
+        /**
+         * Iterative Tarjan's algorithm with an explicit call stack. Strong components. O(V + E).
+         */
+        TARJAN,
+        /**
+         * Union-find with union by size and path compression over every edge.
+         * Weak components. O((V + E) alpha(V)).
+         */
+        UNION_FIND,
+        /**
+         * Parallel Afforest (Sutton et al.): lock-free hooking of a few sampled neighbors
+         * of every vertex, then of the remaining edges of the vertices outside the largest
+         * component found by the sample. Weak components. O(V + E) work.
+         */
+        AFFOREST
+    }
+
+    /**
+     * The number of neighbors of every vertex hooked before the largest component is sampled.
+     */
+    public static final int NEIGHBOR_ROUNDS = 2;
+
+    private static final int SAMPLES = 1024;
+    private static final int GRAIN = 1024;
+
+    private final CompactGraph<VertexData> graph;
+    private final boolean strong;
+    private final int[] id;
+    private final int[] size;
+
+    /**
+     * Finds the components of a snapshot with the given engine, running on the given pool.
+     * Only the {@link Engine#AFFOREST} engine uses the pool.
+     *
+     * @param graph  the snapshot to partition
+     * @param engine the algorithm to use
+     * @param pool   the pool to run on
+     */
+    public Components(CompactGraph<VertexData> graph, Engine engine, ForkJoinPool pool) {
+        this.graph = graph;
+        this.strong = (engine == Engine.TARJAN && !graph.isUndirected());
+        this.id = new int[graph.getVerticesCount()];
+
+        int count;
+        if (engine == Engine.TARJAN) count = tarjan();
+        else if (engine == Engine.UNION_FIND) count = relabel(unionFind());
+        else count = relabel(afforest(pool));
+
+        this.size = new int[count];
+        for (int c : id)
+            size[c]++;
+    }
+
+    /**
+     * Finds the components of a graph: the strong components with {@link Engine#TARJAN}
+     * if it is directed, the connected components with {@link Engine#UNION_FIND} otherwise.
+     *
+     * @param graph the graph to partition
+     * @param <V>   the type of data stored in the vertices
+     * @return the components
+     */
+    public static <V> Components<V> of(MyGraph<V> graph) {
+        return of(graph.toCompact());
+    }
+
+    /**
+     * Finds the components of a weighted graph: the strong components with {@link Engine#TARJAN}
+     * if it is directed, the connected components with {@link Engine#UNION_FIND} otherwise.
+     *
+     * @param graph the graph to partition
+     * @param <V>   the type of data stored in the vertices
+     * @return the components
+     */
+    public static <V> Components<V> of(WeightedGraph<V> graph) {
+        return of(graph.toCompact());
+    }
+
+    private static <V> Components<V> of(CompactGraph<V> compact) {
+        Engine engine = (compact.isUndirected() ? Engine.UNION_FIND : Engine.TARJAN);
+        return new Components<>(compact, engine, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns whether the components are strongly connected components of a directed graph.
+     *
+     * @return {@code true} for strong components, {@code false} for weak or undirected ones
+     */
+    public boolean isStrong() {
+        return strong;
+    }
+
+    /**
+     * Returns the number of components.
+     *
+     * @return the number of components
+     */
+    public int count() {
+        return size.length;
+    }
+
+    /**
+     * Returns the number of the component containing the specified vertex.
+     *
+     * @param v the vertex data
+     * @return the component number, in {@code [0, count())}
+     * @throws NoSuchElementException if {@code v} is not in the graph
+     */
+    public int id(VertexData v) {
+        int i = graph.indexOf(v);
+        if (i == -1) throw new NoSuchElementException("Vertex is not in the graph!");
+        return id[i];
+    }
+
+    /**
+     * Returns the number of vertices in the component containing the specified vertex.
+     *
+     * @param v the vertex data
+     * @return the size of its component
+     * @throws NoSuchElementException if {@code v} is not in the graph
+     */
+    public int size(VertexData v) {
+        return size[id(v)];
+    }
+
+    /**
+     * Returns the vertices of the given component, in the order of the snapshot.
+     *
+     * Time complexity: O(V).
+     *
+     * @param c the component number
+     * @return the vertices of component {@code c}
+     * @throws IllegalArgumentException if {@code c} is not in {@code [0, count())}
+     */
+    public List<VertexData> members(int c) {
+        if (c < 0 || c >= size.length) throw new IllegalArgumentException("Component does not exist!");
+
+        List<VertexData> members = new ArrayList<>(size[c]);
+        for (int i = 0; i < id.length; i++)
+            if (id[i] == c) members.add(graph.vertexAt(i));
+        return members;
+    }
+
+    /**
+     * Checks if the two vertices are in the same component.
+     * Vertices that are not in the graph are not connected to anything.
+     *
+     * @param a the first vertex
+     * @param b the second vertex
+     * @return {@code true} if they are in the same component, {@code false} otherwise
+     */
+    public boolean connected(VertexData a, VertexData b) {
+        int i = graph.indexOf(a), j = graph.indexOf(b);
+        return i != -1 && j != -1 && id[i] == id[j];
+    }
+
+    /**
+     * Checks whether a path from {@code a} to {@code b} is possible.
+     * A {@code false} answer is certain; a {@code true} answer only means that the
+     * components cannot rule the path out. For strong components it is {@code false}
+     * when the component of {@code b} comes after the component of {@code a} in
+     * reverse topological order; otherwise it is the same as {@link #connected(Object, Object)}.
+     *
+     * @param a the source vertex
+     * @param b the destination vertex
+     * @return {@code false} if there is no path from {@code a} to {@code b}
+     */
+    public boolean mayReach(VertexData a, VertexData b) {
+        int i = graph.indexOf(a), j = graph.indexOf(b);
+        if (i == -1 || j == -1) return false;
+        return (strong ? id[i] >= id[j] : id[i] == id[j]);
+    }
+
+    /**
+     * Numbers the strong components in the order Tarjan's algorithm completes them.
+     * The recursion is replaced by a call stack of vertices, each resuming the scan
+     * of its edges from {@code next[v]}.
+     *
+     * @return the number of components
+     */
+    private int tarjan() {
+        int n = graph.getVerticesCount();
+        int[] offsets = graph.offsets(), targets = graph.targets();
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] next = new int[n];
+        int[] stack = new int[n];
+        int[] calls = new int[n];
+        Arrays.fill(index, -1);
+        Arrays.fill(id, -1);
+
+        int counter = 0, count = 0;
+        for (int root = 0; root < n; root++) {
+            if (index[root] != -1) continue;
+
+            int sp = 0, cp = 0;
+            index[root] = low[root] = counter++;
+            next[root] = offsets[root];
+            stack[sp++] = root;
+            calls[cp++] = root;
+
+            while (cp > 0) {
+                int v = calls[cp - 1];
+
+                if (next[v] < offsets[v + 1]) {
+                    int w = targets[next[v]++];
+                    if (index[w] == -1) {
+                        index[w] = low[w] = counter++;
+                        next[w] = offsets[w];
+                        stack[sp++] = w;
+                        calls[cp++] = w;
+                    } else if (id[w] == -1) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+
+                cp--;
+                if (cp > 0) {
+                    int parent = calls[cp - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack[--sp];
+                        id[w] = count;
+                    } while (w != v);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Unites the endpoints of every edge and returns the representative of every vertex.
+     */
+    private int[] unionFind() {
+        int n = graph.getVerticesCount();
+        int[] offsets = graph.offsets(), targets = graph.targets();
+        UnionFind uf = new UnionFind(n);
+
+        for (int v = 0; v < n; v++)
+            for (int e = offsets[v]; e < offsets[v + 1]; e++)
+                uf.union(v, targets[e]);
+
+        int[] roots = new int[n];
+        for (int v = 0; v < n; v++)
+            roots[v] = uf.find(v);
+        return roots;
+    }
+
+    /**
+     * Hooks the first {@link #NEIGHBOR_ROUNDS} neighbors of every vertex, finds the most
+     * frequent component in a sample, and then hooks the remaining edges of the vertices
+     * outside it. In a directed graph the incoming edges of those vertices are hooked as
+     * well, since a vertex in the largest component does not scan its outgoing edges.
+     *
+     * @return the representative of every vertex
+     */
+    private int[] afforest(ForkJoinPool pool) {
+        int n = graph.getVerticesCount();
+        int[] offsets = graph.offsets(), targets = graph.targets();
+        AtomicIntegerArray comp = new AtomicIntegerArray(n);
+        for (int v = 0; v < n; v++)
+            comp.set(v, v);
+
+        for (int r = 0; r < NEIGHBOR_ROUNDS; r++) {
+            int round = r;
+            ParallelFor.run(pool, 0, n, GRAIN, (from, to) -> {
+                for (int v = from; v < to; v++)
+                    if (offsets[v] + round < offsets[v + 1]) link(comp, v, targets[offsets[v] + round]);
+            });
+            compress(comp, pool);
+        }
+
+        int largest = sampleFrequent(comp);
+        CompactGraph<VertexData> reverse = (graph.isUndirected() ? null : graph.reverse());
+
+        ParallelFor.run(pool, 0, n, GRAIN, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                if (comp.get(v) == largest) continue;
+
+                for (int e = offsets[v] + NEIGHBOR_ROUNDS; e < offsets[v + 1]; e++)
+                    link(comp, v, targets[e]);
+                if (reverse == null) continue;
+
+                int[] inOffsets = reverse.offsets(), inTargets = reverse.targets();
+                for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++)
+                    link(comp, v, inTargets[e]);
+            }
+        });
+        compress(comp, pool);
+
+        int[] roots = new int[n];
+        for (int v = 0; v < n; v++)
+            roots[v] = comp.get(v);
+        return roots;
+    }
+
+    /**
+     * Joins the trees of {@code u} and {@code v} by hooking the higher root under the lower
+     * one with a compare-and-set, retrying from the new parents if another thread got there first.
+     */
+    private static void link(AtomicIntegerArray comp, int u, int v) {
+        int p1 = comp.get(u);
+        int p2 = comp.get(v);
+
+        while (p1 != p2) {
+            int high = Math.max(p1, p2);
+            int low = Math.min(p1, p2);
+            int pHigh = comp.get(high);
+
+            if (pHigh == low || (pHigh == high && comp.compareAndSet(high, high, low))) break;
+            p1 = comp.get(comp.get(high));
+            p2 = comp.get(low);
+        }
+    }
+
+    /**
+     * Points every vertex directly at the root of its tree.
+     */
+    private static void compress(AtomicIntegerArray comp, ForkJoinPool pool) {
+        ParallelFor.run(pool, 0, comp.length(), GRAIN, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                int parent;
+                while ((parent = comp.get(v)) != comp.get(parent))
+                    comp.set(v, comp.get(parent));
+            }
+        });
+    }
+
+    /**
+     * Returns the most frequent root among {@link #SAMPLES} randomly chosen vertices.
+     */
+    private static int sampleFrequent(AtomicIntegerArray comp) {
+        int n = comp.length();
+        if (n == 0) return -1;
+
+        Random random = new Random(n);
+        Map<Integer, Integer> counts = new HashMap<>();
+        int best = comp.get(0), bestCount = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            int root = comp.get(random.nextInt(n));
+            int c = counts.merge(root, 1, Integer::sum);
+            if (c > bestCount) {
+                best = root;
+                bestCount = c;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Numbers the components by the first vertex of each, from representatives.
+     *
+     * @return the number of components
+     */
+    private int relabel(int[] roots) {
+        int[] number = new int[roots.length];
+        Arrays.fill(number, -1);
+
+        int count = 0;
+        for (int v = 0; v < roots.length; v++) {
+            int r = roots[v];
+            if (number[r] == -1) number[r] = count++;
+            id[v] = number[r];
+        }
+        return count;
+    }
+}
@@ -0,0 +1,354 @@
+package graphs;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The {@code ConcurrentWeightedGraph} class represents a weighted graph that can be
+ * modified while searches run on it, from any number of threads.
+ *
+ * <p>Vertices are kept in a {@link ConcurrentHashMap}. The edges leaving a vertex are an
+ * immutable pair of arrays (neighbors and weights) published through a {@code volatile}
+ * field: readers never lock, and writers copy the arrays of the vertex they change and
+ * publish the copy in one write. Writers take striped locks, chosen by the hash of the
+ * vertex, so that writers to unrelated vertices do not contend. A change to an undirected
+ * edge holds the locks of both its ends.
+ *
+ * <p><b>Consistency.</b> Every single change ({@link #addEdge}, {@link #setEdgeWeight},
+ * {@link #removeEdge}) is atomic for each vertex it touches: a reader of the edges of a
+ * vertex sees either all of a change or none of it, never a torn weight or a half-copied
+ * array. A call of {@link #forEachNeighbor(Object, NeighborVisitor)} sees one consistent
+ * version of the edges of that vertex. A search that runs during updates therefore sees
+ * every vertex as it was when the search expanded it, but different vertices may be seen
+ * at different moments; its result is exact for a graph mixing old and new weights, and
+ * it is exact for the current graph once updates stop. In an undirected graph the two
+ * directions of an edge are published one after the other, so a reader may briefly see
+ * them with different weights. Searches that need one global state should run on a
+ * {@link #toCompact()} snapshot taken while no writer runs, or on a versioned graph.
+ *
+ * <p>Writes cost O(d) for a vertex of degree d because of the copy.
+ *
+ * @param <VertexData> the type of data stored in the vertices
+ */
+public class ConcurrentWeightedGraph<VertexData> implements GraphView<VertexData> {
+    private static final int STRIPES = 64;
+
+    private final boolean undirected;
+    private final ConcurrentHashMap<VertexData, Node<VertexData>> map = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[STRIPES];
+    private final AtomicInteger arcsCount = new AtomicInteger();
+
+    private static final class Node<V> {
+        final V data;
+        volatile Adjacency out = Adjacency.EMPTY;
+        volatile Adjacency in = Adjacency.EMPTY;
+
+        Node(V data) {
+            this.data = data;
+        }
+    }
+
+    /**
+     * Initializes an undirected concurrent weighted graph.
+     */
+    public ConcurrentWeightedGraph() {
+        this(true);
+    }
+
+    /**
+     * Initializes a concurrent weighted graph, directed or undirected.
+     *
+     * @param undirected {@code true} if the graph is undirected, {@code false} if directed
+     */
+    public ConcurrentWeightedGraph(boolean undirected) {
+        this.undirected = undirected;
+        for (int i = 0; i < STRIPES; i++)
+            locks[i] = new Object();
+    }
+
+    /**
+     * Returns whether the graph is undirected.
+     *
+     * @return {@code true} if the graph is undirected, {@code false} if directed
+     */
+    public boolean isUndirected() {
+        return undirected;
+    }
+
+    /**
+     * Adds a vertex to the graph.
+     *
+     * @param v the vertex data to add
+     */
+    public void addVertex(VertexData v) {
+        node(v);
+    }
+
+    private Node<VertexData> node(VertexData v) {
+        return map.computeIfAbsent(v, Node::new);
+    }
+
+    private static int stripeOf(Object v) {
+        int h = v.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * Runs a change under the locks of both ends of an edge, taken in stripe order,
+     * or under the one lock of their shared stripe.
+     */
+    private boolean locked(Object v, Object w, BooleanSupplier change) {
+        int a = stripeOf(v), b = stripeOf(w);
+        synchronized (locks[Math.min(a, b)]) {
+            if (a == b) return change.getAsBoolean();
+            synchronized (locks[Math.max(a, b)]) {
+                return change.getAsBoolean();
+            }
+        }
+    }
+
+    /**
+     * Adds an edge between the source and destination vertices with the given weight.
+     * If the graph is undirected, also adds the reverse edge.
+     * Adding an existing edge or a self-loop does nothing, as in {@link WeightedGraph}.
+     *
+     * @param source the source vertex
+     * @param dest   the destination vertex
+     * @param weight the weight of the edge
+     */
+    public void addEdge(VertexData source, VertexData dest, double weight) {
+        Node<VertexData> s = node(source);
+        Node<VertexData> d = node(dest);
+        if (source.equals(dest)) return;
+
+        update(s, d, weight, false);
+    }
+
+    /**
+     * Changes the weight of an existing edge. The new weight becomes visible to readers atomically.
+     *
+     * @param source the source vertex
+     * @param dest   the destination vertex
+     * @param weight the new weight of the edge
+     * @return {@code true} if the edge exists, {@code false} if there is no such edge
+     */
+    public boolean setEdgeWeight(VertexData source, VertexData dest, double weight) {
+        Node<VertexData> s = map.get(source);
+        Node<VertexData> d = map.get(dest);
+        if (s == null || d == null) return false;
+
+        return update(s, d, weight, true);
+    }
+
+    /**
+     * Adds or reweighs the edge {@code s -> d} (and {@code d -> s} if undirected)
+     * under the locks of both ends.
+     *
+     * @param existing {@code true} to only change an existing edge, {@code false} to only add a new one
+     * @return {@code true} if the graph was changed
+     */
+    private boolean update(Node<VertexData> s, Node<VertexData> d, double weight, boolean existing) {
+        return locked(s.data, d.data, () -> {
+            boolean exists = s.out.indexOf(d.data) != -1;
+            if (exists != existing) return false;
+
+            s.out = s.out.with(d.data, weight);
+            if (undirected) d.out = d.out.with(s.data, weight);
+            else d.in = d.in.with(s.data, weight);
+
+            if (!exists) arcsCount.addAndGet(undirected ? 2 : 1);
+            return true;
+        });
+    }
+
+    /**
+     * Removes the edge between the source and destination vertices.
+     * If the graph is undirected, also removes the reverse edge.
+     *
+     * @param source the source vertex
+     * @param dest   the destination vertex
+     * @return {@code true} if the edge existed
+     */
+    public boolean removeEdge(VertexData source, VertexData dest) {
+        Node<VertexData> s = map.get(source);
+        Node<VertexData> d = map.get(dest);
+        if (s == null || d == null) return false;
+
+        return locked(source, dest, () -> {
+            int k = s.out.indexOf(dest);
+            if (k == -1) return false;
+
+            s.out = s.out.without(k);
+            if (undirected) d.out = d.out.without(d.out.indexOf(source));
+            else d.in = d.in.without(d.in.indexOf(source));
+
+            arcsCount.addAndGet(undirected ? -2 : -1);
+            return true;
+        });
+    }
+
+    /**
+     * Returns the number of vertices in the graph.
+     *
+     * @return the number of vertices
+     */
+    @Override
+    public int getVerticesCount() {
+        return map.size();
+    }
+
+    /**
+     * Returns the number of edges in the graph.
+     *
+     * @return the number of edges
+     */
+    public int getEdgesCount() {
+        int count = arcsCount.get();
+        return (undirected ? count / 2 : count);
+    }
+
+    /**
+     * Checks if the graph contains the specified vertex.
+     *
+     * @param v the vertex data
+     * @return {@code true} if the graph contains the vertex, {@code false} otherwise
+     */
+    @Override
+    public boolean hasVertex(VertexData v) {
+        return map.containsKey(v);
+    }
+
+    /**
+     * Checks if the graph contains an edge between the specified vertices.
+     *
+     * @param source the source vertex
+     * @param dest   the destination vertex
+     * @return {@code true} if the edge exists, {@code false} otherwise
+     */
+    public boolean hasEdge(VertexData source, VertexData dest) {
+        Node<VertexData> s = map.get(source);
+        return s != null && s.out.indexOf(dest) != -1;
+    }
+
+    /**
+     * Returns the current weight of the edge between the specified vertices.
+     *
+     * @param source the source vertex
+     * @param dest   the destination vertex
+     * @return the weight of the edge
+     * @throws NoSuchElementException if there is no such edge
+     */
+    public double getEdgeWeight(VertexData source, VertexData dest) {
+        Node<VertexData> s = map.get(source);
+        Adjacency out = (s == null ? Adjacency.EMPTY : s.out);
+        int k = out.indexOf(dest);
+        if (k == -1) throw new NoSuchElementException("Edge is not in the graph!");
+        return out.weights[k];
+    }
+
+    /**
+     * Passes every neighbor of the specified vertex, with the weight of the edge
+     * leading to it, to the given visitor. The visitor sees one consistent version
+     * of the edges of the vertex, even if they change during the call.
+     * Does nothing if the vertex is not in the graph.
+     *
+     * @param v       the vertex data
+     * @param visitor the visitor to call for every neighbor
+     */
+    @Override
+    public void forEachNeighbor(VertexData v, NeighborVisitor<VertexData> visitor) {
+        Node<VertexData> node = map.get(v);
+        if (node != null) node.out.forEach(visitor);
+    }
+
+    /**
+     * Passes every vertex with an edge into the specified vertex, with the weight of that edge,
+     * to the given visitor. In an undirected graph these are the neighbors.
+     * Does nothing if the vertex is not in the graph.
+     *
+     * @param v       the vertex data
+     * @param visitor the visitor to call for every incoming edge
+     */
+    public void forEachIncoming(VertexData v, NeighborVisitor<VertexData> visitor) {
+        Node<VertexData> node = map.get(v);
+        if (node != null) (undirected ? node.out : node.in).forEach(visitor);
+    }
+
+    /**
+     * Returns a live view of this graph with every edge reversed, as used by backward searches.
+     * An undirected graph is its own reverse.
+     *
+     * @return the reverse view
+     */
+    public GraphView<VertexData> reverse() {
+        if (undirected) return this;
+
+        return new GraphView<>() {
+            @Override
+            public int getVerticesCount() {
+                return ConcurrentWeightedGraph.this.getVerticesCount();
+            }
+
+            @Override
+            public boolean hasVertex(VertexData v) {
+                return ConcurrentWeightedGraph.this.hasVertex(v);
+            }
+
+            @Override
+            public void forEachNeighbor(VertexData v, NeighborVisitor<VertexData> visitor) {
+                forEachIncoming(v, visitor);
+            }
+        };
+    }
+
+    /**
+     * Builds an immutable compressed sparse row snapshot of the graph.
+     * The edges of every vertex are copied from one consistent version; if writers run
+     * at the same time, different vertices may be copied at different moments.
+     *
+     * Time complexity: O(V + E), where V is the number of vertices
+     * and E is the number of edges in the graph.
+     *
+     * @return the compact snapshot
+     */
+    public CompactGraph<VertexData> toCompact() {
+        List<Object> keys = new ArrayList<>(map.size());
+        List<Adjacency> edges = new ArrayList<>(map.size());
+        Map<Object, Integer> indices = new HashMap<>(map.size() * 4 / 3 + 1);
+        for (Node<VertexData> node : map.values()) {
+            indices.put(node.data, keys.size());
+            keys.add(node.data);
+            edges.add(node.out);
+        }
+
+        // vertices added after the iteration above can still appear as neighbors
+        int arcs = 0;
+        for (int i = 0; i < edges.size(); i++) {
+            for (Object w : edges.get(i).neighbors) {
+                if (indices.putIfAbsent(w, keys.size()) == null) {
+                    keys.add(w);
+                    edges.add(Adjacency.EMPTY);
+                }
+            }
+            arcs += edges.get(i).neighbors.length;
+        }
+
+        int n = keys.size();
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[arcs];
+        double[] weights = new double[arcs];
+        for (int i = 0; i < n; i++) {
+            Adjacency adjacency = edges.get(i);
+            int e = offsets[i];
+            for (int k = 0; k < adjacency.neighbors.length; k++) {
+                targets[e] = indices.get(adjacency.neighbors[k]);
+                weights[e++] = adjacency.weights[k];
+            }
+            offsets[i + 1] = e;
+        }
+
+        return new CompactGraph<>(undirected, keys.toArray(), offsets, targets, weights);
+    }
+}
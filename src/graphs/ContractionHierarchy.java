@@ -0,0 +1,827 @@
+package graphs;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * The {@code ContractionHierarchy} class represents a contraction hierarchy
+ * over a static weighted graph, for very fast point-to-point shortest path queries.
+ *
+ * <p>Preprocessing contracts the vertices one at a time, least important first.
+ * Contracting a vertex removes it from the remaining graph and adds a shortcut
+ * {@code u -> w} for every path {@code u -> v -> w} that is the only shortest path
+ * between its ends, as checked by a local "witness" search bounded in distance, settled
+ * vertices and edges per path. Importance combines the edge difference (shortcuts added
+ * minus edges removed), the number of already contracted neighbors and the depth in the
+ * hierarchy. Contracting a vertex only updates the last two for its neighbors; the edge
+ * difference is recomputed lazily, when a vertex comes up for contraction.
+ * A query then only needs a bidirectional
+ * Dijkstra that follows edges to more important vertices; see
+ * {@link ContractionHierarchySearch}. Every shortcut remembers the two edges it
+ * replaces, so paths are unpacked back into original edges.
+ *
+ * <p>A hierarchy can be saved with {@link #save(Path)} and restored with
+ * {@link #load(Path, Function)} without repeating the preprocessing.
+ *
+ * @param <VertexData> the type of data stored in the vertices
+ */
+public class ContractionHierarchy<VertexData> {
+    private static final int MAGIC = 0x43484731; // "CHG1"
+    // witness searches settle at most this many vertices and follow paths of at most this many edges;
+    // estimating a priority uses smaller budgets
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+    private static final int WITNESS_HOP_LIMIT = 5;
+    private static final int ESTIMATE_SETTLE_LIMIT = 50;
+    private static final int ESTIMATE_HOP_LIMIT = 2;
+
+    private final Object[] keys;
+    private final Map<VertexData, Integer> indices;
+    private final int[] rank;
+
+    // every edge of the hierarchy, original or shortcut; shortcuts point to the two edges they replace
+    private final int[] arcFrom;
+    private final int[] arcTo;
+    private final double[] arcWeight;
+    private final int[] arcFirst;
+    private final int[] arcSecond;
+
+    // upward edges leaving each vertex, and upward edges entering each vertex, as arc ids
+    private final int[] upOffsets;
+    private final int[] upArcs;
+    private final int[] downOffsets;
+    private final int[] downArcs;
+
+    // idle query scratch space, borrowed by one query at a time; grows to the peak number of concurrent queries
+    private final Queue<Query> queries = new ConcurrentLinkedQueue<>();
+
+    private ContractionHierarchy(Object[] keys, int[] rank, int[] arcFrom, int[] arcTo, double[] arcWeight,
+                                 int[] arcFirst, int[] arcSecond) {
+        this.keys = keys;
+        this.rank = rank;
+        this.arcFrom = arcFrom;
+        this.arcTo = arcTo;
+        this.arcWeight = arcWeight;
+        this.arcFirst = arcFirst;
+        this.arcSecond = arcSecond;
+
+        this.indices = new HashMap<>(keys.length * 4 / 3 + 1);
+        for (int i = 0; i < keys.length; i++) {
+            @SuppressWarnings("unchecked")
+            VertexData key = (VertexData) keys[i];
+            indices.put(key, i);
+        }
+
+        int n = keys.length;
+        upOffsets = new int[n + 1];
+        downOffsets = new int[n + 1];
+        for (int a = 0; a < arcFrom.length; a++) {
+            if (rank[arcTo[a]] > rank[arcFrom[a]]) upOffsets[arcFrom[a] + 1]++;
+            else downOffsets[arcTo[a] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            upOffsets[i + 1] += upOffsets[i];
+            downOffsets[i + 1] += downOffsets[i];
+        }
+
+        upArcs = new int[upOffsets[n]];
+        downArcs = new int[downOffsets[n]];
+        int[] upNext = Arrays.copyOf(upOffsets, n);
+        int[] downNext = Arrays.copyOf(downOffsets, n);
+        for (int a = 0; a < arcFrom.length; a++) {
+            if (rank[arcTo[a]] > rank[arcFrom[a]]) upArcs[upNext[arcFrom[a]]++] = a;
+            else downArcs[downNext[arcTo[a]]++] = a;
+        }
+    }
+
+    /**
+     * Builds a contraction hierarchy of the given weighted graph.
+     *
+     * @param graph the graph
+     * @param <V>   the type of data stored in the vertices
+     * @return the hierarchy
+     */
+    public static <V> ContractionHierarchy<V> build(WeightedGraph<V> graph) {
+        return build(graph.toCompact());
+    }
+
+    /**
+     * Builds a contraction hierarchy of the given snapshot.
+     *
+     * Time complexity: depends on the graph; near-linear on road networks.
+     *
+     * @param graph the snapshot
+     * @param <V>   the type of data stored in the vertices
+     * @return the hierarchy
+     */
+    public static <V> ContractionHierarchy<V> build(CompactGraph<V> graph) {
+        Contractor contractor = new Contractor(graph);
+        contractor.contractAll();
+
+        Object[] keys = new Object[graph.getVerticesCount()];
+        for (int i = 0; i < keys.length; i++)
+            keys[i] = graph.vertexAt(i);
+
+        return new ContractionHierarchy<>(keys, contractor.rank, contractor.from.toArray(), contractor.to.toArray(),
+                Arrays.copyOf(contractor.weight, contractor.from.size()),
+                contractor.first.toArray(), contractor.second.toArray());
+    }
+
+    /**
+     * Returns the number of vertices in the hierarchy.
+     *
+     * @return the number of vertices
+     */
+    public int getVerticesCount() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the number of shortcut edges added by the preprocessing.
+     *
+     * @return the number of shortcuts
+     */
+    public int getShortcutsCount() {
+        int count = 0;
+        for (int f : arcFirst)
+            if (f != -1) count++;
+        return count;
+    }
+
+    /**
+     * Checks if the hierarchy contains the specified vertex.
+     *
+     * @param v the vertex data
+     * @return {@code true} if the hierarchy contains the vertex, {@code false} otherwise
+     */
+    public boolean hasVertex(VertexData v) {
+        return indices.containsKey(v);
+    }
+
+    int indexOf(VertexData v) {
+        Integer i = indices.get(v);
+        return (i == null ? -1 : i);
+    }
+
+    @SuppressWarnings("unchecked")
+    VertexData vertexAt(int i) {
+        return (VertexData) keys[i];
+    }
+
+    /**
+     * Returns the length of the shortest path between two vertices.
+     *
+     * @param source the source vertex
+     * @param target the target vertex
+     * @return the length of the shortest path, or {@code Double.POSITIVE_INFINITY} if there is none
+     */
+    public double distance(VertexData source, VertexData target) {
+        int s = indexOf(source), t = indexOf(target);
+        if (s == -1 || t == -1) return Double.POSITIVE_INFINITY;
+
+        Query q = borrow();
+        try {
+            q.run(s, t);
+            return q.best;
+        } finally {
+            release(q);
+        }
+    }
+
+    /**
+     * Runs a query between two vertex indices and appends the vertices of the
+     * shortest path, unpacked into original edges, to {@code path}. The work of the query
+     * is written to {@code work}: settled vertices, scanned arcs, the larger queue peak
+     * and the heap operations of both searches.
+     *
+     * @return the length of the path, or {@code Double.POSITIVE_INFINITY} if there is none
+     */
+    double query(int s, int t, IntList path, long[] work) {
+        Query q = borrow();
+        try {
+            q.run(s, t);
+            if (q.meeting != -1) q.unpack(s, t, path);
+
+            work[0] = q.settled;
+            work[1] = q.scanned;
+            work[2] = Math.max(q.forwardQueue.peak(), q.backwardQueue.peak());
+            work[3] = q.forwardQueue.operations() + q.backwardQueue.operations();
+            return q.best;
+        } finally {
+            release(q);
+        }
+    }
+
+    /**
+     * Takes an idle query from the pool, or creates one if every query is in use.
+     */
+    private Query borrow() {
+        Query q = queries.poll();
+        return (q != null ? q : new Query(keys.length));
+    }
+
+    /**
+     * Clears a query and returns it to the pool.
+     */
+    private void release(Query q) {
+        q.reset();
+        queries.offer(q);
+    }
+
+    /**
+     * Computes the distances from every source index to every target index with the
+     * bucket-based many-to-many algorithm. An upward backward search from every target
+     * leaves (target, distance) entries in the buckets of the vertices it settles; then an
+     * upward forward search from every source scans the buckets of the vertices it settles,
+     * since every shortest path climbs from the source to its most important vertex and
+     * descends from there. The forward searches run in parallel on the given pool.
+     *
+     * Time complexity: O((S + T) * U + B), where U is the size of an upward search space
+     * and B is the number of bucket entries scanned.
+     *
+     * @return the distances, row by row, {@code Double.POSITIVE_INFINITY} where there is no path
+     */
+    double[] manyToMany(int[] sources, int[] targets, ForkJoinPool pool) {
+        int n = keys.length, columns = targets.length;
+        double[] matrix = new double[sources.length * columns];
+        Arrays.fill(matrix, Double.POSITIVE_INFINITY);
+
+        IntList bucketVertex = new IntList(), bucketColumn = new IntList();
+        double[][] bucketDistance = {new double[16]};
+        Query q = borrow();
+        try {
+            for (int j = 0; j < columns; j++) {
+                int c = j;
+                q.upward(targets[j], false, (v, d) -> {
+                    int k = bucketVertex.size();
+                    if (k == bucketDistance[0].length)
+                        bucketDistance[0] = Arrays.copyOf(bucketDistance[0], k * 2);
+                    bucketVertex.add(v);
+                    bucketColumn.add(c);
+                    bucketDistance[0][k] = d;
+                });
+            }
+        } finally {
+            release(q);
+        }
+
+        // group the entries by vertex, in CSR form
+        int entries = bucketVertex.size();
+        int[] offsets = new int[n + 1];
+        for (int k = 0; k < entries; k++)
+            offsets[bucketVertex.get(k) + 1]++;
+        for (int v = 0; v < n; v++)
+            offsets[v + 1] += offsets[v];
+        int[] next = Arrays.copyOf(offsets, n);
+        int[] column = new int[entries];
+        double[] distance = new double[entries];
+        for (int k = 0; k < entries; k++) {
+            int e = next[bucketVertex.get(k)]++;
+            column[e] = bucketColumn.get(k);
+            distance[e] = bucketDistance[0][k];
+        }
+
+        ParallelFor.run(pool, 0, sources.length, 1, (from, to) -> {
+            Query query = borrow();
+            try {
+                for (int i = from; i < to; i++) {
+                    int row = i * columns;
+                    query.upward(sources[i], true, (v, d) -> {
+                        for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                            double total = d + distance[e];
+                            if (total < matrix[row + column[e]]) matrix[row + column[e]] = total;
+                        }
+                    });
+                }
+            } finally {
+                release(query);
+            }
+        });
+        return matrix;
+    }
+
+    /**
+     * Receives the vertices settled by {@link Query#upward}.
+     */
+    @FunctionalInterface
+    private interface Settled {
+        void settle(int v, double distance);
+    }
+
+    /**
+     * Returns the distances from every source to every target, computed with the
+     * bucket-based many-to-many algorithm on the common pool.
+     *
+     * @param sources the source vertices, one row each
+     * @param targets the target vertices, one column each
+     * @return the distance matrix
+     * @throws IllegalArgumentException if a vertex is not in the hierarchy, or if the matrix has
+     *                                  more cells than an array can hold
+     */
+    public DistanceMatrix<VertexData> distanceMatrix(List<VertexData> sources, List<VertexData> targets) {
+        return DistanceMatrix.compute(this, sources, targets);
+    }
+
+    /**
+     * The scratch state of one query at a time: distances and parent edges of both searches,
+     * reset after every query by walking the vertices it touched, then returned to the pool.
+     */
+    private final class Query {
+        private final double[] forward;
+        private final double[] backward;
+        private final int[] forwardArc;
+        private final int[] backwardArc;
+        private final IndexMinPQ forwardQueue;
+        private final IndexMinPQ backwardQueue;
+        private final IntList touched = new IntList();
+        private double best;
+        private int meeting;
+        private int settled;
+        private long scanned;
+
+        Query(int n) {
+            forward = new double[n];
+            backward = new double[n];
+            forwardArc = new int[n];
+            backwardArc = new int[n];
+            Arrays.fill(forward, Double.POSITIVE_INFINITY);
+            Arrays.fill(backward, Double.POSITIVE_INFINITY);
+            forwardQueue = new IndexMinPQ(n);
+            backwardQueue = new IndexMinPQ(n);
+        }
+
+        void run(int s, int t) {
+            best = Double.POSITIVE_INFINITY;
+            meeting = -1;
+            settled = 0;
+            scanned = 0;
+
+            reach(forward, forwardArc, forwardQueue, s, 0, -1);
+            reach(backward, backwardArc, backwardQueue, t, 0, -1);
+
+            while (true) {
+                boolean f = !forwardQueue.isEmpty() && forwardQueue.minKey() < best;
+                boolean b = !backwardQueue.isEmpty() && backwardQueue.minKey() < best;
+                if (!f && !b) break;
+
+                if (f && (!b || forwardQueue.minKey() <= backwardQueue.minKey())) {
+                    int v = forwardQueue.delMin();
+                    settled++;
+                    meet(v);
+                    if (stalled(v, forward, downOffsets, downArcs, arcFrom)) continue;
+                    scanned += upOffsets[v + 1] - upOffsets[v];
+                    for (int k = upOffsets[v]; k < upOffsets[v + 1]; k++) {
+                        int a = upArcs[k];
+                        reach(forward, forwardArc, forwardQueue, arcTo[a], forward[v] + arcWeight[a], a);
+                    }
+                } else {
+                    int v = backwardQueue.delMin();
+                    settled++;
+                    meet(v);
+                    if (stalled(v, backward, upOffsets, upArcs, arcTo)) continue;
+                    scanned += downOffsets[v + 1] - downOffsets[v];
+                    for (int k = downOffsets[v]; k < downOffsets[v + 1]; k++) {
+                        int a = downArcs[k];
+                        reach(backward, backwardArc, backwardQueue, arcFrom[a], backward[v] + arcWeight[a], a);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Stall-on-demand: {@code v} need not be expanded if a more important vertex already
+         * reached by the same search offers a shorter path to it, through an edge the search
+         * itself may not follow.
+         */
+        private boolean stalled(int v, double[] dist, int[] offsets, int[] arcs, int[] otherEnd) {
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int a = arcs[k];
+                if (dist[otherEnd[a]] + arcWeight[a] < dist[v]) return true;
+            }
+            return false;
+        }
+
+        private void meet(int v) {
+            double d = forward[v] + backward[v];
+            if (d < best) {
+                best = d;
+                meeting = v;
+            }
+        }
+
+        private void reach(double[] dist, int[] parent, IndexMinPQ pq, int v, double d, int arc) {
+            if (d >= dist[v]) return;
+
+            if (forward[v] == Double.POSITIVE_INFINITY && backward[v] == Double.POSITIVE_INFINITY)
+                touched.add(v);
+
+            dist[v] = d;
+            parent[v] = arc;
+            if (pq.contains(v)) pq.decreaseKey(v, d);
+            else pq.insert(v, d);
+        }
+
+        void unpack(int s, int t, IntList path) {
+            path.add(s);
+
+            // forward arcs lead from the source up to the meeting vertex, collected in reverse
+            IntList arcs = new IntList();
+            for (int v = meeting; v != s; v = arcFrom[forwardArc[v]])
+                arcs.add(forwardArc[v]);
+            for (int k = arcs.size() - 1; k >= 0; k--)
+                unpackArc(arcs.get(k), path);
+
+            for (int v = meeting; v != t; v = arcTo[backwardArc[v]])
+                unpackArc(backwardArc[v], path);
+        }
+
+        private void unpackArc(int arc, IntList path) {
+            IntList stack = new IntList();
+            stack.add(arc);
+
+            while (!stack.isEmpty()) {
+                int a = stack.removeLast();
+
+                if (arcFirst[a] == -1) {
+                    path.add(arcTo[a]);
+                } else {
+                    stack.add(arcSecond[a]);
+                    stack.add(arcFirst[a]);
+                }
+            }
+        }
+
+        /**
+         * Runs one search from {@code v} that only moves to more important vertices, forward
+         * along the edges leaving them or backward along the edges entering them, passes every
+         * settled vertex that is not stalled to {@code settled}, then resets.
+         */
+        void upward(int v, boolean forwardSearch, Settled settled) {
+            int[] offsets = (forwardSearch ? upOffsets : downOffsets);
+            int[] arcs = (forwardSearch ? upArcs : downArcs);
+            reach(forward, forwardArc, forwardQueue, v, 0, -1);
+
+            while (!forwardQueue.isEmpty()) {
+                int u = forwardQueue.delMin();
+                boolean stall = (forwardSearch ? stalled(u, forward, downOffsets, downArcs, arcFrom)
+                        : stalled(u, forward, upOffsets, upArcs, arcTo));
+                if (stall) continue;
+
+                settled.settle(u, forward[u]);
+                for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                    int a = arcs[k];
+                    reach(forward, forwardArc, forwardQueue, forwardSearch ? arcTo[a] : arcFrom[a], forward[u] + arcWeight[a], a);
+                }
+            }
+            reset();
+        }
+
+        void reset() {
+            for (int k = 0; k < touched.size(); k++) {
+                int v = touched.get(k);
+                forward[v] = Double.POSITIVE_INFINITY;
+                backward[v] = Double.POSITIVE_INFINITY;
+            }
+            touched.clear();
+            forwardQueue.clear();
+            backwardQueue.clear();
+        }
+    }
+
+    /**
+     * Saves the hierarchy to a file. Vertex data is stored as {@code String.valueOf(v)}.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(keys.length);
+            out.writeInt(arcFrom.length);
+
+            for (int i = 0; i < keys.length; i++) {
+                out.writeUTF(String.valueOf(keys[i]));
+                out.writeInt(rank[i]);
+            }
+
+            for (int a = 0; a < arcFrom.length; a++) {
+                out.writeInt(arcFrom[a]);
+                out.writeInt(arcTo[a]);
+                out.writeDouble(arcWeight[a]);
+                out.writeInt(arcFirst[a]);
+                out.writeInt(arcSecond[a]);
+            }
+        }
+    }
+
+    /**
+     * Loads a hierarchy saved with {@link #save(Path)}.
+     *
+     * @param file      the file to read
+     * @param keyParser converts the stored text of a vertex back to its data
+     * @param <V>       the type of data stored in the vertices
+     * @return the hierarchy
+     * @throws IOException if the file cannot be read or is not a saved hierarchy
+     */
+    public static <V> ContractionHierarchy<V> load(Path file, Function<String, V> keyParser) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a contraction hierarchy file: " + file);
+
+            int n = in.readInt();
+            int m = in.readInt();
+            Object[] keys = new Object[n];
+            int[] rank = new int[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = keyParser.apply(in.readUTF());
+                rank[i] = in.readInt();
+            }
+
+            int[] from = new int[m], to = new int[m], first = new int[m], second = new int[m];
+            double[] weight = new double[m];
+            for (int a = 0; a < m; a++) {
+                from[a] = in.readInt();
+                to[a] = in.readInt();
+                weight[a] = in.readDouble();
+                first[a] = in.readInt();
+                second[a] = in.readInt();
+            }
+
+            return new ContractionHierarchy<>(keys, rank, from, to, weight, first, second);
+        }
+    }
+
+    /**
+     * Contracts the vertices of a snapshot and records the resulting edges and ranks.
+     */
+    private static final class Contractor {
+        private final int n;
+        private final IntList from = new IntList(), to = new IntList(), first = new IntList(), second = new IntList();
+        private double[] weight = new double[16];
+        private final IntList[] out, in;
+        private final boolean[] contracted;
+        private final int[] contractedNeighbors;
+        private final int[] level;
+        private final int[] rank;
+
+        // the arc from the vertex being linked to each target, -1 elsewhere; see mark()
+        private final int[] arcTo;
+
+        // witness search scratch
+        private final double[] dist;
+        private final int[] hops;
+        private final boolean[] target;
+        private final IntList touched = new IntList();
+        private final IndexMinPQ pq;
+
+        Contractor(CompactGraph<?> graph) {
+            n = graph.getVerticesCount();
+            out = new IntList[n];
+            in = new IntList[n];
+            for (int v = 0; v < n; v++) {
+                out[v] = new IntList(4);
+                in[v] = new IntList(4);
+            }
+
+            arcTo = new int[n];
+            Arrays.fill(arcTo, -1);
+            for (int v = 0; v < n; v++) {
+                for (int e = graph.edgeStart(v); e < graph.edgeStart(v + 1); e++)
+                    addArc(v, graph.target(e), graph.weight(e), -1, -1);
+                unmark(v);
+            }
+
+            contracted = new boolean[n];
+            contractedNeighbors = new int[n];
+            level = new int[n];
+            rank = new int[n];
+            dist = new double[n];
+            hops = new int[n];
+            target = new boolean[n];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            pq = new IndexMinPQ(n);
+        }
+
+        /**
+         * Adds an edge, or lowers the weight of an existing parallel edge. The arcs leaving
+         * {@code u} must be marked, as by {@link #mark(int)}; the new arc is marked too.
+         */
+        private void addArc(int u, int v, double w, int a1, int a2) {
+            if (u == v) return;
+
+            int a = arcTo[v];
+            if (a != -1) {
+                if (w < weight[a]) {
+                    weight[a] = w;
+                    first.set(a, a1);
+                    second.set(a, a2);
+                }
+                return;
+            }
+
+            a = from.size();
+            from.add(u);
+            to.add(v);
+            first.add(a1);
+            second.add(a2);
+            if (a == weight.length) weight = Arrays.copyOf(weight, a * 2);
+            weight[a] = w;
+
+            out[u].add(a);
+            in[v].add(a);
+            arcTo[v] = a;
+        }
+
+        /**
+         * Records the arcs leaving {@code u} in {@code arcTo}, so that {@link #addArc} finds
+         * a parallel edge in constant time.
+         */
+        private void mark(int u) {
+            for (int k = 0; k < out[u].size(); k++)
+                arcTo[to.get(out[u].get(k))] = out[u].get(k);
+        }
+
+        private void unmark(int u) {
+            for (int k = 0; k < out[u].size(); k++)
+                arcTo[to.get(out[u].get(k))] = -1;
+        }
+
+        /**
+         * Contracts the vertices in order of priority. Priorities are updated lazily: the
+         * contraction of a vertex only adds the cheap terms to the priorities of its neighbors,
+         * and the full priority, with its simulated contraction, is recomputed when a vertex
+         * reaches the head of the queue, which contracts it only if it is still the least important.
+         */
+        void contractAll() {
+            IndexMinPQ order = new IndexMinPQ(n);
+            for (int v = 0; v < n; v++)
+                order.insert(v, priority(v));
+
+            int next = 0;
+            while (!order.isEmpty()) {
+                int v = order.delMin();
+                double p = priority(v);
+                if (!order.isEmpty() && p > order.minKey()) {
+                    order.insert(v, p);
+                    continue;
+                }
+
+                contract(v, false);
+                contracted[v] = true;
+                rank[v] = next++;
+                detach(v);
+
+                for (int k = 0; k < out[v].size(); k++)
+                    neighborContracted(order, v, to.get(out[v].get(k)));
+                for (int k = 0; k < in[v].size(); k++)
+                    neighborContracted(order, v, from.get(in[v].get(k)));
+            }
+        }
+
+        /**
+         * Removes the edges of a contracted vertex from the lists of its remaining neighbors,
+         * so that later searches do not scan them.
+         */
+        private void detach(int v) {
+            for (int k = 0; k < out[v].size(); k++) {
+                int a = out[v].get(k);
+                remove(in[to.get(a)], a);
+            }
+            for (int k = 0; k < in[v].size(); k++) {
+                int a = in[v].get(k);
+                remove(out[from.get(a)], a);
+            }
+        }
+
+        private static void remove(IntList arcs, int a) {
+            for (int k = 0; k < arcs.size(); k++) {
+                if (arcs.get(k) == a) {
+                    arcs.set(k, arcs.get(arcs.size() - 1));
+                    arcs.removeLast();
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Adds the contracted-neighbor and depth terms of {@link #priority(int)} to the queued
+         * priority of {@code w}, without simulating its contraction again.
+         */
+        private void neighborContracted(IndexMinPQ order, int v, int w) {
+            if (contracted[w]) return;
+
+            int deeper = Math.max(0, level[v] + 1 - level[w]);
+            contractedNeighbors[w]++;
+            level[w] += deeper;
+            order.changeKey(w, order.keyOf(w) + 1 + deeper);
+        }
+
+        /**
+         * Returns the importance of {@code v}: twice the edge difference of contracting it, plus
+         * the number of contracted neighbors and its depth, which spread contraction evenly.
+         */
+        private double priority(int v) {
+            int removed = out[v].size() + in[v].size();
+            return 2 * (contract(v, true) - removed) + contractedNeighbors[v] + level[v];
+        }
+
+        /**
+         * Contracts {@code v}, or only counts the shortcuts it would need.
+         *
+         * @return the number of shortcuts needed
+         */
+        private int contract(int v, boolean simulate) {
+            int shortcuts = 0;
+            IntList ins = in[v], outs = out[v];
+
+            for (int i = 0; i < ins.size(); i++) {
+                int inArc = ins.get(i);
+                int u = from.get(inArc);
+
+                // a direct edge from u is the cheapest witness; search only for the other targets
+                mark(u);
+                int needed = 0;
+                double limit = 0;
+                for (int j = 0; j < outs.size(); j++) {
+                    int outArc = outs.get(j);
+                    int w = to.get(outArc);
+                    double viaV = weight[inArc] + weight[outArc];
+                    if (w == u || (arcTo[w] != -1 && weight[arcTo[w]] <= viaV)) continue;
+
+                    target[w] = true;
+                    needed++;
+                    limit = Math.max(limit, viaV);
+                }
+
+                if (needed > 0) {
+                    if (simulate) witnessSearch(u, v, limit, needed, ESTIMATE_SETTLE_LIMIT, ESTIMATE_HOP_LIMIT);
+                    else witnessSearch(u, v, limit, needed, WITNESS_SETTLE_LIMIT, WITNESS_HOP_LIMIT);
+                }
+
+                for (int j = 0; j < outs.size(); j++) {
+                    int outArc = outs.get(j);
+                    int w = to.get(outArc);
+                    if (!target[w]) continue;
+
+                    target[w] = false;
+                    double viaV = weight[inArc] + weight[outArc];
+                    if (dist[w] <= viaV) continue;
+
+                    shortcuts++;
+                    if (!simulate) addArc(u, w, viaV, inArc, outArc);
+                }
+
+                unmark(u);
+                clearWitness();
+            }
+
+            return shortcuts;
+        }
+
+        /**
+         * Runs a Dijkstra search from {@code u} among the uncontracted vertices other than
+         * {@code v}, until it has settled the given number of targets or reached the given
+         * distance, number of settled vertices or number of edges on a path. A witness missed because of the limits
+         * only costs a superfluous shortcut.
+         */
+        private void witnessSearch(int u, int v, double limit, int targets, int settleLimit, int hopLimit) {
+            dist[u] = 0;
+            hops[u] = 0;
+            touched.add(u);
+            pq.insert(u, 0);
+            int settled = 0;
+
+            while (!pq.isEmpty() && pq.minKey() <= limit && settled++ < settleLimit) {
+                int x = pq.delMin();
+                if (target[x] && --targets == 0) return;
+                if (hops[x] == hopLimit) continue;
+
+                for (int k = 0; k < out[x].size(); k++) {
+                    int a = out[x].get(k);
+                    int y = to.get(a);
+                    if (y == v) continue;
+
+                    double d = dist[x] + weight[a];
+                    if (d < dist[y]) {
+                        if (dist[y] == Double.POSITIVE_INFINITY) touched.add(y);
+                        dist[y] = d;
+                        hops[y] = hops[x] + 1;
+                        if (pq.contains(y)) pq.decreaseKey(y, d);
+                        else pq.insert(y, d);
+                    }
+                }
+            }
+        }
+
+        private void clearWitness() {
+            for (int k = 0; k < touched.size(); k++)
+                dist[touched.get(k)] = Double.POSITIVE_INFINITY;
+            touched.clear();
+            pq.clear();
+        }
+    }
+}
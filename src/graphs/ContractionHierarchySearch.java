@@ -0,0 +1,63 @@
+package graphs;
+
+/**
+ * The {@code ContractionHierarchySearch} class represents a data type for
+ * finding the shortest path between a source and a target vertex
+ * with a precomputed {@link ContractionHierarchy}.
+ * Two Dijkstra searches run from the source and the target, each following only edges
+ * towards more important vertices, and the best meeting vertex gives the shortest path.
+ * Shortcuts on the path are then unpacked back into original edges.
+ *
+ * <p>After the search, {@link #hasPathTo(Object)} and {@link #pathTo(Object)} answer
+ * for the target and for every vertex on its shortest path.
+ *
+ * @param <Vertex> the type of vertices in the graph
+ */
+public class ContractionHierarchySearch<Vertex> extends Search<Vertex> {
+    private double distance = Double.POSITIVE_INFINITY;
+
+    /**
+     * Initializes a search between two vertices of the given hierarchy.
+     *
+     * Time complexity: usually a few hundred settled vertices on road networks,
+     * independent of the size of the graph.
+     *
+     * @param hierarchy the contraction hierarchy of the graph
+     * @param source    the source vertex
+     * @param target    the target vertex
+     */
+    public ContractionHierarchySearch(ContractionHierarchy<Vertex> hierarchy, Vertex source, Vertex target) {
+        super(source);
+
+        int s = hierarchy.indexOf(source), t = hierarchy.indexOf(target);
+        if (s == -1 || t == -1) {
+            report(0, 0, 0, 0);
+            return;
+        }
+
+        IntList path = new IntList();
+        long[] work = new long[4];
+        distance = hierarchy.query(s, t, path, work);
+        report(work[0], work[1], work[2], work[3]);
+
+        if (path.isEmpty()) return;
+
+        Vertex prev = source;
+        marked.add(source);
+        for (int k = 1; k < path.size(); k++) {
+            Vertex v = hierarchy.vertexAt(path.get(k));
+            marked.add(v);
+            edgeTo.put(v, prev);
+            prev = v;
+        }
+    }
+
+    /**
+     * Returns the length of the shortest path from the source to the target.
+     *
+     * @return the length of the path, or {@code Double.POSITIVE_INFINITY} if there is none
+     */
+    public double distance() {
+        return distance;
+    }
+}
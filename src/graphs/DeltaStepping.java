@@ -0,0 +1,386 @@
+package graphs;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The {@code DeltaStepping} class represents a data type for
+ * computing single-source shortest paths over a {@link CompactGraph}
+ * with the parallel delta-stepping algorithm of Meyer and Sanders.
+ * Tentative distances are kept in buckets of width {@code delta}. The lowest
+ * non-empty bucket is emptied by relaxing the light edges (weight at most
+ * {@code delta}) of all its vertices in parallel until no vertex falls back into
+ * it, and then the heavy edges of every vertex removed from it are relaxed at once.
+ * Distances are lowered with compare-and-set, so relaxations need no locks.
+ * Buckets are cyclic: {@code ceil(maxWeight / delta) + 2} slots, at most {@link #MAX_SLOTS},
+ * cover every tentative distance, and the search jumps straight to the next non-empty
+ * bucket however small {@code delta} is next to the weights.
+ *
+ * <p>Edge weights must be non-negative. The computed distances are identical to
+ * those of {@link Dijkstra}; {@link #pathTo(Object)} returns one shortest path,
+ * which may differ from Dijkstra's when several paths have the same length.
+ * A small {@code delta} approaches Dijkstra's order with little parallelism, a
+ * large one approaches Bellman-Ford with more redundant relaxations.
+ *
+ * @param <Vertex> the type of vertices in the graph
+ */
+public class DeltaStepping<Vertex> extends Search<Vertex> {
+    private static final int GRAIN = 128;
+
+    /**
+     * The largest number of bucket slots. Vertices beyond the last slot wait in an overflow list.
+     */
+    public static final int MAX_SLOTS = 4096;
+
+    private final double delta;
+    private final ForkJoinPool pool;
+    private AtomicLongArray distances;
+
+    /**
+     * Initializes delta-stepping from the source vertex in the given snapshot,
+     * with a default {@code delta} and running on the common pool.
+     *
+     * @param graph  the snapshot to search
+     * @param source the source vertex
+     */
+    public DeltaStepping(CompactGraph<Vertex> graph, Vertex source) {
+        this(graph, source, defaultDelta(graph));
+    }
+
+    /**
+     * Initializes delta-stepping from the source vertex in the given snapshot,
+     * running on the common pool.
+     *
+     * @param graph  the snapshot to search
+     * @param source the source vertex
+     * @param delta  the width of a bucket
+     */
+    public DeltaStepping(CompactGraph<Vertex> graph, Vertex source, double delta) {
+        this(graph, source, delta, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Initializes delta-stepping from the source vertex in the given snapshot.
+     *
+     * @param graph  the snapshot to search
+     * @param source the source vertex
+     * @param delta  the width of a bucket
+     * @param pool   the pool to run relaxations on
+     * @throws IllegalArgumentException if {@code delta} is not positive
+     */
+    public DeltaStepping(CompactGraph<Vertex> graph, Vertex source, double delta, ForkJoinPool pool) {
+        super(graph, source);
+        if (!(delta > 0)) throw new IllegalArgumentException("Delta must be positive!");
+
+        this.delta = delta;
+        this.pool = pool;
+        deltaStepping(graph, graph.indexOf(source));
+        buildTree(graph, graph.indexOf(source));
+    }
+
+    /**
+     * Returns a bucket width suited to the graph: the largest edge weight divided
+     * by the average out-degree, as suggested by Meyer and Sanders.
+     *
+     * @param graph the snapshot
+     * @return the default {@code delta}
+     */
+    public static double defaultDelta(CompactGraph<?> graph) {
+        double max = 0;
+        for (double w : graph.weights())
+            max = Math.max(max, w);
+
+        int n = Math.max(graph.getVerticesCount(), 1);
+        double averageDegree = Math.max(1.0, (double) graph.targets().length / n);
+        double delta = max / averageDegree;
+
+        return (delta > 0 ? delta : 1.0);
+    }
+
+    /**
+     * Returns the width of a bucket.
+     *
+     * @return {@code delta}
+     */
+    public double getDelta() {
+        return delta;
+    }
+
+    /**
+     * Returns the length of the shortest path from the source to the given vertex.
+     *
+     * @param v the destination vertex
+     * @return the length of the shortest path, or {@code Double.POSITIVE_INFINITY} if no path exists
+     */
+    public double distTo(Vertex v) {
+        if (!hasPathTo(v)) return Double.POSITIVE_INFINITY;
+        return distance(compact.indexOf(v));
+    }
+
+    private double distance(int v) {
+        return Double.longBitsToDouble(distances.get(v));
+    }
+
+    /**
+     * Computes the shortest distances from the given index.
+     *
+     * @param graph   the snapshot to search
+     * @param current the index of the source vertex
+     */
+    private void deltaStepping(CompactGraph<Vertex> graph, int current) {
+        int n = graph.getVerticesCount();
+        distances = new AtomicLongArray(n);
+        long infinity = Double.doubleToLongBits(Double.POSITIVE_INFINITY);
+        for (int i = 0; i < n; i++)
+            distances.set(i, infinity);
+        distances.set(current, Double.doubleToLongBits(0D));
+
+        double max = 0;
+        for (double w : graph.weights())
+            max = Math.max(max, w);
+        Buckets buckets = new Buckets((int) Math.min(MAX_SLOTS, Math.ceil(max / delta) + 2));
+        buckets.add(current);
+
+        int[] removedIn = new int[n];
+        Arrays.fill(removedIn, -1);
+        Relaxation relaxation = new Relaxation(graph, n);
+
+        for (int phase = 0; buckets.advance(); phase++) {
+            long i = buckets.current();
+            IntList removed = new IntList();
+            IntList bucket;
+
+            while ((bucket = buckets.take()) != null) {
+                IntList frontier = new IntList(bucket.size());
+                for (int k = 0; k < bucket.size(); k++) {
+                    int v = bucket.get(k);
+                    if (bucketOf(distance(v)) != i || relaxation.inFrontier(v)) continue;
+
+                    relaxation.enterFrontier(v);
+                    frontier.add(v);
+                    if (removedIn[v] != phase) {
+                        removedIn[v] = phase;
+                        removed.add(v);
+                    }
+                }
+
+                relaxation.relax(frontier, true);
+                relaxation.collect(buckets);
+            }
+
+            relaxation.relax(removed, false);
+            relaxation.collect(buckets);
+        }
+
+        int settled = 0;
+        for (int v = 0; v < n; v++) {
+            markedIds[v] = distance(v) != Double.POSITIVE_INFINITY;
+            if (markedIds[v]) settled++;
+        }
+        report(settled, relaxation.scanned, relaxation.peak, 0);
+    }
+
+    /**
+     * Relaxes the edges of a set of vertices in parallel and records the vertices whose
+     * distance was lowered, each at most once per round.
+     */
+    private final class Relaxation {
+        private final int[] offsets;
+        private final int[] targets;
+        private final double[] weights;
+        private final AtomicIntegerArray queuedInRound;
+        private final int[] frontierRound;
+        private final int[] changed;
+        private final AtomicInteger changedSize = new AtomicInteger();
+        private int round = 0;
+        private long scanned;
+        private int peak;
+
+        Relaxation(CompactGraph<Vertex> graph, int n) {
+            offsets = graph.offsets();
+            targets = graph.targets();
+            weights = graph.weights();
+            queuedInRound = new AtomicIntegerArray(n);
+            frontierRound = new int[n];
+            changed = new int[n];
+        }
+
+        boolean inFrontier(int v) {
+            return frontierRound[v] == round + 1;
+        }
+
+        void enterFrontier(int v) {
+            frontierRound[v] = round + 1;
+        }
+
+        /**
+         * Relaxes either the light or the heavy edges of the given vertices.
+         */
+        void relax(IntList vertices, boolean light) {
+            round++;
+            int r = round;
+            peak = Math.max(peak, vertices.size());
+            for (int k = 0; k < vertices.size(); k++)
+                scanned += offsets[vertices.get(k) + 1] - offsets[vertices.get(k)];
+
+            ParallelFor.run(pool, 0, vertices.size(), GRAIN, (from, to) -> {
+                for (int k = from; k < to; k++) {
+                    int v = vertices.get(k);
+                    double dv = distance(v);
+
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        double w = weights[e];
+                        if ((w <= delta) != light) continue;
+
+                        int u = targets[e];
+                        if (lower(u, dv + w) && queuedInRound.getAndSet(u, r) != r)
+                            changed[changedSize.getAndIncrement()] = u;
+                    }
+                }
+            });
+        }
+
+        /**
+         * Moves the vertices lowered by the last relaxation into their new buckets.
+         */
+        void collect(Buckets buckets) {
+            int size = changedSize.getAndSet(0);
+            for (int k = 0; k < size; k++)
+                buckets.add(changed[k]);
+        }
+    }
+
+    /**
+     * Cyclic buckets: slot {@code b % slots.length} holds the vertices of bucket {@code b}
+     * for every {@code b} from the current bucket on, and the vertices of farther buckets
+     * wait in the overflow list until the current bucket reaches the lowest of them. Vertices are filed by their distance when added, so a
+     * vertex lowered later stays behind as a stale entry, skipped when its bucket is taken.
+     */
+    private final class Buckets {
+        private final IntList[] slots;
+        private IntList overflow = new IntList();
+        private IntList spare = new IntList();
+        private long overflowFirst = Long.MAX_VALUE;
+        private long current;
+        private int size;
+
+        Buckets(int slots) {
+            this.slots = new IntList[slots];
+            for (int k = 0; k < slots; k++)
+                this.slots[k] = new IntList();
+        }
+
+        long current() {
+            return current;
+        }
+
+        void add(int v) {
+            long b = bucketOf(distance(v));
+            if (b - current >= slots.length) {
+                overflow.add(v);
+                overflowFirst = Math.min(overflowFirst, b);
+            } else {
+                slots[(int) (b % slots.length)].add(v);
+                size++;
+            }
+        }
+
+        /**
+         * Moves to the lowest non-empty bucket, jumping over empty ones.
+         *
+         * @return {@code false} if every bucket is empty
+         */
+        boolean advance() {
+            while (true) {
+                if (current >= overflowFirst) {
+                    // the overflow reaches the slots: file its vertices again, dropping the settled ones
+                    IntList waiting = overflow;
+                    overflow = new IntList();
+                    overflowFirst = Long.MAX_VALUE;
+                    for (int k = 0; k < waiting.size(); k++)
+                        if (bucketOf(distance(waiting.get(k))) >= current) add(waiting.get(k));
+                }
+
+                if (size == 0) {
+                    if (overflowFirst == Long.MAX_VALUE) return false;
+                    current = overflowFirst;
+                } else if (slots[(int) (current % slots.length)].isEmpty()) {
+                    current++;
+                } else {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Empties the current bucket. The returned list is reused by the next call.
+         *
+         * @return the vertices of the current bucket, or {@code null} if it is empty
+         */
+        IntList take() {
+            int k = (int) (current % slots.length);
+            IntList bucket = slots[k];
+            if (bucket.isEmpty()) return null;
+
+            spare.clear();
+            slots[k] = spare;
+            spare = bucket;
+            size -= bucket.size();
+            return bucket;
+        }
+    }
+
+    /**
+     * Atomically lowers the distance of the given vertex if the new distance is smaller.
+     * Non-negative doubles compare the same way as their bit patterns.
+     *
+     * @return {@code true} if the distance was lowered
+     */
+    private boolean lower(int u, double newDistance) {
+        long bits = Double.doubleToLongBits(newDistance);
+
+        while (true) {
+            long old = distances.get(u);
+            if (old <= bits) return false;
+            if (distances.compareAndSet(u, old, bits)) return true;
+        }
+    }
+
+    private long bucketOf(double distance) {
+        return (long) (distance / delta);
+    }
+
+    /**
+     * Builds the shortest-path tree once the distances are final, by a breadth-first
+     * search over the tight edges, those with {@code dist[v] + w == dist[u]}.
+     * Searching from the source guarantees a tree even with zero-weight cycles.
+     */
+    private void buildTree(CompactGraph<Vertex> graph, int current) {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        double[] weights = graph.weights();
+        boolean[] reached = new boolean[graph.getVerticesCount()];
+        int[] queue = new int[graph.getVerticesCount()];
+        int head = 0, tail = 0;
+
+        reached[current] = true;
+        queue[tail++] = current;
+
+        while (head < tail) {
+            int v = queue[head++];
+            double dv = distance(v);
+
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int u = targets[e];
+                if (!reached[u] && dv + weights[e] == distance(u)) {
+                    reached[u] = true;
+                    edgeToIds[u] = v;
+                    queue[tail++] = u;
+                }
+            }
+        }
+    }
+}
@@ -1,13 +1,30 @@
 package graphs;
 
+import java.util.*;
+
 /**
  * The {@code DepthFirstSearch} class represents a data type for
  * performing a depth-first search from a source vertex to
  * discover all vertices in a graph that are reachable from the source vertex.
+ * The search is iterative, using an explicit stack instead of recursion, so it
+ * handles arbitrarily deep graphs. It visits vertices in the same order as the
+ * recursive formulation and records the pre-order and post-order timestamps of
+ * every reached vertex; the reverse post-order of a directed acyclic graph is
+ * a topological order.
  *
  * @param <Vertex> the type of vertices in the graph
  */
 public class DepthFirstSearch<Vertex> extends Search<Vertex> {
+    private Map<Vertex, Integer> pre;
+    private Map<Vertex, Integer> post;
+    private List<Vertex> preorder;
+    private List<Vertex> postorder;
+
+    private int[] preIds;
+    private int[] postIds;
+    private int[] preorderIds;
+    private int[] postorderIds;
+    private int count;
 
     /**
      * Initializes a depth-first search from the source vertex in the given graph.
@@ -15,13 +32,35 @@ public class DepthFirstSearch<Vertex> extends Search<Vertex> {
      * @param graph  the graph to search
      * @param source the source vertex
      */
-    public DepthFirstSearch(MyGraph<Vertex> graph, Vertex source) {
+    public DepthFirstSearch(GraphView<Vertex> graph, Vertex source) {
         super(source);
+        pre = new HashMap<>();
+        post = new HashMap<>();
+        preorder = new ArrayList<>();
+        postorder = new ArrayList<>();
         dfs(graph, source);
     }
 
+    /**
+     * Initializes a depth-first search from the source vertex in the given compact snapshot.
+     *
+     * @param graph  the snapshot to search
+     * @param source the source vertex
+     */
+    public DepthFirstSearch(CompactGraph<Vertex> graph, Vertex source) {
+        super(graph, source);
+        int n = graph.getVerticesCount();
+        preIds = new int[n];
+        postIds = new int[n];
+        Arrays.fill(preIds, -1);
+        Arrays.fill(postIds, -1);
+        dfs(graph.offsets(), graph.targets(), graph.indexOf(source));
+    }
+
     /**
      * Performs a depth-first search in the given graph starting from the given vertex.
+     * The neighbors of every vertex on the current path are copied, once, to the end of
+     * a shared buffer; each stack frame then only keeps its position in that buffer.
      *
      * @param graph   the graph to search
      * @param current the starting vertex
@@ -29,14 +68,202 @@ public class DepthFirstSearch<Vertex> extends Search<Vertex> {
      * Time complexity: O(V + E), where V is the number of vertices
      * and E is the number of edges in the graph.
      */
-    private void dfs(MyGraph<Vertex> graph, Vertex current) {
-        marked.add(current);
+    private void dfs(GraphView<Vertex> graph, Vertex current) {
+        NeighborBuffer buffer = new NeighborBuffer();
+        Object[] stack = new Object[16];
+        int[] start = new int[16];
+        int[] position = new int[16];
+        int top = 0, peak = 1;
+
+        enter(current);
+        stack[0] = current;
+        graph.forEachNeighbor(current, buffer);
+
+        while (top >= 0) {
+            @SuppressWarnings("unchecked")
+            Vertex v = (Vertex) stack[top];
+
+            if (position[top] < buffer.size) {
+                Vertex w = buffer.get(position[top]++);
+                if (marked.contains(w)) continue;
+
+                edgeTo.put(w, v);
+                enter(w);
+
+                if (++top == stack.length) {
+                    stack = Arrays.copyOf(stack, top * 2);
+                    start = Arrays.copyOf(start, top * 2);
+                    position = Arrays.copyOf(position, top * 2);
+                }
+                stack[top] = w;
+                start[top] = position[top] = buffer.size;
+                graph.forEachNeighbor(w, buffer);
+                peak = Math.max(peak, top + 1);
+            } else {
+                post.put(v, postorder.size());
+                postorder.add(v);
+                buffer.size = start[top];
+                stack[top--] = null;
+            }
+        }
+
+        report(preorder.size(), buffer.scanned, peak, 0);
+    }
+
+    private void enter(Vertex v) {
+        marked.add(v);
+        pre.put(v, preorder.size());
+        preorder.add(v);
+    }
+
+    /**
+     * Performs a depth-first search over the CSR arrays of a snapshot starting from the given index.
+     * Each stack frame is a vertex index and the position of its next edge to explore.
+     *
+     * @param offsets the edge offsets of the snapshot
+     * @param targets the edge targets of the snapshot
+     * @param current the index of the starting vertex
+     *
+     * Time complexity: O(V + E), where V is the number of vertices
+     * and E is the number of edges in the graph.
+     */
+    private void dfs(int[] offsets, int[] targets, int current) {
+        int n = markedIds.length;
+        int[] stack = new int[n];
+        int[] next = new int[n];
+        int top = 0, preCount = 0, postCount = 0, peak = 1;
+        long scanned = 0;
+
+        preorderIds = new int[n];
+        postorderIds = new int[n];
 
-        for (Vertex v : graph.adjacencyList(current)) {
-            if (!marked.contains(v)) {
-                edgeTo.put(v, current);
-                dfs(graph, v);
+        markedIds[current] = true;
+        preIds[current] = preCount;
+        preorderIds[preCount++] = current;
+        stack[0] = current;
+        next[0] = offsets[current];
+
+        while (top >= 0) {
+            int v = stack[top];
+
+            if (next[top] < offsets[v + 1]) {
+                int w = targets[next[top]++];
+                if (markedIds[w]) continue;
+
+                markedIds[w] = true;
+                edgeToIds[w] = v;
+                preIds[w] = preCount;
+                preorderIds[preCount++] = w;
+
+                stack[++top] = w;
+                next[top] = offsets[w];
+                peak = Math.max(peak, top + 1);
+            } else {
+                scanned += offsets[v + 1] - offsets[v];
+                postIds[v] = postCount;
+                postorderIds[postCount++] = v;
+                top--;
             }
         }
+
+        count = preCount;
+        report(preCount, scanned, peak, 0);
+    }
+
+    /**
+     * Returns the pre-order number of the given vertex: the number of vertices
+     * discovered before it.
+     *
+     * @param v the vertex
+     * @return the pre-order number of {@code v}, or {@code -1} if it was not reached
+     */
+    public int pre(Vertex v) {
+        if (compact != null) {
+            int i = compact.indexOf(v);
+            return (i == -1 ? -1 : preIds[i]);
+        }
+
+        Integer p = pre.get(v);
+        return (p == null ? -1 : p);
+    }
+
+    /**
+     * Returns the post-order number of the given vertex: the number of vertices
+     * finished before it.
+     *
+     * @param v the vertex
+     * @return the post-order number of {@code v}, or {@code -1} if it was not reached
+     */
+    public int post(Vertex v) {
+        if (compact != null) {
+            int i = compact.indexOf(v);
+            return (i == -1 ? -1 : postIds[i]);
+        }
+
+        Integer p = post.get(v);
+        return (p == null ? -1 : p);
+    }
+
+    /**
+     * Returns the reached vertices in pre-order.
+     *
+     * @return the vertices in pre-order
+     */
+    public Iterable<Vertex> pre() {
+        if (compact != null) return order(preorderIds, false);
+        return Collections.unmodifiableList(preorder);
+    }
+
+    /**
+     * Returns the reached vertices in post-order.
+     *
+     * @return the vertices in post-order
+     */
+    public Iterable<Vertex> post() {
+        if (compact != null) return order(postorderIds, false);
+        return Collections.unmodifiableList(postorder);
+    }
+
+    /**
+     * Returns the reached vertices in reverse post-order. If the graph is a directed
+     * acyclic graph, this is a topological order of the vertices reachable from the source.
+     *
+     * @return the vertices in reverse post-order
+     */
+    public Iterable<Vertex> reversePost() {
+        if (compact != null) return order(postorderIds, true);
+
+        List<Vertex> reversed = new ArrayList<>(postorder);
+        Collections.reverse(reversed);
+        return reversed;
+    }
+
+    private List<Vertex> order(int[] ids, boolean reverse) {
+        List<Vertex> res = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            res.add(compact.vertexAt(ids[reverse ? count - 1 - i : i]));
+        return res;
+    }
+
+    /**
+     * Collects the neighbors of the vertices on the current path.
+     * Neighbors of the top frame are always at the end of the buffer.
+     */
+    private class NeighborBuffer implements NeighborVisitor<Vertex> {
+        private Object[] items = new Object[16];
+        private int size;
+        private long scanned;
+
+        @Override
+        public void visit(Vertex neighbor, double weight) {
+            scanned++;
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = neighbor;
+        }
+
+        @SuppressWarnings("unchecked")
+        Vertex get(int i) {
+            return (Vertex) items[i];
+        }
     }
 }
@@ -6,72 +6,278 @@ import java.util.*;
  * The {@code Dijkstra} class represents a data type for
  * performing Dijkstra's algorithm from a source vertex to
  * find the shortest path to all other vertices in a weighted graph.
+ * Edge weights must be non-negative; settled vertices are never relaxed again.
  *
  * @param <Vertex> the type of vertices in the graph
  */
 public class Dijkstra<Vertex> extends Search<Vertex> {
+    /**
+     * The strategy used to pick the next vertex to settle.
+     */
+    public enum Engine {
+        /**
+         * Scans every unsettled vertex for the minimum distance. O(V^2).
+         */
+        LINEAR_SCAN,
+        /**
+         * Keeps unsettled vertices in an indexed binary heap with decrease-key. O((V + E) log V).
+         */
+        BINARY_HEAP
+    }
+
     private final Set<Vertex> unsettledNodes;
     private final Map<Vertex, Double> distances;
-    private final WeightedGraph<Vertex> graph;
+    private final GraphView<Vertex> graph;
+    private final Engine engine;
+    private final Vertex target;
+    private double[] distancesById;
+
+    /**
+     * Initializes Dijkstra's algorithm from the source vertex in the given weighted graph,
+     * using the {@link Engine#BINARY_HEAP} engine.
+     *
+     * @param graph  the weighted graph to search
+     * @param source the source vertex
+     */
+    public Dijkstra(GraphView<Vertex> graph, Vertex source) {
+        this(graph, source, Engine.BINARY_HEAP);
+    }
 
     /**
-     * Initializes Dijkstra's algorithm from the source vertex in the given weighted graph.
+     * Initializes Dijkstra's algorithm from the source vertex in the given weighted graph,
+     * using the given engine.
      *
      * @param graph  the weighted graph to search
      * @param source the source vertex
+     * @param engine the engine that picks the next vertex to settle
      */
-    public Dijkstra(WeightedGraph<Vertex> graph, Vertex source) {
+    public Dijkstra(GraphView<Vertex> graph, Vertex source, Engine engine) {
+        this(graph, source, engine, null);
+    }
+
+    /**
+     * Initializes Dijkstra's algorithm from the source vertex in the given weighted graph,
+     * stopping as soon as the target vertex is settled. Only the vertices closer to the
+     * source than the target are settled, and {@link #hasPathTo(Object)} only answers for them.
+     *
+     * @param graph  the weighted graph to search
+     * @param source the source vertex
+     * @param target the vertex at which to stop
+     */
+    public Dijkstra(GraphView<Vertex> graph, Vertex source, Vertex target) {
+        this(graph, source, Engine.BINARY_HEAP, target);
+    }
+
+    private Dijkstra(GraphView<Vertex> graph, Vertex source, Engine engine, Vertex target) {
         super(source);
         unsettledNodes = new HashSet<>();
         distances = new HashMap<>();
         this.graph = graph;
+        this.engine = engine;
+        this.target = target;
 
         dijkstra();
     }
 
     /**
-     * Performs Dijkstra's algorithm to compute the shortest path from the source to all vertices.
+     * Initializes Dijkstra's algorithm from the source vertex in the given compact snapshot.
+     * Searches over a snapshot always use the {@link Engine#BINARY_HEAP} engine
+     * and keep their distances in a flat array.
      *
-     * Time complexity: O(V^2), where V is the number of vertices.
-     * Using a priority queue (e.g., a binary heap) can reduce the time complexity to O(E + V log V).
+     * @param graph  the snapshot to search
+     * @param source the source vertex
+     */
+    public Dijkstra(CompactGraph<Vertex> graph, Vertex source) {
+        this(graph, source, (Vertex) null);
+    }
+
+    /**
+     * Initializes Dijkstra's algorithm from the source vertex in the given compact snapshot,
+     * stopping as soon as the target vertex is settled.
+     *
+     * @param graph  the snapshot to search
+     * @param source the source vertex
+     * @param target the vertex at which to stop, or {@code null} to settle every reachable vertex
+     */
+    public Dijkstra(CompactGraph<Vertex> graph, Vertex source, Vertex target) {
+        super(graph, source);
+        unsettledNodes = null;
+        distances = null;
+        this.graph = null;
+        this.engine = Engine.BINARY_HEAP;
+        this.target = target;
+
+        dijkstra();
+    }
+
+    /**
+     * Performs Dijkstra's algorithm to compute the shortest path from the source to all vertices,
+     * using the engine chosen at construction.
      */
     public void dijkstra() {
+        if (compact != null) compactDijkstra();
+        else if (engine == Engine.BINARY_HEAP) heapDijkstra();
+        else scanDijkstra();
+    }
+
+    /**
+     * Performs Dijkstra's algorithm, picking the next vertex with a linear scan.
+     *
+     * Time complexity: O(V^2), where V is the number of vertices.
+     */
+    private void scanDijkstra() {
+        Relaxer relaxer = new Relaxer(null);
+
         distances.put(source, 0D);
         unsettledNodes.add(source);
+        int peak = 1;
 
         while (!unsettledNodes.isEmpty()) {
             Vertex currentNode = getVertexWithMinimumWeight(unsettledNodes);
 
             marked.add(currentNode);
             unsettledNodes.remove(currentNode);
+            if (currentNode.equals(target)) break;
 
-            for (Vertex neighbor : graph.adjacencyList(currentNode)) {
-                double newDistance = getShortestDistance(currentNode) + getDistance(currentNode, neighbor);
+            relaxer.relaxFrom(currentNode);
+            peak = Math.max(peak, unsettledNodes.size());
+        }
 
-                if (getShortestDistance(neighbor) > newDistance) {
-                    distances.put(neighbor, newDistance);
-                    edgeTo.put(neighbor, currentNode);
-                    unsettledNodes.add(neighbor);
-                }
+        report(marked.size(), relaxer.scanned, peak, 0);
+    }
+
+    /**
+     * Performs Dijkstra's algorithm, keeping the unsettled vertices in an indexed binary heap.
+     * Vertices are given dense indices in the order they are discovered.
+     *
+     * Time complexity: O((V + E) log V), where V is the number of vertices
+     * and E is the number of edges in the graph.
+     */
+    private void heapDijkstra() {
+        Relaxer relaxer = new Relaxer(new IndexMinPQ(graph.getVerticesCount()));
+
+        distances.put(source, 0D);
+        relaxer.enqueue(source, 0D);
+
+        while (!relaxer.pq.isEmpty()) {
+            Vertex currentNode = relaxer.vertices.get(relaxer.pq.delMin());
+            marked.add(currentNode);
+            if (currentNode.equals(target)) break;
+
+            relaxer.relaxFrom(currentNode);
+        }
+
+        report(marked.size(), relaxer.scanned, relaxer.pq.peak(), relaxer.pq.operations());
+    }
+
+    /**
+     * Relaxes the edges leaving one vertex at a time.
+     * One instance is reused for the whole search, so relaxing allocates nothing
+     * beyond the entries of the distance and path maps.
+     */
+    private class Relaxer implements NeighborVisitor<Vertex> {
+        private final IndexMinPQ pq;
+        private final Map<Vertex, Integer> indices;
+        private final List<Vertex> vertices;
+        private Vertex from;
+        private double fromDistance;
+        private long scanned;
+
+        /**
+         * @param pq the heap of unsettled vertices, or {@code null} to use {@code unsettledNodes}
+         */
+        Relaxer(IndexMinPQ pq) {
+            this.pq = pq;
+            this.indices = (pq == null ? null : new HashMap<>());
+            this.vertices = (pq == null ? null : new ArrayList<>());
+        }
+
+        void relaxFrom(Vertex currentNode) {
+            from = currentNode;
+            fromDistance = getShortestDistance(currentNode);
+            graph.forEachNeighbor(currentNode, this);
+        }
+
+        @Override
+        public void visit(Vertex neighbor, double weight) {
+            scanned++;
+            // a settled vertex has left the queue; only a negative weight could still improve it
+            if (marked.contains(neighbor)) return;
+            double newDistance = fromDistance + weight;
+
+            if (getShortestDistance(neighbor) > newDistance) {
+                distances.put(neighbor, newDistance);
+                edgeTo.put(neighbor, from);
+                enqueue(neighbor, newDistance);
+            }
+        }
+
+        void enqueue(Vertex vertex, double distance) {
+            if (pq == null) {
+                unsettledNodes.add(vertex);
+                return;
+            }
+
+            Integer index = indices.get(vertex);
+            if (index == null) {
+                index = vertices.size();
+                indices.put(vertex, index);
+                vertices.add(vertex);
+                pq.insert(index, distance);
+            } else {
+                pq.decreaseKey(index, distance);
             }
         }
     }
 
     /**
-     * Returns the distance between two vertices in the graph.
+     * Performs Dijkstra's algorithm over the CSR arrays of the snapshot.
      *
-     * @param node   the source vertex
-     * @param target the target vertex
-     * @return the distance between {@code node} and {@code target}
-     * @throws RuntimeException if the edge is not found
+     * Time complexity: O((V + E) log V), where V is the number of vertices
+     * and E is the number of edges in the graph.
      */
-    private double getDistance(Vertex node, Vertex target) {
-        for (Edge<Vertex> edge : graph.getEdges(node)) {
-            if (edge.getDest().equals(target))
-                return edge.getWeight();
+    private void compactDijkstra() {
+        int[] offsets = compact.offsets();
+        int[] targets = compact.targets();
+        double[] weights = compact.weights();
+        int n = compact.getVerticesCount();
+
+        distancesById = new double[n];
+        Arrays.fill(distancesById, Double.MAX_VALUE);
+
+        IndexMinPQ pq = new IndexMinPQ(n);
+        int s = compact.indexOf(source);
+        int t = (target == null ? -1 : compact.indexOf(target));
+        distancesById[s] = 0D;
+        pq.insert(s, 0D);
+        int settled = 0;
+        long scanned = 0;
+
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            markedIds[v] = true;
+            settled++;
+            if (v == t) break;
+
+            scanned += offsets[v + 1] - offsets[v];
+
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int w = targets[e];
+                if (markedIds[w]) continue;
+
+                double newDistance = distancesById[v] + weights[e];
+
+                if (distancesById[w] > newDistance) {
+                    distancesById[w] = newDistance;
+                    edgeToIds[w] = v;
+
+                    if (pq.contains(w)) pq.decreaseKey(w, newDistance);
+                    else pq.insert(w, newDistance);
+                }
+            }
         }
 
-        throw new RuntimeException("Not found!");
+        report(settled, scanned, pq.peak(), pq.operations());
     }
 
     /**
@@ -105,4 +311,24 @@ public class Dijkstra<Vertex> extends Search<Vertex> {
         Double d = distances.get(destination);
         return (d == null ? Double.MAX_VALUE : d);
     }
+
+    /**
+     * Returns the length of the shortest path from the source to the given vertex.
+     *
+     * @param v the destination vertex
+     * @return the length of the shortest path, or {@code Double.POSITIVE_INFINITY} if no path exists
+     */
+    public double distTo(Vertex v) {
+        if (!hasPathTo(v)) return Double.POSITIVE_INFINITY;
+        if (compact != null) return distancesById[compact.indexOf(v)];
+        return getShortestDistance(v);
+    }
+
+    /**
+     * Returns the distances of a search over a snapshot, by dense index.
+     * Unreached vertices hold {@code Double.MAX_VALUE}.
+     */
+    double[] distancesById() {
+        return distancesById;
+    }
 }
@@ -0,0 +1,288 @@
+package graphs;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The {@code DistanceMatrix} class represents the shortest distances from a list of
+ * source vertices to a list of target vertices, stored row by row in one flat
+ * {@code double[]}: the distance from {@code sources.get(i)} to {@code targets.get(j)}
+ * is at {@code i * columns() + j}. Missing paths are {@code Double.POSITIVE_INFINITY}.
+ *
+ * <p>Over a {@link CompactGraph}, the sources are split into batches that run in parallel.
+ * A batch borrows a set of scratch arrays that earlier batches left idle, so there are only
+ * as many sets as batches running at once; every search resets only the vertices it touched,
+ * and stops as soon as all targets are settled.
+ * Over a {@link ContractionHierarchy}, the bucket-based many-to-many algorithm is used
+ * instead, which runs one small upward search per source and per target.
+ *
+ * @param <VertexData> the type of data stored in the vertices
+ */
+public final class DistanceMatrix<VertexData> {
+    private static final int BATCHES_PER_THREAD = 4;
+
+    private final List<VertexData> sources;
+    private final List<VertexData> targets;
+    private final double[] values;
+    private final Map<VertexData, Integer> rows = new HashMap<>();
+    private final Map<VertexData, Integer> columns = new HashMap<>();
+
+    private DistanceMatrix(List<VertexData> sources, List<VertexData> targets, double[] values) {
+        this.sources = List.copyOf(sources);
+        this.targets = List.copyOf(targets);
+        this.values = values;
+        for (int i = sources.size() - 1; i >= 0; i--)
+            rows.put(sources.get(i), i);
+        for (int j = targets.size() - 1; j >= 0; j--)
+            columns.put(targets.get(j), j);
+    }
+
+    /**
+     * Computes the matrix over a compact snapshot on the common pool.
+     *
+     * @param graph   the snapshot to search
+     * @param sources the source vertices, one row each
+     * @param targets the target vertices, one column each
+     * @param <V>     the type of data stored in the vertices
+     * @return the distance matrix
+     * @throws IllegalArgumentException if a vertex is not in the graph, or if the matrix has
+     *                                  more cells than an array can hold
+     */
+    public static <V> DistanceMatrix<V> compute(CompactGraph<V> graph, List<V> sources, List<V> targets) {
+        return compute(graph, sources, targets, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the matrix over a compact snapshot with one Dijkstra search per source,
+     * running batches of sources in parallel on the given pool.
+     *
+     * Time complexity: O(S (V + E) log V) in the worst case, where S is the number of sources,
+     * but every search stops once the targets are settled.
+     *
+     * @param graph   the snapshot to search
+     * @param sources the source vertices, one row each
+     * @param targets the target vertices, one column each
+     * @param pool    the pool to run the searches on
+     * @param <V>     the type of data stored in the vertices
+     * @return the distance matrix
+     * @throws IllegalArgumentException if a vertex is not in the graph, or if the matrix has
+     *                                  more cells than an array can hold
+     */
+    public static <V> DistanceMatrix<V> compute(CompactGraph<V> graph, List<V> sources, List<V> targets,
+                                                ForkJoinPool pool) {
+        int[] s = indices(graph::indexOf, sources);
+        int[] t = indices(graph::indexOf, targets);
+        int n = graph.getVerticesCount(), columns = t.length;
+        double[] values = new double[cells(s.length, columns)];
+        if (values.length == 0) return new DistanceMatrix<>(sources, targets, values);
+
+        boolean[] isTarget = new boolean[n];
+        int distinctTargets = 0;
+        for (int v : t) {
+            if (!isTarget[v]) distinctTargets++;
+            isTarget[v] = true;
+        }
+
+        int batches = Math.max(1, pool.getParallelism() * BATCHES_PER_THREAD);
+        int grain = Math.max(1, (s.length + batches - 1) / batches);
+        int targetsCount = distinctTargets;
+        Queue<Scratch> idle = new ConcurrentLinkedQueue<>();
+        ParallelFor.run(pool, 0, s.length, grain, (from, to) -> {
+            Scratch scratch = idle.poll();
+            if (scratch == null) scratch = new Scratch(n);
+            for (int i = from; i < to; i++) {
+                scratch.run(graph, s[i], isTarget, targetsCount);
+                for (int j = 0; j < columns; j++)
+                    values[i * columns + j] = scratch.dist[t[j]];
+                scratch.reset();
+            }
+            idle.offer(scratch);
+        });
+        return new DistanceMatrix<>(sources, targets, values);
+    }
+
+    /**
+     * Computes the matrix over a contraction hierarchy on the common pool.
+     *
+     * @param hierarchy the hierarchy to search
+     * @param sources   the source vertices, one row each
+     * @param targets   the target vertices, one column each
+     * @param <V>       the type of data stored in the vertices
+     * @return the distance matrix
+     * @throws IllegalArgumentException if a vertex is not in the hierarchy, or if the matrix has
+     *                                  more cells than an array can hold
+     */
+    public static <V> DistanceMatrix<V> compute(ContractionHierarchy<V> hierarchy, List<V> sources, List<V> targets) {
+        return compute(hierarchy, sources, targets, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the matrix over a contraction hierarchy with the bucket-based
+     * many-to-many algorithm, running the source searches in parallel on the given pool.
+     *
+     * @param hierarchy the hierarchy to search
+     * @param sources   the source vertices, one row each
+     * @param targets   the target vertices, one column each
+     * @param pool      the pool to run the searches on
+     * @param <V>       the type of data stored in the vertices
+     * @return the distance matrix
+     * @throws IllegalArgumentException if a vertex is not in the hierarchy, or if the matrix has
+     *                                  more cells than an array can hold
+     */
+    public static <V> DistanceMatrix<V> compute(ContractionHierarchy<V> hierarchy, List<V> sources, List<V> targets,
+                                                ForkJoinPool pool) {
+        int[] s = indices(hierarchy::indexOf, sources);
+        int[] t = indices(hierarchy::indexOf, targets);
+        cells(s.length, t.length);
+        return new DistanceMatrix<>(sources, targets, hierarchy.manyToMany(s, t, pool));
+    }
+
+    /**
+     * Returns the number of cells of a matrix, checking that one array can hold them.
+     */
+    private static int cells(int rows, int columns) {
+        try {
+            return Math.multiplyExact(rows, columns);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Distance matrix of " + rows + " x " + columns
+                    + " cells is too large for one array!");
+        }
+    }
+
+    private interface Indexer<V> {
+        int indexOf(V v);
+    }
+
+    private static <V> int[] indices(Indexer<V> graph, List<V> vertices) {
+        int[] indices = new int[vertices.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = graph.indexOf(vertices.get(i));
+            if (indices[i] == -1)
+                throw new IllegalArgumentException("Vertex is not in the graph!");
+        }
+        return indices;
+    }
+
+    /**
+     * The arrays of one Dijkstra search, reused by the searches of one batch.
+     */
+    private static final class Scratch {
+        private final double[] dist;
+        private final IndexMinPQ pq;
+        private final IntList touched = new IntList();
+
+        Scratch(int n) {
+            dist = new double[n];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            pq = new IndexMinPQ(n);
+        }
+
+        void run(CompactGraph<?> graph, int s, boolean[] isTarget, int targetsCount) {
+            int[] offsets = graph.offsets();
+            int[] targets = graph.targets();
+            double[] weights = graph.weights();
+
+            dist[s] = 0;
+            touched.add(s);
+            pq.insert(s, 0);
+            int remaining = targetsCount;
+
+            while (!pq.isEmpty()) {
+                int v = pq.delMin();
+                if (isTarget[v] && --remaining == 0) return;
+
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    double newDistance = dist[v] + weights[e];
+                    if (newDistance >= dist[w]) continue;
+
+                    if (dist[w] == Double.POSITIVE_INFINITY) touched.add(w);
+                    dist[w] = newDistance;
+                    if (pq.contains(w)) pq.decreaseKey(w, newDistance);
+                    else pq.insert(w, newDistance);
+                }
+            }
+        }
+
+        void reset() {
+            for (int k = 0; k < touched.size(); k++)
+                dist[touched.get(k)] = Double.POSITIVE_INFINITY;
+            touched.clear();
+            pq.clear();
+        }
+    }
+
+    /**
+     * Returns the number of rows, one per source.
+     *
+     * @return the number of sources
+     */
+    public int rows() {
+        return sources.size();
+    }
+
+    /**
+     * Returns the number of columns, one per target.
+     *
+     * @return the number of targets
+     */
+    public int columns() {
+        return targets.size();
+    }
+
+    /**
+     * Returns the source vertices, in row order.
+     *
+     * @return the sources
+     */
+    public List<VertexData> sources() {
+        return sources;
+    }
+
+    /**
+     * Returns the target vertices, in column order.
+     *
+     * @return the targets
+     */
+    public List<VertexData> targets() {
+        return targets;
+    }
+
+    /**
+     * Returns the distance at the given row and column.
+     *
+     * @param row    the index of the source
+     * @param column the index of the target
+     * @return the distance, or {@code Double.POSITIVE_INFINITY} if there is no path
+     */
+    public double get(int row, int column) {
+        if (row < 0 || row >= rows() || column < 0 || column >= columns())
+            throw new IndexOutOfBoundsException("Cell (" + row + ", " + column + ") is outside the matrix!");
+        return values[row * columns() + column];
+    }
+
+    /**
+     * Returns the distance from a source to a target of the matrix.
+     *
+     * @param source the source vertex
+     * @param target the target vertex
+     * @return the distance, or {@code Double.POSITIVE_INFINITY} if there is no path
+     * @throws NoSuchElementException if {@code source} is not a source or {@code target} not a target of the matrix
+     */
+    public double distance(VertexData source, VertexData target) {
+        Integer row = rows.get(source), column = columns.get(target);
+        if (row == null || column == null)
+            throw new NoSuchElementException("Vertex is not in the matrix!");
+        return values[row * columns() + column];
+    }
+
+    /**
+     * Returns the distances row by row. This is the array of the matrix itself, not a copy.
+     *
+     * @return the flat distance array
+     */
+    public double[] values() {
+        return values;
+    }
+}
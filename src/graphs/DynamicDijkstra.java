@@ -0,0 +1,232 @@
+package graphs;
+
+import java.util.*;
+
+/**
+ * The {@code DynamicDijkstra} class represents a data type for
+ * maintaining the shortest paths from a source vertex in a {@link WeightedGraph}
+ * while edges are added and edge weights change.
+ *
+ * <p>The shortest path tree is computed once with Dijkstra's algorithm, and then the
+ * search listens to the graph and repairs only the part of the tree that an update
+ * affects, in the style of Ramalingam and Reps:
+ * <ul>
+ *     <li>when an edge {@code u -> v} is added or gets cheaper, only the vertices whose
+ *     distance improves through it are relaxed again, starting from {@code v};</li>
+ *     <li>when a tree edge {@code u -> v} gets more expensive, the subtree below {@code v}
+ *     is detached, every vertex in it takes the best distance offered by its incoming
+ *     edges from outside the subtree, and Dijkstra's algorithm settles the subtree again.
+ *     A weight increase on an edge outside the tree changes nothing.</li>
+ * </ul>
+ * Each repair costs O((A + E<sub>A</sub>) log A), where A is the number of vertices whose
+ * distance changed and E<sub>A</sub> the number of edges touching them, instead of a full
+ * search. Edge weights must be non-negative.
+ *
+ * @param <Vertex> the type of vertices in the graph
+ */
+public class DynamicDijkstra<Vertex> extends Search<Vertex> {
+    private final WeightedGraph<Vertex> graph;
+    private final Map<Vertex, Double> distances = new HashMap<>();
+    private final Map<Vertex, Integer> indices = new HashMap<>();
+    private final List<Vertex> vertices = new ArrayList<>();
+    private final IndexMinPQ pq;
+    private final Relaxer relaxer = new Relaxer();
+    private final EdgeListener<Vertex> listener = this::edgeChanged;
+    private int repaired;
+    private long updates;
+
+    /**
+     * Computes the shortest paths from the source vertex in the given graph
+     * and starts listening to its changes.
+     *
+     * @param graph  the weighted graph to search
+     * @param source the source vertex
+     */
+    public DynamicDijkstra(WeightedGraph<Vertex> graph, Vertex source) {
+        super(source);
+        this.graph = graph;
+        this.pq = new IndexMinPQ(graph.getVerticesCount());
+
+        set(source, 0D, null);
+        enqueue(source, 0D);
+        propagate();
+        report(marked.size(), relaxer.scanned, pq.peak(), pq.operations());
+        repaired = 0;
+        graph.addListener(listener);
+    }
+
+    /**
+     * Stops listening to the graph. The paths found so far stay available,
+     * but later changes of the graph are no longer reflected.
+     */
+    public void detach() {
+        graph.removeListener(listener);
+    }
+
+    /**
+     * Returns the length of the shortest path from the source to the given vertex.
+     *
+     * @param v the destination vertex
+     * @return the length of the shortest path, or {@code Double.POSITIVE_INFINITY} if no path exists
+     */
+    public double distTo(Vertex v) {
+        Double d = distances.get(v);
+        return (d == null ? Double.POSITIVE_INFINITY : d);
+    }
+
+    /**
+     * Returns the number of distances set by the last update, a measure of the work it took.
+     *
+     * @return the size of the last repair
+     */
+    public int getRepairedCount() {
+        return repaired;
+    }
+
+    /**
+     * Returns the number of graph updates received so far.
+     *
+     * @return the number of updates
+     */
+    public long getUpdatesCount() {
+        return updates;
+    }
+
+    private void edgeChanged(Vertex source, Vertex dest, double oldWeight, double newWeight) {
+        updates++;
+        repaired = 0;
+        arcChanged(source, dest, oldWeight, newWeight);
+        if (graph.isUndirected()) arcChanged(dest, source, oldWeight, newWeight);
+    }
+
+    /**
+     * Repairs the tree after the weight of the arc {@code u -> v} changed.
+     */
+    private void arcChanged(Vertex u, Vertex v, double oldWeight, double newWeight) {
+        if (newWeight < oldWeight) {
+            double candidate = distTo(u) + newWeight;
+            if (candidate >= distTo(v)) return;
+
+            set(v, candidate, u);
+            enqueue(v, candidate);
+            repaired++;
+            propagate();
+        } else if (newWeight > oldWeight && u.equals(edgeTo.get(v))) {
+            reattach(subtree(v));
+            propagate();
+        }
+    }
+
+    /**
+     * Returns the vertices whose tree path goes through {@code root}, including it.
+     *
+     * Time complexity: O(A + E<sub>A</sub>), where A is the number of such vertices
+     * and E<sub>A</sub> the number of edges leaving them.
+     */
+    private List<Vertex> subtree(Vertex root) {
+        List<Vertex> subtree = new ArrayList<>();
+        Set<Vertex> seen = new HashSet<>();
+        subtree.add(root);
+        seen.add(root);
+
+        for (int i = 0; i < subtree.size(); i++) {
+            Vertex parent = subtree.get(i);
+            graph.forEachNeighbor(parent, (child, weight) -> {
+                if (parent.equals(edgeTo.get(child)) && seen.add(child)) subtree.add(child);
+            });
+        }
+        return subtree;
+    }
+
+    /**
+     * Detaches the given subtree, then gives every vertex in it the best distance
+     * offered by its incoming edges from the rest of the tree.
+     */
+    private void reattach(List<Vertex> subtree) {
+        for (Vertex v : subtree) {
+            distances.remove(v);
+            edgeTo.remove(v);
+            marked.remove(v);
+        }
+
+        double[] best = new double[1];
+        List<Vertex> parent = new ArrayList<>(1);
+        parent.add(null);
+        for (Vertex v : subtree) {
+            best[0] = Double.POSITIVE_INFINITY;
+            graph.forEachIncoming(v, (from, weight) -> {
+                Double d = distances.get(from);
+                if (d != null && d + weight < best[0]) {
+                    best[0] = d + weight;
+                    parent.set(0, from);
+                }
+            });
+            if (best[0] == Double.POSITIVE_INFINITY) continue;
+
+            set(v, best[0], parent.get(0));
+            enqueue(v, best[0]);
+        }
+        repaired += subtree.size();
+    }
+
+    /**
+     * Settles the queued vertices with Dijkstra's algorithm, relaxing only the edges
+     * that improve a distance.
+     */
+    private void propagate() {
+        while (!pq.isEmpty())
+            relaxer.relaxFrom(vertices.get(pq.delMin()));
+    }
+
+    private void set(Vertex v, double distance, Vertex parent) {
+        distances.put(v, distance);
+        marked.add(v);
+        if (parent != null) edgeTo.put(v, vertices.get(indexOf(parent)));
+    }
+
+    private void enqueue(Vertex v, double distance) {
+        int i = indexOf(v);
+        if (pq.contains(i)) pq.decreaseKey(i, distance);
+        else pq.insert(i, distance);
+    }
+
+    /**
+     * Returns the dense index of a vertex, giving it the next one if it has none.
+     * The first object seen for a vertex is kept, so paths end at the source object itself.
+     */
+    private int indexOf(Vertex v) {
+        Integer index = indices.get(v);
+        if (index == null) {
+            index = vertices.size();
+            indices.put(v, index);
+            vertices.add(v);
+        }
+        return index;
+    }
+
+    /**
+     * Relaxes the edges leaving one vertex at a time.
+     */
+    private class Relaxer implements NeighborVisitor<Vertex> {
+        private Vertex from;
+        private double fromDistance;
+        private long scanned;
+
+        void relaxFrom(Vertex currentNode) {
+            from = currentNode;
+            fromDistance = distances.get(currentNode);
+            graph.forEachNeighbor(currentNode, this);
+        }
+
+        @Override
+        public void visit(Vertex neighbor, double weight) {
+            scanned++;
+            double newDistance = fromDistance + weight;
+            if (newDistance >= distTo(neighbor)) return;
+
+            set(neighbor, newDistance, from);
+            enqueue(neighbor, newDistance);
+            repaired++;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package graphs;
+
+/**
+ * The {@code EdgeListener} interface represents a callback that a {@link WeightedGraph}
+ * calls after every edge it adds and every edge weight it changes.
+ * In an undirected graph it is called once per edge, with the ends in the order
+ * given to the graph.
+ *
+ * @param <Vertex> the type of vertices in the graph
+ */
+@FunctionalInterface
+public interface EdgeListener<Vertex> {
+
+    /**
+     * Called after the weight of an edge changed.
+     *
+     * @param source    the source vertex of the edge
+     * @param dest      the destination vertex of the edge
+     * @param oldWeight the previous weight, or {@code Double.POSITIVE_INFINITY} if the edge is new
+     * @param newWeight the current weight
+     */
+    void edgeChanged(Vertex source, Vertex dest, double oldWeight, double newWeight);
+}
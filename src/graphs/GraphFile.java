@@ -0,0 +1,239 @@
+package graphs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+
+/**
+ * The {@code GraphFile} class writes graphs in a binary file format that can be
+ * memory-mapped and traversed in place, and opens such files as {@link MappedGraph}s.
+ *
+ * <p>All numbers are little-endian. A file consists of a fixed header followed by
+ * sections aligned to 8 bytes:
+ * <pre>
+ *     header      magic "GRPH", version, flags (bit 0: undirected), V, E,
+ *                 and the byte position of every section
+ *     key offsets int[V + 1], the byte range of every key in the key bytes
+ *     key bytes   the UTF-8 text of every vertex, {@code String.valueOf(v)}
+ *     offsets     int[V + 1], as in {@link CompactGraph}
+ *     targets     int[E]
+ *     weights     double[E]
+ * </pre>
+ * where E counts every stored edge, so each undirected edge twice.
+ */
+public final class GraphFile {
+    static final int MAGIC = 0x48505247; // "GRPH" read as little-endian
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private GraphFile() {
+    }
+
+    /**
+     * Writes a snapshot to a file, replacing any existing content.
+     *
+     * Time complexity: O(V + E), where V is the number of vertices and E is the number of edges.
+     *
+     * @param graph the snapshot to write
+     * @param file  the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(CompactGraph<?> graph, Path file) throws IOException {
+        int n = graph.getVerticesCount();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        double[] weights = graph.weights();
+
+        byte[][] keys = new byte[n][];
+        long keyBytes = 0;
+        for (int i = 0; i < n; i++) {
+            keys[i] = String.valueOf(graph.vertexAt(i)).getBytes(StandardCharsets.UTF_8);
+            keyBytes += keys[i].length;
+        }
+        if (keyBytes > Integer.MAX_VALUE) throw new IOException("Vertex keys are too large for the file format!");
+
+        long keyOffsetsAt = HEADER_BYTES;
+        long keyBytesAt = align(keyOffsetsAt + 4L * (n + 1));
+        long offsetsAt = align(keyBytesAt + keyBytes);
+        long targetsAt = align(offsetsAt + 4L * (n + 1));
+        long weightsAt = align(targetsAt + 4L * targets.length);
+        long end = weightsAt + 8L * weights.length;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer out = new Writer(channel);
+
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(graph.isUndirected() ? 1 : 0);
+            out.putInt(n);
+            out.putLong(targets.length);
+            out.putLong(keyOffsetsAt);
+            out.putLong(keyBytesAt);
+            out.putLong(offsetsAt);
+            out.putLong(targetsAt);
+            out.putLong(weightsAt);
+            out.padTo(keyOffsetsAt);
+
+            int position = 0;
+            for (int i = 0; i < n; i++) {
+                out.putInt(position);
+                position += keys[i].length;
+            }
+            out.putInt(position);
+            out.padTo(keyBytesAt);
+
+            for (byte[] key : keys)
+                out.putBytes(key);
+            out.padTo(offsetsAt);
+
+            for (int offset : offsets)
+                out.putInt(offset);
+            out.padTo(targetsAt);
+
+            for (int target : targets)
+                out.putInt(target);
+            out.padTo(weightsAt);
+
+            for (double weight : weights)
+                out.putDouble(weight);
+            out.padTo(end);
+
+            out.flush();
+        }
+    }
+
+    /**
+     * Maps a graph file into memory. Only the header is read; edges are read from the
+     * mapping when they are traversed.
+     *
+     * @param file      the file to open
+     * @param keyParser converts the stored text of a vertex back to its data
+     * @param <V>       the type of data stored in the vertices
+     * @return the mapped graph
+     * @throws IOException if the file cannot be read or is not a graph file of a supported version
+     */
+    public static <V> MappedGraph<V> map(Path file, Function<String, V> keyParser) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) throw new IOException("Not a graph file: " + file);
+
+            ByteBuffer header = map(channel, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) throw new IOException("Not a graph file: " + file);
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("Unsupported graph file version " + version + ": " + file);
+
+            boolean undirected = (header.getInt() & 1) != 0;
+            int n = header.getInt();
+            long m = header.getLong();
+            long keyOffsetsAt = header.getLong();
+            long keyBytesAt = header.getLong();
+            long offsetsAt = header.getLong();
+            long targetsAt = header.getLong();
+            long weightsAt = header.getLong();
+
+            long size = channel.size();
+            if (n < 0 || m < 0 || m > Integer.MAX_VALUE
+                    || !fits(keyOffsetsAt, 4L * (n + 1), size)
+                    || !fits(keyBytesAt, offsetsAt - keyBytesAt, size)
+                    || !fits(offsetsAt, 4L * (n + 1), size)
+                    || !fits(targetsAt, 4 * m, size)
+                    || !fits(weightsAt, 8 * m, size))
+                throw new IOException("Corrupt graph file: " + file);
+
+            return new MappedGraph<>(undirected, n, (int) m,
+                    map(channel, keyOffsetsAt, 4L * (n + 1)).asIntBuffer(),
+                    map(channel, keyBytesAt, offsetsAt - keyBytesAt),
+                    map(channel, offsetsAt, 4L * (n + 1)).asIntBuffer(),
+                    map(channel, targetsAt, 4 * m).asIntBuffer(),
+                    map(channel, weightsAt, 8 * m).asDoubleBuffer(),
+                    keyParser);
+        }
+    }
+
+    /**
+     * Maps one section of the file. A single mapping is limited to 2 GB.
+     */
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) throw new IOException("Graph file section is too large to map!");
+
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Checks that a section lies after the header and within a file of the given size.
+     */
+    private static boolean fits(long position, long length, long size) {
+        return position >= HEADER_BYTES && length >= 0 && position <= size - length;
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    /**
+     * Buffers little-endian values and writes them to a channel in large blocks.
+     */
+    private static final class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private long written;
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            for (int i = 0; i < bytes.length; ) {
+                ensure(1);
+                int length = Math.min(bytes.length - i, buffer.remaining());
+                buffer.put(bytes, i, length);
+                i += length;
+            }
+        }
+
+        /**
+         * Writes zero bytes up to the given position of the file.
+         */
+        void padTo(long position) throws IOException {
+            while (written + buffer.position() < position) {
+                ensure(1);
+                buffer.put((byte) 0);
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) flush();
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining())
+                written += channel.write(buffer);
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,692 @@
+package graphs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * The {@code GraphLoader} class represents a bulk importer that builds a
+ * {@link CompactGraph} directly from an edge list file, without going through
+ * {@link WeightedGraph#addEdge(Object, Object, double)}.
+ *
+ * <p>The file is read through NIO in large chunks cut at line boundaries. Chunks are
+ * parsed into primitive arrays on a {@link ForkJoinPool}, with a bounded number of chunks
+ * in flight, and consumed in file order and dropped: every vertex gets a dense index in
+ * order of first appearance, and its data is created once, from the text of that first
+ * appearance. Edges go straight into the arrays that become the snapshot, sized from the
+ * first chunk, and are sorted into CSR form in place after the last chunk. Memory use
+ * peaks at about 16 bytes per stored edge (two per line in an undirected graph), against
+ * 12 for the snapshot itself.
+ *
+ * <p>Supported formats:
+ * <ul>
+ *     <li>{@link Format#DIMACS}: the 9th DIMACS challenge {@code .gr} format, with
+ *     {@code c} comment lines, a {@code p sp V E} line and {@code a u v w} arc lines;
+ *     vertices {@code 1} to {@code V} are all loaded, in that order, even without arcs;</li>
+ *     <li>{@link Format#SNAP}: whitespace-separated {@code u v} or {@code u v w} lines of
+ *     integer vertex ids, with {@code #} comment lines; the weight defaults to 1;</li>
+ *     <li>{@link Format#CSV}: {@code source,target} or {@code source,target,weight} lines
+ *     with vertex names of any text, without quoting. A first line is skipped as a header
+ *     when its weight is not a number or its first two fields are column names such as
+ *     {@code source,target} or {@code from,to}, and {@code #} lines are comments.</li>
+ * </ul>
+ * Repeated edges are kept as parallel edges, which searches handle like a single edge
+ * of the smallest weight.
+ *
+ * @param <VertexData> the type of data stored in the vertices
+ */
+public class GraphLoader<VertexData> {
+    private static final int CHUNK_BYTES = 8 << 20;
+    private static final Set<String> SOURCE_COLUMNS = Set.of("source", "src", "from", "u", "node1", "start");
+    private static final Set<String> TARGET_COLUMNS = Set.of("target", "dst", "dest", "destination", "to", "v", "node2", "end");
+
+    /**
+     * The supported file formats.
+     */
+    public enum Format {
+        DIMACS, SNAP, CSV;
+
+        /**
+         * Guesses the format of a file from its extension: {@code .gr} is DIMACS,
+         * {@code .csv} is CSV, anything else is a SNAP edge list.
+         *
+         * @param file the file
+         * @return the format
+         */
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".gr")) return DIMACS;
+            if (name.endsWith(".csv")) return CSV;
+            return SNAP;
+        }
+    }
+
+    /**
+     * The measurements of one load.
+     *
+     * @param bytes    the size of the file
+     * @param lines    the number of lines read
+     * @param edges    the number of edge lines
+     * @param vertices the number of distinct vertices
+     * @param nanos    the elapsed time
+     */
+    public record Stats(long bytes, long lines, long edges, int vertices, long nanos) {
+
+        /**
+         * Returns the number of edge lines loaded per second.
+         *
+         * @return the edge throughput
+         */
+        public double edgesPerSecond() {
+            return edges * 1e9 / Math.max(nanos, 1);
+        }
+
+        /**
+         * Returns the number of megabytes read per second.
+         *
+         * @return the byte throughput
+         */
+        public double megabytesPerSecond() {
+            return bytes * 1e9 / (1 << 20) / Math.max(nanos, 1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d edges, %d vertices, %.1f MB in %.1f ms (%.0f edges/s, %.1f MB/s)",
+                    edges, vertices, bytes / (double) (1 << 20), nanos / 1e6, edgesPerSecond(), megabytesPerSecond());
+        }
+    }
+
+    private final Format format;
+    private final boolean undirected;
+    private final Function<String, VertexData> keyParser;
+    private final ForkJoinPool pool;
+    private Stats stats;
+
+    /**
+     * Initializes a loader that parses on the common pool.
+     *
+     * @param format     the file format
+     * @param undirected {@code true} to add every edge in both directions
+     * @param keyParser  converts the text of a vertex to its data
+     */
+    public GraphLoader(Format format, boolean undirected, Function<String, VertexData> keyParser) {
+        this(format, undirected, keyParser, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Initializes a loader.
+     *
+     * @param format     the file format
+     * @param undirected {@code true} to add every edge in both directions
+     * @param keyParser  converts the text of a vertex to its data
+     * @param pool       the pool to parse on
+     */
+    public GraphLoader(Format format, boolean undirected, Function<String, VertexData> keyParser, ForkJoinPool pool) {
+        this.format = format;
+        this.undirected = undirected;
+        this.keyParser = keyParser;
+        this.pool = pool;
+    }
+
+    /**
+     * Loads a file into a snapshot.
+     *
+     * Time complexity: O(B + V + E), where B is the size of the file in bytes.
+     *
+     * @param file the file to read
+     * @return the snapshot
+     * @throws IOException if the file cannot be read or contains a malformed line
+     */
+    public CompactGraph<VertexData> load(Path file) throws IOException {
+        long start = System.nanoTime();
+        Builder builder;
+        Deque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>();
+        int maxInFlight = 2 * pool.getParallelism() + 1;
+        long bytes;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            bytes = channel.size();
+            builder = new Builder(bytes);
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(CHUNK_BYTES, bytes + 1));
+            boolean first = true;
+
+            while (true) {
+                boolean eof = fill(channel, buffer);
+
+                byte[] data = buffer.array();
+                int length = buffer.position();
+                int end = (eof ? length : lastLineEnd(data, length));
+                if (end == 0 && !eof) {
+                    // a single line longer than the buffer
+                    buffer = grow(buffer);
+                    continue;
+                }
+
+                byte[] text = Arrays.copyOf(data, end);
+                boolean header = first;
+                inFlight.addLast(pool.submit(() -> parse(text, header)));
+                first = false;
+
+                System.arraycopy(data, end, data, 0, length - end);
+                buffer.position(length - end);
+
+                while (inFlight.size() >= maxInFlight)
+                    builder.add(inFlight.removeFirst().join());
+                if (eof) break;
+            }
+        }
+
+        while (!inFlight.isEmpty())
+            builder.add(inFlight.removeFirst().join());
+
+        CompactGraph<VertexData> graph = builder.build();
+        stats = new Stats(bytes, builder.lines, builder.edges, graph.getVerticesCount(), System.nanoTime() - start);
+        return graph;
+    }
+
+    /**
+     * Returns the measurements of the last load.
+     *
+     * @return the stats, or {@code null} if nothing was loaded yet
+     */
+    public Stats getStats() {
+        return stats;
+    }
+
+    /**
+     * Reads from the channel until the buffer is full or the file ends.
+     *
+     * @return {@code true} if the end of the file was reached
+     */
+    private static boolean fill(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) == -1) return true;
+        }
+        return false;
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        bigger.put(buffer);
+        return bigger;
+    }
+
+    private static int lastLineEnd(byte[] data, int length) {
+        for (int i = length - 1; i >= 0; i--)
+            if (data[i] == '\n') return i + 1;
+        return 0;
+    }
+
+    /**
+     * The edges of one chunk, with integer vertex ids or vertex names depending on the format.
+     */
+    private static final class Chunk {
+        final byte[] text;
+        int size, lines;
+        long[] fromIds, toIds;
+        int[] fromAt, toAt;
+        String[] fromNames, toNames;
+        double[] weights = new double[1024];
+        long declaredVertices = -1, declaredEdges = -1;
+        String error;
+        int errorLine;
+
+        Chunk(byte[] text, boolean named) {
+            this.text = text;
+            if (named) {
+                fromNames = new String[1024];
+                toNames = new String[1024];
+            } else {
+                fromIds = new long[1024];
+                toIds = new long[1024];
+                fromAt = new int[1024];
+                toAt = new int[1024];
+            }
+        }
+
+        /**
+         * Adds an edge between integer ids, with the positions of their text in the chunk.
+         */
+        void add(long from, int fromStart, long to, int toStart, double weight) {
+            ensure();
+            fromIds[size] = from;
+            toIds[size] = to;
+            fromAt[size] = fromStart;
+            toAt[size] = toStart;
+            weights[size++] = weight;
+        }
+
+        /**
+         * Returns the text of the id token starting at the given position.
+         */
+        String token(int start) {
+            int end = start;
+            while (end < text.length && !Scanner.isSpace(text[end]) && text[end] != ',')
+                end++;
+            return new String(text, start, end - start, StandardCharsets.US_ASCII);
+        }
+
+        void add(String from, String to, double weight) {
+            ensure();
+            fromNames[size] = from;
+            toNames[size] = to;
+            weights[size++] = weight;
+        }
+
+        private void ensure() {
+            if (size < weights.length) return;
+
+            int capacity = size * 2;
+            weights = Arrays.copyOf(weights, capacity);
+            if (fromIds != null) {
+                fromIds = Arrays.copyOf(fromIds, capacity);
+                toIds = Arrays.copyOf(toIds, capacity);
+                fromAt = Arrays.copyOf(fromAt, capacity);
+                toAt = Arrays.copyOf(toAt, capacity);
+            } else {
+                fromNames = Arrays.copyOf(fromNames, capacity);
+                toNames = Arrays.copyOf(toNames, capacity);
+            }
+        }
+    }
+
+    /**
+     * Parses the complete lines of one chunk. Runs on the pool.
+     *
+     * @param text        the bytes of the chunk, ending at a line boundary
+     * @param firstChunk  {@code true} for the first chunk of the file, which may hold a CSV header
+     */
+    private Chunk parse(byte[] text, boolean firstChunk) {
+        Chunk chunk = new Chunk(text, format == Format.CSV);
+        Scanner in = new Scanner(text);
+
+        while (in.hasLine()) {
+            chunk.lines++;
+            try {
+                switch (format) {
+                    case DIMACS -> parseDimacs(in, chunk);
+                    case SNAP -> parseSnap(in, chunk);
+                    case CSV -> parseCsv(in, chunk, firstChunk && chunk.lines == 1);
+                }
+            } catch (NumberFormatException e) {
+                chunk.error = e.getMessage();
+                chunk.errorLine = chunk.lines;
+                return chunk;
+            }
+            in.nextLine();
+        }
+
+        return chunk;
+    }
+
+    private static void parseDimacs(Scanner in, Chunk chunk) {
+        in.skipSpaces();
+        if (in.atLineEnd()) return;
+
+        byte kind = in.peek();
+        if (kind == 'p') {
+            in.skip();
+            in.skipWord();
+            chunk.declaredVertices = in.nextLong();
+            chunk.declaredEdges = in.nextLong();
+            return;
+        }
+        if (kind != 'a') {
+            if (kind == 'c') return;
+            throw new NumberFormatException("Unknown DIMACS line type '" + (char) kind + "'");
+        }
+
+        in.skip();
+        long from = in.nextLong();
+        int fromStart = in.tokenStart();
+        long to = in.nextLong();
+        int toStart = in.tokenStart();
+        double weight = in.nextDouble();
+        chunk.add(from, fromStart, to, toStart, weight);
+    }
+
+    private static void parseSnap(Scanner in, Chunk chunk) {
+        in.skipSpaces();
+        if (in.atLineEnd() || in.peek() == '#' || in.peek() == '%') return;
+
+        long from = in.nextLong();
+        int fromStart = in.tokenStart();
+        long to = in.nextLong();
+        int toStart = in.tokenStart();
+        in.skipSpaces();
+        double weight = (in.atLineEnd() ? 1 : in.nextDouble());
+        chunk.add(from, fromStart, to, toStart, weight);
+    }
+
+    private static void parseCsv(Scanner in, Chunk chunk, boolean mayBeHeader) {
+        in.skipSpaces();
+        if (in.atLineEnd() || in.peek() == '#') return;
+
+        String from = in.nextField();
+        String to = in.nextField();
+        if (to == null) throw new NumberFormatException("Expected source,target[,weight]");
+
+        String weightText = in.nextField();
+        if (mayBeHeader && SOURCE_COLUMNS.contains(from.toLowerCase(Locale.ROOT))
+                && TARGET_COLUMNS.contains(to.toLowerCase(Locale.ROOT))) return;
+
+        double weight = 1;
+        if (weightText != null && !weightText.isEmpty()) {
+            try {
+                weight = Double.parseDouble(weightText);
+            } catch (NumberFormatException e) {
+                if (mayBeHeader) return;
+                throw e;
+            }
+        }
+        chunk.add(from, to, weight);
+    }
+
+    /**
+     * A cursor over the lines of a chunk, parsing numbers directly from the bytes.
+     */
+    private static final class Scanner {
+        private final byte[] text;
+        private int position;
+        private int tokenStart;
+
+        Scanner(byte[] text) {
+            this.text = text;
+        }
+
+        boolean hasLine() {
+            return position < text.length;
+        }
+
+        boolean atLineEnd() {
+            return position >= text.length || text[position] == '\n' || text[position] == '\r';
+        }
+
+        byte peek() {
+            return text[position];
+        }
+
+        void skip() {
+            position++;
+        }
+
+        void nextLine() {
+            while (position < text.length && text[position] != '\n')
+                position++;
+            position++;
+        }
+
+        void skipWord() {
+            skipSpaces();
+            while (position < text.length && !isSpace(text[position]))
+                position++;
+        }
+
+        void skipSpaces() {
+            while (position < text.length && (text[position] == ' ' || text[position] == '\t'))
+                position++;
+        }
+
+        /**
+         * Returns the position where the last number read by {@link #nextLong()} starts.
+         */
+        int tokenStart() {
+            return tokenStart;
+        }
+
+        long nextLong() {
+            skipSpaces();
+            tokenStart = position;
+            boolean negative = false;
+            if (position < text.length && (text[position] == '-' || text[position] == '+'))
+                negative = (text[position++] == '-');
+
+            int start = position;
+            long value = 0;
+            while (position < text.length && text[position] >= '0' && text[position] <= '9')
+                value = value * 10 + (text[position++] - '0');
+
+            if (position == start || position - start > 18 || !atSeparator())
+                throw new NumberFormatException("Expected an integer");
+            return (negative ? -value : value);
+        }
+
+        double nextDouble() {
+            skipSpaces();
+            int start = position;
+            while (position < text.length && !isSpace(text[position]) && text[position] != ',')
+                position++;
+            if (position == start) throw new NumberFormatException("Expected a number");
+
+            // integer weights are by far the most common; avoid creating a string for them
+            long value = 0;
+            int i = start;
+            while (i < position && text[i] >= '0' && text[i] <= '9' && i - start < 15)
+                value = value * 10 + (text[i++] - '0');
+            if (i == position) return value;
+
+            return Double.parseDouble(new String(text, start, position - start, StandardCharsets.US_ASCII));
+        }
+
+        /**
+         * Returns the next comma-separated field, trimmed, or {@code null} at the end of the line.
+         */
+        String nextField() {
+            if (position >= text.length || text[position] == '\n') return null;
+
+            int start = position;
+            while (position < text.length && text[position] != ',' && text[position] != '\n')
+                position++;
+            int end = position;
+            if (position < text.length && text[position] == ',') position++;
+
+            while (start < end && isSpace(text[start])) start++;
+            while (end > start && isSpace(text[end - 1])) end--;
+            return new String(text, start, end - start, StandardCharsets.UTF_8);
+        }
+
+        private boolean atSeparator() {
+            return position >= text.length || isSpace(text[position]) || text[position] == ',';
+        }
+
+        static boolean isSpace(byte b) {
+            return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+        }
+    }
+
+    /**
+     * Consumes parsed chunks in file order, assigns dense indices and builds the CSR arrays.
+     * Every stored edge is appended to {@code sources}, {@code targets} and {@code weights},
+     * the last two of which are sorted by source in place to become the snapshot.
+     */
+    private final class Builder {
+        private final long fileBytes;
+        private final LongIntMap ids = new LongIntMap();
+        private final Map<String, Integer> names = new HashMap<>();
+        private final List<Object> keys = new ArrayList<>();
+        private int[] sources = new int[0], targets = new int[0];
+        private double[] weights = new double[0];
+        private long lines, edges;
+        private int size;
+
+        Builder(long fileBytes) {
+            this.fileBytes = fileBytes;
+        }
+
+        void add(Chunk chunk) throws IOException {
+            if (chunk.error != null)
+                throw new IOException("Malformed line " + (lines + chunk.errorLine) + ": " + chunk.error);
+
+            // size the edge arrays once: from the declared count, or by extrapolating the first chunk
+            if (chunk.declaredEdges >= 0) reserve(chunk.declaredEdges);
+            else if (lines == 0 && chunk.text.length == fileBytes) reserve(chunk.size);
+            else if (lines == 0 && chunk.text.length > 0)
+                reserve((long) Math.ceil(chunk.size * 1.05 * fileBytes / chunk.text.length));
+            lines += chunk.lines;
+
+            if (chunk.declaredVertices > Integer.MAX_VALUE - 8)
+                throw new IOException("Too many vertices for a snapshot!");
+            for (long id = 1; id <= chunk.declaredVertices; id++)
+                indexOf(id, null, 0);
+
+            for (int k = 0; k < chunk.size; k++) {
+                int from, to;
+                if (chunk.fromIds != null) {
+                    from = indexOf(chunk.fromIds[k], chunk, chunk.fromAt[k]);
+                    to = indexOf(chunk.toIds[k], chunk, chunk.toAt[k]);
+                } else {
+                    from = indexOf(chunk.fromNames[k]);
+                    to = indexOf(chunk.toNames[k]);
+                }
+                append(from, to, chunk.weights[k]);
+                if (undirected) append(to, from, chunk.weights[k]);
+            }
+            edges += chunk.size;
+        }
+
+        /**
+         * Returns the index of an integer id, adding the vertex on its first appearance
+         * with the data parsed from its text in the chunk, or from its value if there is none.
+         */
+        private int indexOf(long id, Chunk chunk, int start) {
+            int i = ids.get(id);
+            if (i == -1) {
+                i = keys.size();
+                ids.put(id, i);
+                keys.add(keyParser.apply(chunk == null ? Long.toString(id) : chunk.token(start)));
+            }
+            return i;
+        }
+
+        private int indexOf(String name) {
+            Integer i = names.get(name);
+            if (i == null) {
+                i = keys.size();
+                names.put(name, i);
+                keys.add(keyParser.apply(name));
+            }
+            return i;
+        }
+
+        /**
+         * Makes room for the given number of edge lines.
+         */
+        private void reserve(long lines) throws IOException {
+            long stored = (undirected ? 2 * lines : lines);
+            if (stored > Integer.MAX_VALUE - 8) throw new IOException("Too many edges for a snapshot!");
+            if (stored > sources.length) resize((int) stored);
+        }
+
+        private void append(int from, int to, double weight) throws IOException {
+            if (size == sources.length) {
+                if (size == Integer.MAX_VALUE - 8) throw new IOException("Too many edges for a snapshot!");
+                resize((int) Math.min(Integer.MAX_VALUE - 8L, Math.max(1024, size + (size >> 1))));
+            }
+            sources[size] = from;
+            targets[size] = to;
+            weights[size++] = weight;
+        }
+
+        private void resize(int capacity) {
+            sources = Arrays.copyOf(sources, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+
+        CompactGraph<VertexData> build() {
+            int n = keys.size();
+            int[] offsets = new int[n + 1];
+            for (int k = 0; k < size; k++)
+                offsets[sources[k] + 1]++;
+            for (int i = 0; i < n; i++)
+                offsets[i + 1] += offsets[i];
+
+            // in-place counting sort: swap every edge into the next free slot of its source
+            int[] next = Arrays.copyOf(offsets, n);
+            for (int v = 0; v < n; v++) {
+                while (next[v] < offsets[v + 1]) {
+                    int k = next[v], s = sources[k];
+                    if (s == v) {
+                        next[v]++;
+                        continue;
+                    }
+
+                    int e = next[s]++;
+                    sources[k] = sources[e];
+                    sources[e] = s;
+                    int t = targets[k];
+                    targets[k] = targets[e];
+                    targets[e] = t;
+                    double w = weights[k];
+                    weights[k] = weights[e];
+                    weights[e] = w;
+                }
+            }
+
+            sources = null;
+            if (targets.length != size) targets = Arrays.copyOf(targets, size);
+            if (weights.length != size) weights = Arrays.copyOf(weights, size);
+            return new CompactGraph<>(undirected, keys.toArray(), offsets, targets, weights);
+        }
+    }
+
+    /**
+     * An open-addressing hash map from {@code long} keys to non-negative {@code int} values.
+     */
+    private static final class LongIntMap {
+        private long[] keys = new long[1 << 10];
+        private int[] values = new int[1 << 10];
+        private int size;
+
+        LongIntMap() {
+            Arrays.fill(values, -1);
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+                if (values[i] == -1) return -1;
+                if (keys[i] == key) return values[i];
+            }
+        }
+
+        void put(long key, int value) {
+            if (2 * (size + 1) > keys.length) rehash();
+
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (values[i] != -1 && keys[i] != key)
+                i = (i + 1) & mask;
+
+            if (values[i] == -1) size++;
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            Arrays.fill(values, -1);
+            size = 0;
+
+            for (int i = 0; i < oldKeys.length; i++)
+                if (oldValues[i] != -1) put(oldKeys[i], oldValues[i]);
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package graphs;
+
+/**
+ * The {@code GraphView} interface represents the read-only operations
+ * that searches need from a graph.
+ * It is implemented by {@link MyGraph}, {@link WeightedGraph}, {@link ConcurrentWeightedGraph}
+ * and {@link CompactGraph}.
+ *
+ * @param <VertexData> the type of data stored in the vertices
+ */
+public interface GraphView<VertexData> {
+
+    /**
+     * Returns the number of vertices in the graph.
+     *
+     * @return the number of vertices
+     */
+    int getVerticesCount();
+
+    /**
+     * Checks if the graph contains the specified vertex.
+     *
+     * @param v the vertex data
+     * @return {@code true} if the graph contains the vertex, {@code false} otherwise
+     */
+    boolean hasVertex(VertexData v);
+
+    /**
+     * Passes every neighbor of the specified vertex, with the weight of the edge
+     * leading to it, to the given visitor. Nothing is allocated per call.
+     * Does nothing if the vertex is not in the graph.
+     *
+     * @param v       the vertex data
+     * @param visitor the visitor to call for every neighbor
+     */
+    void forEachNeighbor(VertexData v, NeighborVisitor<VertexData> visitor);
+}
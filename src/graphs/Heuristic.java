@@ -0,0 +1,50 @@
+package graphs;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The {@code Heuristic} interface represents an estimate of the shortest distance
+ * between two vertices, as used by {@link AStar}.
+ * A heuristic is admissible if it never overestimates the true distance, which is
+ * required for {@code AStar} to return shortest paths.
+ *
+ * @param <Vertex> the type of vertices in the graph
+ */
+@FunctionalInterface
+public interface Heuristic<Vertex> {
+
+    /**
+     * Returns a lower bound on the length of the shortest path from {@code v} to {@code target}.
+     *
+     * @param v      the vertex
+     * @param target the target vertex
+     * @return the estimated distance, never more than the true one
+     */
+    double estimate(Vertex v, Vertex target);
+
+    /**
+     * Returns the heuristic that always estimates zero, which turns {@link AStar}
+     * into Dijkstra's algorithm with early termination.
+     *
+     * @param <Vertex> the type of vertices in the graph
+     * @return the zero heuristic
+     */
+    static <Vertex> Heuristic<Vertex> zero() {
+        return (v, target) -> 0;
+    }
+
+    /**
+     * Returns the straight-line distance between the coordinates of two vertices.
+     * It is admissible when no edge is shorter than the distance between its endpoints,
+     * for example when weights are road lengths.
+     *
+     * @param x        the x coordinate of a vertex
+     * @param y        the y coordinate of a vertex
+     * @param <Vertex> the type of vertices in the graph
+     * @return the Euclidean heuristic
+     */
+    static <Vertex> Heuristic<Vertex> euclidean(ToDoubleFunction<Vertex> x, ToDoubleFunction<Vertex> y) {
+        return (v, target) -> Math.hypot(x.applyAsDouble(v) - x.applyAsDouble(target),
+                y.applyAsDouble(v) - y.applyAsDouble(target));
+    }
+}
@@ -0,0 +1,398 @@
+package graphs;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The {@code IncrementalSearch} class represents a search from a source vertex that
+ * settles vertices one at a time, only as they are asked for, instead of doing all
+ * its work in the constructor like the {@link Search} subclasses.
+ * Vertices come out in breadth-first order, depth-first pre-order or Dijkstra settle
+ * order, through {@link #next()} or {@link #stream()}, and the caller can stop as soon
+ * as it has what it needs. The edges of a vertex are only scanned when the vertex after
+ * it is requested, so stopping after {@code k} vertices never scans the edges of the last.
+ *
+ * <p>Over a {@link CompactGraph} the search reads the CSR arrays directly and keeps
+ * its state in arrays indexed like the snapshot. Over any other graph, vertices get
+ * dense indices as they are discovered, and the neighbors of every expanded vertex
+ * are copied once into flat arrays, so the cost grows with the part of the graph
+ * explored, not with the size of the graph.
+ *
+ * <p>For example, the three closest facilities, or everything within 5 km:
+ * <pre>
+ * List&lt;V&gt; nearest = new IncrementalSearch&lt;&gt;(graph, home, Order.DIJKSTRA).nearest(3, facilities::contains);
+ * List&lt;V&gt; close = new IncrementalSearch&lt;&gt;(graph, home, Order.DIJKSTRA).within(5.0).toList();
+ * </pre>
+ *
+ * @param <Vertex> the type of vertices in the graph
+ */
+public class IncrementalSearch<Vertex> implements Iterator<Vertex> {
+    /**
+     * The order in which vertices are settled.
+     */
+    public enum Order {
+        /**
+         * Breadth-first order, the same as {@link BreadthFirstSearch}. Distances count edges.
+         */
+        BREADTH_FIRST,
+        /**
+         * Depth-first pre-order, the same as {@link DepthFirstSearch}. Distances count the
+         * edges of the depth-first tree, which are not shortest paths.
+         */
+        DEPTH_FIRST,
+        /**
+         * Increasing distance from the source, as in {@link Dijkstra}. Edge weights must be non-negative.
+         */
+        DIJKSTRA
+    }
+
+    private static final byte UNSEEN = 0, DISCOVERED = 1, SETTLED = 2;
+
+    private final Order order;
+    private final Vertex source;
+    private final CompactGraph<Vertex> compact;
+    private final GraphView<Vertex> graph;
+    private final Map<Vertex, Integer> ids;
+    private final List<Vertex> vertices;
+
+    private byte[] state;
+    private int[] parents;
+    private double[] dist;
+
+    // the neighbors of expanded vertices, for graphs other than a snapshot
+    private int[] first;
+    private int[] last;
+    private int[] targets;
+    private double[] weights;
+    private int edges;
+
+    private int[] frontier;      // queue of BREADTH_FIRST, stack of DEPTH_FIRST
+    private int[] next;          // next edge of every stack frame of DEPTH_FIRST
+    private int head, tail;
+    private final IndexMinPQ pq;
+
+    private int expand = -1;     // the last returned vertex, whose edges are not scanned yet
+    private int pending = -1;    // the next vertex to return, once found
+    private int settledCount;
+
+    /**
+     * Initializes a search from the source vertex in the given graph. Nothing is
+     * settled until the first vertex is requested.
+     *
+     * @param graph  the graph to search
+     * @param source the source vertex
+     * @param order  the order in which to settle vertices
+     * @throws IllegalArgumentException if {@code source} is not in the graph
+     */
+    public IncrementalSearch(GraphView<Vertex> graph, Vertex source, Order order) {
+        if (!graph.hasVertex(source))
+            throw new IllegalArgumentException("Source vertex is not in the graph!");
+
+        this.order = order;
+        this.source = source;
+        this.graph = graph;
+        this.compact = (graph instanceof CompactGraph<Vertex> c ? c : null);
+
+        int capacity;
+        if (compact != null) {
+            ids = null;
+            vertices = null;
+            capacity = compact.getVerticesCount();
+            targets = compact.targets();
+            weights = compact.weights();
+        } else {
+            ids = new HashMap<>();
+            vertices = new ArrayList<>();
+            capacity = 16;
+            first = new int[capacity];
+            last = new int[capacity];
+            targets = new int[capacity];
+            weights = new double[capacity];
+        }
+
+        state = new byte[capacity];
+        parents = new int[capacity];
+        dist = new double[capacity];
+        frontier = new int[order == Order.DIJKSTRA ? 0 : capacity];
+        next = new int[order == Order.DEPTH_FIRST ? capacity : 0];
+        pq = (order == Order.DIJKSTRA ? new IndexMinPQ(16) : null);
+
+        int s = idOf(source);
+        parents[s] = -1;
+        discover(s, 0);
+    }
+
+    /**
+     * Checks if there is another reachable vertex, settling it if needed.
+     *
+     * @return {@code true} if another vertex can be settled, {@code false} otherwise
+     */
+    @Override
+    public boolean hasNext() {
+        if (pending == -1) advance();
+        return pending != -1;
+    }
+
+    /**
+     * Settles and returns the next vertex.
+     *
+     * @return the next vertex in the order of the search
+     * @throws NoSuchElementException if every reachable vertex has been settled
+     */
+    @Override
+    public Vertex next() {
+        if (!hasNext()) throw new NoSuchElementException("Every reachable vertex is settled!");
+
+        int v = pending;
+        pending = -1;
+        expand = v;
+        return vertexAt(v);
+    }
+
+    /**
+     * Returns the remaining vertices as a sequential stream. The stream settles
+     * vertices as they are consumed, so short-circuiting operations such as
+     * {@code limit}, {@code takeWhile} or {@code findFirst} stop the search.
+     *
+     * @return the stream of the remaining vertices
+     */
+    public Stream<Vertex> stream() {
+        Spliterator<Vertex> spliterator = Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Returns the remaining vertices whose distance from the source is at most {@code radius}.
+     * The search settles one vertex beyond the radius to know that it can stop.
+     *
+     * @param radius the largest distance
+     * @return the stream of the vertices within the radius
+     * @throws IllegalStateException if the search is depth-first, whose distances do not grow monotonically
+     */
+    public Stream<Vertex> within(double radius) {
+        if (order == Order.DEPTH_FIRST)
+            throw new IllegalStateException("Depth-first order is not by distance!");
+        return stream().takeWhile(v -> distTo(v) <= radius);
+    }
+
+    /**
+     * Returns the first {@code k} remaining vertices that match the filter, such as the
+     * {@code k} nearest facilities with {@link Order#DIJKSTRA}.
+     *
+     * @param k      the number of vertices
+     * @param filter the vertices to keep
+     * @return up to {@code k} vertices, in settle order
+     */
+    public List<Vertex> nearest(int k, Predicate<Vertex> filter) {
+        List<Vertex> res = new ArrayList<>(Math.min(k, 16));
+        while (res.size() < k && hasNext()) {
+            Vertex v = next();
+            if (filter.test(v)) res.add(v);
+        }
+        return res;
+    }
+
+    /**
+     * Returns the order in which the search settles vertices.
+     *
+     * @return the order
+     */
+    public Order getOrder() {
+        return order;
+    }
+
+    /**
+     * Returns the number of vertices returned so far.
+     *
+     * @return the number of settled vertices
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    /**
+     * Checks if the given vertex has been settled, and so has a final path.
+     *
+     * @param v the vertex
+     * @return {@code true} if {@code v} was returned by the search, {@code false} otherwise
+     */
+    public boolean hasPathTo(Vertex v) {
+        int i = find(v);
+        return i != -1 && state[i] == SETTLED;
+    }
+
+    /**
+     * Returns the distance from the source to a settled vertex: the number of edges for
+     * {@link Order#BREADTH_FIRST} and {@link Order#DEPTH_FIRST}, the length of the
+     * shortest path for {@link Order#DIJKSTRA}.
+     *
+     * @param v the vertex
+     * @return the distance, or {@code Double.POSITIVE_INFINITY} if {@code v} is not settled yet
+     */
+    public double distTo(Vertex v) {
+        int i = find(v);
+        return (i != -1 && state[i] == SETTLED ? dist[i] : Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Returns the path from the source to a settled vertex, as a view over the parent array.
+     *
+     * @param v the vertex
+     * @return the path, or {@code null} if {@code v} is not settled yet
+     */
+    public Path<Vertex> pathTo(Vertex v) {
+        int i = find(v);
+        if (i == -1 || state[i] != SETTLED) return null;
+        return new Path<>(parents, this::vertexAt, i);
+    }
+
+    /**
+     * Scans the edges of the last returned vertex, then finds the next vertex to return.
+     */
+    private void advance() {
+        if (order == Order.DEPTH_FIRST) {
+            advanceDepthFirst();
+            return;
+        }
+
+        if (expand != -1) {
+            int v = expand;
+            expand = -1;
+            expandEdges(v);
+            for (int e = firstEdge(v), end = lastEdge(v); e < end; e++) {
+                int w = targets[e];
+                if (state[w] == SETTLED) continue;
+
+                double d = dist[v] + (order == Order.DIJKSTRA ? weights[e] : 1);
+                if (state[w] == UNSEEN || (order == Order.DIJKSTRA && d < dist[w])) {
+                    parents[w] = v;
+                    discover(w, d);
+                }
+            }
+        }
+
+        if (order == Order.BREADTH_FIRST) {
+            if (head < tail) settle(frontier[head++]);
+        } else if (!pq.isEmpty()) {
+            settle(pq.delMin());
+        }
+    }
+
+    /**
+     * Scans the edges of the last returned vertex, which is the top frame, then resumes
+     * the depth-first search from the top frame, entering the next unvisited neighbor.
+     */
+    private void advanceDepthFirst() {
+        if (settledCount == 0) {
+            settle(frontier[0]);
+            return;
+        }
+
+        if (expand != -1) {
+            expandEdges(expand);
+            next[tail - 1] = firstEdge(expand);
+            expand = -1;
+        }
+
+        while (tail > 0) {
+            int top = tail - 1, v = frontier[top];
+            if (next[top] < lastEdge(v)) {
+                int w = targets[next[top]++];
+                if (state[w] == SETTLED) continue;
+
+                parents[w] = v;
+                dist[w] = dist[v] + 1;
+                frontier[tail++] = w;
+                settle(w);
+                return;
+            }
+            tail--;
+        }
+    }
+
+    private void discover(int v, double d) {
+        if (order == Order.DIJKSTRA) {
+            dist[v] = d;
+            if (pq.contains(v)) pq.decreaseKey(v, d);
+            else pq.insert(v, d);
+        } else {
+            dist[v] = d;
+            frontier[tail++] = v;
+        }
+        state[v] = DISCOVERED;
+    }
+
+    private void settle(int v) {
+        state[v] = SETTLED;
+        pending = v;
+        settledCount++;
+    }
+
+    private int firstEdge(int v) {
+        return (compact != null ? compact.offsets()[v] : first[v]);
+    }
+
+    private int lastEdge(int v) {
+        return (compact != null ? compact.offsets()[v + 1] : last[v]);
+    }
+
+    /**
+     * Copies the neighbors of {@code v} to the edge arrays, once, giving indices to
+     * the neighbors seen for the first time. Does nothing over a snapshot.
+     */
+    private void expandEdges(int v) {
+        if (compact != null || first[v] != -1) return;
+
+        first[v] = edges;
+        graph.forEachNeighbor(vertexAt(v), (w, weight) -> {
+            int j = idOf(w);
+            if (edges == targets.length) {
+                targets = Arrays.copyOf(targets, edges * 2);
+                weights = Arrays.copyOf(weights, edges * 2);
+            }
+            targets[edges] = j;
+            weights[edges++] = weight;
+        });
+        last[v] = edges;
+    }
+
+    /**
+     * Returns the index of a vertex, giving it the next one if it has none.
+     */
+    private int idOf(Vertex v) {
+        if (compact != null) return compact.indexOf(v);
+
+        Integer id = ids.get(v);
+        if (id != null) return id;
+
+        int i = vertices.size();
+        ids.put(v, i);
+        vertices.add(v);
+        if (i == state.length) grow(i * 2);
+        first[i] = -1;
+        return i;
+    }
+
+    private int find(Vertex v) {
+        if (compact != null) return compact.indexOf(v);
+        Integer id = ids.get(v);
+        return (id == null ? -1 : id);
+    }
+
+    private Vertex vertexAt(int i) {
+        return (compact != null ? compact.vertexAt(i) : vertices.get(i));
+    }
+
+    private void grow(int capacity) {
+        state = Arrays.copyOf(state, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        dist = Arrays.copyOf(dist, capacity);
+        first = Arrays.copyOf(first, capacity);
+        last = Arrays.copyOf(last, capacity);
+        if (order != Order.DIJKSTRA) frontier = Arrays.copyOf(frontier, capacity);
+        if (order == Order.DEPTH_FIRST) next = Arrays.copyOf(next, capacity);
+    }
+}
@@ -0,0 +1,239 @@
+package graphs;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * The {@code IndexMinPQ} class represents an indexed priority queue of
+ * {@code double} keys associated with integer indices.
+ * It is implemented as a binary heap together with an inverse array,
+ * so that the key of any index can be decreased in logarithmic time.
+ * The capacity grows on demand when a larger index is inserted.
+ */
+public class IndexMinPQ {
+    private int size;
+    private int[] pq;       // binary heap of indices, 1-based
+    private int[] qp;       // inverse of pq: qp[pq[i]] = i, or -1 if absent
+    private double[] keys;  // keys[i] = priority of index i
+    private int peak;       // largest size reached since the last clear
+    private long operations;
+
+    /**
+     * Initializes an empty indexed priority queue with the given initial capacity.
+     *
+     * @param capacity the initial number of indices the queue can hold
+     */
+    public IndexMinPQ(int capacity) {
+        capacity = Math.max(capacity, 1);
+        pq = new int[capacity + 1];
+        qp = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(qp, -1);
+    }
+
+    /**
+     * Returns {@code true} if the queue is empty.
+     *
+     * @return {@code true} if the queue is empty, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of indices in the queue.
+     *
+     * @return the number of indices in the queue
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the largest number of indices the queue has held since it was
+     * created or last cleared.
+     *
+     * @return the high-water mark of the queue
+     */
+    public int peak() {
+        return peak;
+    }
+
+    /**
+     * Returns the number of inserts, key changes and removals since the queue was
+     * created or last cleared.
+     *
+     * @return the number of heap operations
+     */
+    public long operations() {
+        return operations;
+    }
+
+    /**
+     * Checks if the given index is in the queue.
+     *
+     * @param i the index
+     * @return {@code true} if {@code i} is in the queue, {@code false} otherwise
+     */
+    public boolean contains(int i) {
+        return i >= 0 && i < qp.length && qp[i] != -1;
+    }
+
+    /**
+     * Associates the given key with the given index.
+     *
+     * @param i   the index
+     * @param key the key
+     * @throws IllegalArgumentException if {@code i} is negative or already in the queue
+     */
+    public void insert(int i, double key) {
+        if (i < 0) throw new IllegalArgumentException("Index must be non-negative!");
+        if (contains(i)) throw new IllegalArgumentException("Index is already in the queue!");
+        ensureCapacity(i + 1);
+
+        size++;
+        operations++;
+        if (size > peak) peak = size;
+        qp[i] = size;
+        pq[size] = i;
+        keys[i] = key;
+        swim(size);
+    }
+
+    /**
+     * Decreases the key associated with the given index.
+     *
+     * @param i   the index
+     * @param key the new key, which must not be greater than the current one
+     * @throws NoSuchElementException if {@code i} is not in the queue
+     */
+    public void decreaseKey(int i, double key) {
+        if (!contains(i)) throw new NoSuchElementException("Index is not in the queue!");
+
+        operations++;
+        keys[i] = key;
+        swim(qp[i]);
+    }
+
+    /**
+     * Changes the key associated with the given index, in either direction.
+     *
+     * @param i   the index
+     * @param key the new key
+     * @throws NoSuchElementException if {@code i} is not in the queue
+     */
+    public void changeKey(int i, double key) {
+        if (!contains(i)) throw new NoSuchElementException("Index is not in the queue!");
+
+        operations++;
+        keys[i] = key;
+        swim(qp[i]);
+        sink(qp[i]);
+    }
+
+    /**
+     * Returns the key associated with the given index.
+     *
+     * @param i the index
+     * @return the key of {@code i}
+     * @throws NoSuchElementException if {@code i} is not in the queue
+     */
+    public double keyOf(int i) {
+        if (!contains(i)) throw new NoSuchElementException("Index is not in the queue!");
+        return keys[i];
+    }
+
+    /**
+     * Returns the smallest key in the queue.
+     *
+     * @return the smallest key
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public double minKey() {
+        if (size == 0) throw new NoSuchElementException("Priority queue is empty!");
+        return keys[pq[1]];
+    }
+
+    /**
+     * Returns the index with the smallest key.
+     *
+     * @return the index with the smallest key
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public int minIndex() {
+        if (size == 0) throw new NoSuchElementException("Priority queue is empty!");
+        return pq[1];
+    }
+
+    /**
+     * Removes the index with the smallest key and returns it.
+     *
+     * Time complexity: O(log n), where n is the number of indices in the queue.
+     *
+     * @return the index with the smallest key
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public int delMin() {
+        if (size == 0) throw new NoSuchElementException("Priority queue is empty!");
+
+        operations++;
+        int min = pq[1];
+        swap(1, size--);
+        sink(1);
+        qp[min] = -1;
+
+        return min;
+    }
+
+    /**
+     * Removes every index from the queue, keeping the allocated capacity.
+     */
+    public void clear() {
+        for (int k = 1; k <= size; k++)
+            qp[pq[k]] = -1;
+        size = 0;
+        peak = 0;
+        operations = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= qp.length) return;
+
+        int newCapacity = Math.max(capacity, qp.length * 2);
+        int oldCapacity = qp.length;
+
+        pq = Arrays.copyOf(pq, newCapacity + 1);
+        qp = Arrays.copyOf(qp, newCapacity);
+        keys = Arrays.copyOf(keys, newCapacity);
+        Arrays.fill(qp, oldCapacity, newCapacity, -1);
+    }
+
+    private void swim(int k) {
+        while (k > 1 && greater(k / 2, k)) {
+            swap(k, k / 2);
+            k = k / 2;
+        }
+    }
+
+    private void sink(int k) {
+        while (2 * k <= size) {
+            int j = 2 * k;
+            if (j < size && greater(j, j + 1)) j++;
+            if (!greater(k, j)) break;
+            swap(k, j);
+            k = j;
+        }
+    }
+
+    private boolean greater(int i, int j) {
+        return keys[pq[i]] > keys[pq[j]];
+    }
+
+    private void swap(int i, int j) {
+        int t = pq[i];
+        pq[i] = pq[j];
+        pq[j] = t;
+        qp[pq[i]] = i;
+        qp[pq[j]] = j;
+    }
+}
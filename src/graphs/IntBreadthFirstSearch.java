@@ -0,0 +1,51 @@
+package graphs;
+
+/**
+ * The {@code IntBreadthFirstSearch} class represents a data type for
+ * performing breadth-first search on an {@link IntWeightedGraph}.
+ * It finds the paths with the fewest edges from the source to every reachable vertex,
+ * using an {@code int[]} queue of vertex indices.
+ */
+public class IntBreadthFirstSearch extends IntSearch {
+
+    /**
+     * Initializes a breadth-first search from the source vertex in the given graph.
+     *
+     * @param graph  the graph to search
+     * @param source the source vertex id
+     */
+    public IntBreadthFirstSearch(IntWeightedGraph graph, int source) {
+        super(graph, source);
+        bfs(graph.indexOf(source));
+    }
+
+    /**
+     * Performs a breadth-first search starting from the given index.
+     *
+     * @param current the index of the starting vertex
+     *
+     * Time complexity: O(V + E), where V is the number of vertices
+     * and E is the number of edges in the graph.
+     */
+    private void bfs(int current) {
+        int[] queue = new int[marked.length];
+        int head = 0, tail = 0;
+
+        marked[current] = true;
+        queue[tail++] = current;
+
+        while (head < tail) {
+            int v = queue[head++];
+            int[] neighbors = graph.adjacentAt(v);
+
+            for (int k = 0; k < graph.degreeAt(v); k++) {
+                int w = neighbors[k];
+                if (marked[w]) continue;
+
+                marked[w] = true;
+                edgeTo[w] = v;
+                queue[tail++] = w;
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package graphs;
+
+import java.util.Arrays;
+
+/**
+ * The {@code IntDepthFirstSearch} class represents a data type for
+ * performing depth-first search on an {@link IntWeightedGraph}.
+ * Like {@link DepthFirstSearch}, it runs iteratively with an explicit stack, visits
+ * vertices in the same order as the recursive algorithm, and records the preorder
+ * and postorder of every reached vertex, all in flat {@code int[]} arrays.
+ */
+public class IntDepthFirstSearch extends IntSearch {
+    private final int[] pre;
+    private final int[] post;
+    private final int[] preorder;
+    private final int[] postorder;
+    private int count;
+
+    /**
+     * Initializes a depth-first search from the source vertex in the given graph.
+     *
+     * @param graph  the graph to search
+     * @param source the source vertex id
+     */
+    public IntDepthFirstSearch(IntWeightedGraph graph, int source) {
+        super(graph, source);
+
+        int n = marked.length;
+        pre = new int[n];
+        post = new int[n];
+        preorder = new int[n];
+        postorder = new int[n];
+        Arrays.fill(pre, -1);
+        Arrays.fill(post, -1);
+
+        dfs(graph.indexOf(source));
+    }
+
+    /**
+     * Performs a depth-first search starting from the given index.
+     * Each stack frame is a vertex index and the position of its next edge to explore.
+     *
+     * @param current the index of the starting vertex
+     *
+     * Time complexity: O(V + E), where V is the number of vertices
+     * and E is the number of edges in the graph.
+     */
+    private void dfs(int current) {
+        int n = marked.length;
+        int[] stack = new int[n];
+        int[] next = new int[n];
+        int top = 0, postCount = 0;
+
+        marked[current] = true;
+        pre[current] = count;
+        preorder[count++] = current;
+        stack[0] = current;
+
+        while (top >= 0) {
+            int v = stack[top];
+
+            if (next[top] < graph.degreeAt(v)) {
+                int w = graph.adjacentAt(v)[next[top]++];
+                if (marked[w]) continue;
+
+                marked[w] = true;
+                edgeTo[w] = v;
+                pre[w] = count;
+                preorder[count++] = w;
+
+                stack[++top] = w;
+                next[top] = 0;
+            } else {
+                post[v] = postCount;
+                postorder[postCount++] = v;
+                top--;
+            }
+        }
+    }
+
+    /**
+     * Returns the preorder number of the specified vertex.
+     *
+     * @param v the vertex id
+     * @return the preorder number, or {@code -1} if the vertex was not reached
+     */
+    public int pre(int v) {
+        int i = graph.indexOf(v);
+        return (i == -1 || i >= pre.length ? -1 : pre[i]);
+    }
+
+    /**
+     * Returns the postorder number of the specified vertex.
+     *
+     * @param v the vertex id
+     * @return the postorder number, or {@code -1} if the vertex was not reached
+     */
+    public int post(int v) {
+        int i = graph.indexOf(v);
+        return (i == -1 || i >= post.length ? -1 : post[i]);
+    }
+
+    /**
+     * Returns the reached vertex ids in preorder.
+     *
+     * @return the vertex ids in preorder
+     */
+    public int[] pre() {
+        return order(preorder, false);
+    }
+
+    /**
+     * Returns the reached vertex ids in postorder.
+     *
+     * @return the vertex ids in postorder
+     */
+    public int[] post() {
+        return order(postorder, false);
+    }
+
+    /**
+     * Returns the reached vertex ids in reverse postorder, a topological order if the graph is a DAG.
+     *
+     * @return the vertex ids in reverse postorder
+     */
+    public int[] reversePost() {
+        return order(postorder, true);
+    }
+
+    private int[] order(int[] indices, boolean reverse) {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++)
+            ids[i] = graph.vertexAt(indices[reverse ? count - 1 - i : i]);
+        return ids;
+    }
+}
@@ -0,0 +1,70 @@
+package graphs;
+
+import java.util.Arrays;
+
+/**
+ * The {@code IntDijkstra} class represents a data type for
+ * finding the shortest paths from a source vertex in an {@link IntWeightedGraph}
+ * with Dijkstra's algorithm. Distances are kept in a {@code double[]} by vertex index
+ * and the frontier in an {@link IndexMinPQ}, so the search boxes nothing.
+ * Edge weights must be non-negative.
+ */
+public class IntDijkstra extends IntSearch {
+    private final double[] distances;
+
+    /**
+     * Initializes Dijkstra's algorithm from the source vertex in the given graph.
+     *
+     * @param graph  the graph to search
+     * @param source the source vertex id
+     */
+    public IntDijkstra(IntWeightedGraph graph, int source) {
+        super(graph, source);
+        distances = new double[marked.length];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        dijkstra(graph.indexOf(source));
+    }
+
+    /**
+     * Computes the shortest paths from the given index.
+     *
+     * @param current the index of the source vertex
+     *
+     * Time complexity: O((V + E) log V), where V is the number of vertices
+     * and E is the number of edges in the graph.
+     */
+    private void dijkstra(int current) {
+        IndexMinPQ pq = new IndexMinPQ(marked.length);
+        distances[current] = 0;
+        pq.insert(current, 0);
+
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            marked[v] = true;
+
+            int[] neighbors = graph.adjacentAt(v);
+            double[] weights = graph.weightsAt(v);
+            for (int k = 0; k < graph.degreeAt(v); k++) {
+                int w = neighbors[k];
+                double newDistance = distances[v] + weights[k];
+                if (newDistance >= distances[w]) continue;
+
+                distances[w] = newDistance;
+                edgeTo[w] = v;
+                if (pq.contains(w)) pq.decreaseKey(w, newDistance);
+                else pq.insert(w, newDistance);
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the shortest path from the source to the given vertex.
+     *
+     * @param v the destination vertex id
+     * @return the length of the shortest path, or {@code Double.POSITIVE_INFINITY} if no path exists
+     */
+    public double distTo(int v) {
+        if (!hasPathTo(v)) return Double.POSITIVE_INFINITY;
+        return distances[graph.indexOf(v)];
+    }
+}
@@ -0,0 +1,75 @@
+package graphs;
+
+import java.util.Arrays;
+
+/**
+ * The {@code IntIntMap} class represents an open-addressing hash map from {@code int}
+ * keys to non-negative {@code int} values, without boxing.
+ * Collisions are resolved by linear probing, and the table is kept at most half full.
+ */
+final class IntIntMap {
+    private static final int FREE = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    IntIntMap() {
+        this(8);
+    }
+
+    IntIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(2 * expected, 4) - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, FREE);
+    }
+
+    /**
+     * Returns the value of the given key, or {@code -1} if the key is absent.
+     */
+    int get(int key) {
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            if (values[i] == FREE) return -1;
+            if (keys[i] == key) return values[i];
+        }
+    }
+
+    /**
+     * Associates a non-negative value with the given key, replacing any previous value.
+     */
+    void put(int key, int value) {
+        if (2 * (size + 1) > keys.length) rehash();
+
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (values[i] != FREE && keys[i] != key)
+            i = (i + 1) & mask;
+
+        if (values[i] == FREE) size++;
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(values, FREE);
+        size = 0;
+
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldValues[i] != FREE) put(oldKeys[i], oldValues[i]);
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,53 @@
+package graphs;
+
+import java.util.Arrays;
+
+/**
+ * The {@code IntList} class represents a growable list of {@code int} values
+ * without boxing.
+ */
+final class IntList {
+    private int[] items;
+    private int size;
+
+    IntList() {
+        this(8);
+    }
+
+    IntList(int capacity) {
+        items = new int[Math.max(capacity, 1)];
+    }
+
+    void add(int value) {
+        if (size == items.length) items = Arrays.copyOf(items, size * 2);
+        items[size++] = value;
+    }
+
+    int get(int i) {
+        return items[i];
+    }
+
+    void set(int i, int value) {
+        items[i] = value;
+    }
+
+    int removeLast() {
+        return items[--size];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(items, size);
+    }
+}
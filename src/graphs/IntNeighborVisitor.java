@@ -0,0 +1,18 @@
+package graphs;
+
+/**
+ * The {@code IntNeighborVisitor} interface represents a callback that receives
+ * the neighbors of a vertex of an {@link IntWeightedGraph} one at a time, together
+ * with the weight of the edge leading to each of them, without boxing.
+ */
+@FunctionalInterface
+public interface IntNeighborVisitor {
+
+    /**
+     * Visits one neighbor.
+     *
+     * @param neighbor the id of the adjacent vertex
+     * @param weight   the weight of the edge to {@code neighbor}
+     */
+    void visit(int neighbor, double weight);
+}
@@ -0,0 +1,67 @@
+package graphs;
+
+import java.util.Arrays;
+
+/**
+ * The {@code IntSearch} class represents a data type for
+ * performing search operations on an {@link IntWeightedGraph} from a source vertex.
+ * It is the primitive counterpart of {@link Search}: results are recorded by dense
+ * vertex index in a {@code boolean[]} and an {@code int[]}, and paths are returned
+ * as arrays of vertex ids, so nothing is boxed.
+ * The graph must not change while the search is in use.
+ */
+public class IntSearch {
+    protected final IntWeightedGraph graph;
+    protected final int source;
+    protected final boolean[] marked;
+    protected final int[] edgeTo;
+
+    /**
+     * Initializes the search with the given source vertex.
+     *
+     * @param graph  the graph to search
+     * @param source the source vertex id
+     * @throws IllegalArgumentException if {@code source} is not in the graph
+     */
+    public IntSearch(IntWeightedGraph graph, int source) {
+        if (!graph.hasVertex(source))
+            throw new IllegalArgumentException("Source vertex is not in the graph!");
+
+        this.graph = graph;
+        this.source = source;
+        marked = new boolean[graph.getVerticesCount()];
+        edgeTo = new int[graph.getVerticesCount()];
+        Arrays.fill(edgeTo, -1);
+    }
+
+    /**
+     * Determines if there is a path from the source vertex to the specified vertex.
+     *
+     * @param v the vertex id to check
+     * @return {@code true} if there is a path, {@code false} otherwise
+     */
+    public boolean hasPathTo(int v) {
+        int i = graph.indexOf(v);
+        return i != -1 && i < marked.length && marked[i];
+    }
+
+    /**
+     * Returns the path from the source vertex to the specified vertex, or {@code null} if no such path exists.
+     *
+     * @param v the destination vertex id
+     * @return the vertex ids of the path, from the source to {@code v}, or {@code null} if no path exists
+     */
+    public int[] pathTo(int v) {
+        if (!hasPathTo(v)) return null;
+
+        int length = 0;
+        for (int i = graph.indexOf(v); i != -1; i = edgeTo[i])
+            length++;
+
+        int[] path = new int[length];
+        for (int i = graph.indexOf(v); i != -1; i = edgeTo[i])
+            path[--length] = graph.vertexAt(i);
+
+        return path;
+    }
+}
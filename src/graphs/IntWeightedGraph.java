@@ -0,0 +1,288 @@
+package graphs;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * The {@code IntWeightedGraph} class represents a weighted graph whose vertices are
+ * {@code int} ids, stored without boxing.
+ * Every id is mapped to a dense index by an open-addressing hash map, and the
+ * neighbors and edge weights of every vertex are kept in growable primitive arrays
+ * in insertion order. Vertices of high degree also get a small hash map from neighbor
+ * to position, so that duplicate edges are detected in constant time.
+ *
+ * <p>An edge takes 12 bytes of array space, against several objects per edge in {@link WeightedGraph}.
+ * It is searched with {@link IntBreadthFirstSearch}, {@link IntDepthFirstSearch} and
+ * {@link IntDijkstra}, which keep their state in flat arrays.
+ */
+public class IntWeightedGraph {
+    private static final int[] NO_NEIGHBORS = new int[0];
+    private static final double[] NO_WEIGHTS = new double[0];
+    private static final int LINEAR_SCAN_DEGREE = 16;
+
+    private final boolean undirected;
+    private final IntIntMap indices = new IntIntMap();
+    private int[] ids = new int[16];
+    private int[][] adjacent = new int[16][];
+    private double[][] weights = new double[16][];
+    private int[] degrees = new int[16];
+    private IntIntMap[] positions = new IntIntMap[16];
+    private int verticesCount;
+    private int arcsCount;
+
+    /**
+     * Initializes an undirected weighted graph.
+     */
+    public IntWeightedGraph() {
+        this(true);
+    }
+
+    /**
+     * Initializes a weighted graph, directed or undirected.
+     *
+     * @param undirected {@code true} if the graph is undirected, {@code false} if directed
+     */
+    public IntWeightedGraph(boolean undirected) {
+        this.undirected = undirected;
+    }
+
+    /**
+     * Returns whether the graph is undirected.
+     *
+     * @return {@code true} if the graph is undirected, {@code false} if directed
+     */
+    public boolean isUndirected() {
+        return undirected;
+    }
+
+    /**
+     * Adds a vertex to the graph.
+     *
+     * @param v the vertex id to add
+     */
+    public void addVertex(int v) {
+        index(v);
+    }
+
+    private int index(int v) {
+        int i = indices.get(v);
+        if (i != -1) return i;
+
+        i = verticesCount++;
+        if (i == ids.length) {
+            int capacity = i * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            adjacent = Arrays.copyOf(adjacent, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            degrees = Arrays.copyOf(degrees, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+        }
+
+        ids[i] = v;
+        adjacent[i] = NO_NEIGHBORS;
+        weights[i] = NO_WEIGHTS;
+        indices.put(v, i);
+        return i;
+    }
+
+    /**
+     * Adds an edge between the source and destination vertices with the given weight.
+     * If the graph is undirected, also adds the reverse edge.
+     * Adding an existing edge or a self-loop does nothing.
+     *
+     * @param source the source vertex id
+     * @param dest   the destination vertex id
+     * @param weight the weight of the edge
+     */
+    public void addEdge(int source, int dest, double weight) {
+        int s = index(source);
+        int d = index(dest);
+        if (s == d || position(s, d) != -1) return;
+
+        append(s, d, weight);
+        if (undirected) append(d, s, weight);
+    }
+
+    /**
+     * Returns the position of the edge from index {@code s} to index {@code d}
+     * in the adjacency of {@code s}, or {@code -1} if there is none.
+     */
+    private int position(int s, int d) {
+        if (positions[s] != null) return positions[s].get(d);
+
+        int[] neighbors = adjacent[s];
+        for (int k = 0; k < degrees[s]; k++)
+            if (neighbors[k] == d) return k;
+        return -1;
+    }
+
+    private void append(int s, int d, double weight) {
+        int k = degrees[s];
+        if (k == adjacent[s].length) {
+            int capacity = Math.max(2, k * 2);
+            adjacent[s] = Arrays.copyOf(adjacent[s], capacity);
+            weights[s] = Arrays.copyOf(weights[s], capacity);
+        }
+
+        adjacent[s][k] = d;
+        weights[s][k] = weight;
+        degrees[s]++;
+        arcsCount++;
+
+        if (positions[s] != null) {
+            positions[s].put(d, k);
+        } else if (degrees[s] > LINEAR_SCAN_DEGREE) {
+            IntIntMap map = new IntIntMap(degrees[s] * 2);
+            for (int j = 0; j < degrees[s]; j++)
+                map.put(adjacent[s][j], j);
+            positions[s] = map;
+        }
+    }
+
+    /**
+     * Returns the number of vertices in the graph.
+     *
+     * @return the number of vertices
+     */
+    public int getVerticesCount() {
+        return verticesCount;
+    }
+
+    /**
+     * Returns the number of edges in the graph.
+     *
+     * @return the number of edges
+     */
+    public int getEdgesCount() {
+        return (undirected ? arcsCount / 2 : arcsCount);
+    }
+
+    /**
+     * Checks if the graph contains the specified vertex.
+     *
+     * @param v the vertex id
+     * @return {@code true} if the graph contains the vertex, {@code false} otherwise
+     */
+    public boolean hasVertex(int v) {
+        return indices.get(v) != -1;
+    }
+
+    /**
+     * Checks if the graph contains an edge between the specified vertices.
+     *
+     * @param source the source vertex id
+     * @param dest   the destination vertex id
+     * @return {@code true} if the edge exists, {@code false} otherwise
+     */
+    public boolean hasEdge(int source, int dest) {
+        int s = indices.get(source), d = indices.get(dest);
+        return s != -1 && d != -1 && position(s, d) != -1;
+    }
+
+    /**
+     * Returns the weight of the edge between the specified vertices.
+     *
+     * @param source the source vertex id
+     * @param dest   the destination vertex id
+     * @return the weight of the edge
+     * @throws NoSuchElementException if there is no such edge
+     */
+    public double getEdgeWeight(int source, int dest) {
+        int s = indices.get(source), d = indices.get(dest);
+        int k = (s == -1 || d == -1 ? -1 : position(s, d));
+        if (k == -1) throw new NoSuchElementException("Edge is not in the graph!");
+        return weights[s][k];
+    }
+
+    /**
+     * Returns the out-degree of the specified vertex.
+     *
+     * @param v the vertex id
+     * @return the number of edges leaving the vertex, or {@code 0} if it is not in the graph
+     */
+    public int degree(int v) {
+        int i = indices.get(v);
+        return (i == -1 ? 0 : degrees[i]);
+    }
+
+    /**
+     * Passes every neighbor of the specified vertex, with the weight of the edge
+     * leading to it, to the given visitor.
+     * Does nothing if the vertex is not in the graph.
+     *
+     * @param v       the vertex id
+     * @param visitor the visitor to call for every neighbor
+     */
+    public void forEachNeighbor(int v, IntNeighborVisitor visitor) {
+        int i = indices.get(v);
+        if (i == -1) return;
+
+        int[] neighbors = adjacent[i];
+        double[] w = weights[i];
+        for (int k = 0; k < degrees[i]; k++)
+            visitor.visit(ids[neighbors[k]], w[k]);
+    }
+
+    /**
+     * Returns the dense index of the specified vertex, in {@code [0, V)} in order of insertion.
+     *
+     * @param v the vertex id
+     * @return the index of {@code v}, or {@code -1} if the vertex is not in the graph
+     */
+    public int indexOf(int v) {
+        return indices.get(v);
+    }
+
+    /**
+     * Returns the vertex id at the given index.
+     *
+     * @param i the index
+     * @return the vertex id
+     */
+    public int vertexAt(int i) {
+        return ids[i];
+    }
+
+    int degreeAt(int i) {
+        return degrees[i];
+    }
+
+    /**
+     * Returns the neighbor indices of the vertex at index {@code i}; only the first
+     * {@link #degreeAt(int)} entries are valid.
+     */
+    int[] adjacentAt(int i) {
+        return adjacent[i];
+    }
+
+    double[] weightsAt(int i) {
+        return weights[i];
+    }
+
+    /**
+     * Builds an immutable compressed sparse row snapshot of the graph.
+     *
+     * Time complexity: O(V + E), where V is the number of vertices
+     * and E is the number of edges in the graph.
+     *
+     * @return the compact snapshot
+     */
+    public CompactGraph<Integer> toCompact() {
+        int n = verticesCount;
+        Object[] keys = new Object[n];
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            keys[i] = ids[i];
+            offsets[i + 1] = offsets[i] + degrees[i];
+        }
+
+        int[] targets = new int[offsets[n]];
+        double[] w = new double[offsets[n]];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(adjacent[i], 0, targets, offsets[i], degrees[i]);
+            System.arraycopy(weights[i], 0, w, offsets[i], degrees[i]);
+        }
+
+        return new CompactGraph<>(undirected, keys, offsets, targets, w);
+    }
+}
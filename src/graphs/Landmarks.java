@@ -0,0 +1,434 @@
+package graphs;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * The {@code Landmarks} class represents precomputed distance tables for the
+ * ALT (A*, landmarks, triangle inequality) heuristic.
+ * For every landmark {@code L} it stores the distances {@code d(L, v)} and
+ * {@code d(v, L)} of all vertices, from which the triangle inequality gives the lower bound
+ * <pre>
+ *     d(v, t) &gt;= max(d(L, t) - d(L, v), d(v, L) - d(t, L))
+ * </pre>
+ * used by {@link #heuristic()} to guide an {@link AStar} search.
+ * Good landmarks lie "behind" the source or the target, so they are chosen either
+ * by farthest selection, each landmark being the vertex farthest from those already
+ * chosen, or by avoid selection, which looks for regions the current landmarks cover badly.
+ *
+ * <p>Distances are stored as {@code float} to halve the memory of the tables; estimates
+ * widen each stored value by one ulp in the safe direction, so they stay admissible.
+ * The tables can be saved with {@link #save(Path)} and restored with {@link #load(Path, Function)}.
+ *
+ * @param <VertexData> the type of data stored in the vertices
+ */
+public class Landmarks<VertexData> {
+    private static final int MAGIC = 0x414c5431; // "ALT1"
+
+    /**
+     * The strategy used to choose landmarks.
+     */
+    public enum Selection {
+        /** Each landmark is the vertex farthest from the landmarks chosen before it. */
+        FARTHEST,
+        /** Each landmark is a leaf of a shortest path tree in the region worst covered so far. */
+        AVOID
+    }
+
+    private final Object[] keys;
+    private final Map<VertexData, Integer> indices;
+    private final int[] landmarks;
+    // distances by vertex, then landmark: fromLandmark[v * k + i] = d(landmarks[i], v)
+    private final float[] fromLandmark;
+    private final float[] toLandmark;
+
+    private Landmarks(Object[] keys, int[] landmarks, float[] fromLandmark, float[] toLandmark) {
+        this.keys = keys;
+        this.landmarks = landmarks;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+
+        this.indices = new HashMap<>(keys.length * 4 / 3 + 1);
+        for (int i = 0; i < keys.length; i++) {
+            @SuppressWarnings("unchecked")
+            VertexData key = (VertexData) keys[i];
+            indices.put(key, i);
+        }
+    }
+
+    /**
+     * Chooses {@code k} landmarks of the given weighted graph with avoid selection
+     * and computes their distance tables on the common pool.
+     *
+     * @param graph the graph
+     * @param k     the number of landmarks
+     * @param <V>   the type of data stored in the vertices
+     * @return the landmark tables
+     */
+    public static <V> Landmarks<V> build(WeightedGraph<V> graph, int k) {
+        return build(graph.toCompact(), k, Selection.AVOID, 0L, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Chooses {@code k} landmarks of the given snapshot and computes their distance tables.
+     * Selection is sequential; the {@code 2k} searches that fill the tables run in parallel.
+     *
+     * Time complexity: O(k (V + E) log V), where V is the number of vertices and E is the
+     * number of edges in the graph.
+     *
+     * @param graph     the snapshot
+     * @param k         the number of landmarks, at most the number of vertices
+     * @param selection the selection strategy
+     * @param seed      the seed of the random choices made by the selection
+     * @param pool      the pool to run the searches on
+     * @param <V>       the type of data stored in the vertices
+     * @return the landmark tables
+     * @throws IllegalArgumentException if {@code k} is not positive
+     */
+    public static <V> Landmarks<V> build(CompactGraph<V> graph, int k, Selection selection, long seed,
+                                         ForkJoinPool pool) {
+        if (k <= 0) throw new IllegalArgumentException("Number of landmarks must be positive!");
+        k = Math.min(k, graph.getVerticesCount());
+
+        // the selections search from every landmark they choose; their distances fill the forward table
+        List<double[]> fromChosen = new ArrayList<>();
+        int[] chosen;
+        if (k == 0) chosen = new int[0];
+        else if (selection == Selection.FARTHEST) chosen = farthest(graph, k, new Random(seed), fromChosen);
+        else chosen = avoid(graph, k, new Random(seed), fromChosen);
+
+        return compute(graph, chosen, fromChosen, pool);
+    }
+
+    /**
+     * Computes the distance tables of the given landmarks.
+     *
+     * @param graph     the snapshot
+     * @param landmarks the landmark vertices
+     * @param pool      the pool to run the searches on
+     * @param <V>       the type of data stored in the vertices
+     * @return the landmark tables
+     * @throws IllegalArgumentException if a landmark is not in the snapshot
+     */
+    public static <V> Landmarks<V> of(CompactGraph<V> graph, List<V> landmarks, ForkJoinPool pool) {
+        int[] chosen = new int[landmarks.size()];
+        for (int i = 0; i < chosen.length; i++) {
+            chosen[i] = graph.indexOf(landmarks.get(i));
+            if (chosen[i] == -1) throw new IllegalArgumentException("Landmark is not in the graph!");
+        }
+
+        return compute(graph, chosen, List.of(), pool);
+    }
+
+    /**
+     * Computes the distance tables of the given landmarks.
+     *
+     * @param fromChosen the distances from the first landmarks, already computed by the selection
+     */
+    private static <V> Landmarks<V> compute(CompactGraph<V> graph, int[] chosen, List<double[]> fromChosen,
+                                            ForkJoinPool pool) {
+        int n = graph.getVerticesCount(), k = chosen.length, known = fromChosen.size();
+        float[] from = new float[n * k];
+        float[] to = new float[n * k];
+        CompactGraph<V> reverse = graph.reverse();
+
+        // searches 0..k-1 fill the forward table, k..2k-1 the backward one
+        ParallelFor.run(pool, 0, 2 * k, 1, (lo, hi) -> {
+            for (int j = lo; j < hi; j++) {
+                int i = j % k;
+                boolean forward = (j < k);
+                double[] distances;
+                if (forward && i < known) distances = fromChosen.get(i);
+                else distances = distances(forward ? graph : reverse, chosen[i]);
+                float[] table = (forward ? from : to);
+                for (int v = 0; v < n; v++)
+                    table[v * k + i] = toFloat(distances[v]);
+            }
+        });
+
+        Object[] keys = new Object[n];
+        for (int i = 0; i < n; i++)
+            keys[i] = graph.vertexAt(i);
+
+        return new Landmarks<>(keys, chosen.clone(), from, to);
+    }
+
+    private static float toFloat(double d) {
+        return (d == Double.MAX_VALUE ? Float.POSITIVE_INFINITY : (float) d);
+    }
+
+    private static <V> Dijkstra<V> search(CompactGraph<V> graph, int source) {
+        return new Dijkstra<>(graph, graph.vertexAt(source));
+    }
+
+    private static double[] distances(CompactGraph<?> graph, int source) {
+        return search(graph, source).distancesById();
+    }
+
+    /**
+     * Farthest selection: starting from a random vertex, repeatedly picks the vertex whose
+     * distance to the nearest chosen landmark is largest, preferring unreached vertices
+     * so that every component gets a landmark. The distances from every chosen landmark
+     * are added to {@code fromChosen}.
+     */
+    private static int[] farthest(CompactGraph<?> graph, int k, Random random, List<double[]> fromChosen) {
+        int n = graph.getVerticesCount();
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.MAX_VALUE);
+
+        int[] chosen = new int[k];
+        int next = random.nextInt(n);
+        for (int i = 0; i < k; i++) {
+            chosen[i] = next;
+            double[] d = distances(graph, next);
+            fromChosen.add(d);
+
+            next = -1;
+            for (int v = 0; v < n; v++) {
+                nearest[v] = Math.min(nearest[v], d[v]);
+                if (nearest[v] > 0 && (next == -1 || nearest[v] > nearest[next])) next = v;
+            }
+            if (next == -1) return Arrays.copyOf(chosen, i + 1);
+        }
+
+        return chosen;
+    }
+
+    /**
+     * Avoid selection (Goldberg and Werneck): grows a shortest path tree from a random root,
+     * weights every vertex by how much the current landmarks underestimate its distance from
+     * the root, and descends from the heaviest subtree that contains no landmark, always
+     * into its heaviest child. The leaf reached becomes the next landmark. The distances
+     * from every chosen landmark are added to {@code fromChosen}.
+     */
+    private static int[] avoid(CompactGraph<?> graph, int k, Random random, List<double[]> fromChosen) {
+        int n = graph.getVerticesCount();
+        IntList chosen = new IntList(k);
+        boolean[] isLandmark = new boolean[n];
+        double[] size = new double[n];
+        int[] offsets = new int[n + 1];
+        int[] children = new int[n];
+        int[] order = new int[n];
+
+        for (int attempt = 0; chosen.size() < k && attempt < 4 * k; attempt++) {
+            int root = random.nextInt(n);
+            Dijkstra<?> tree = search(graph, root);
+            double[] d = tree.distancesById();
+            int[] parent = tree.edgeToIds;
+
+            // children lists in compressed form
+            Arrays.fill(offsets, 0);
+            for (int v = 0; v < n; v++)
+                if (parent[v] != -1) offsets[parent[v] + 1]++;
+            for (int v = 0; v < n; v++)
+                offsets[v + 1] += offsets[v];
+            int[] next = Arrays.copyOf(offsets, n);
+            for (int v = 0; v < n; v++)
+                if (parent[v] != -1) children[next[parent[v]]++] = v;
+
+            // the tree in breadth-first order, so that every vertex comes after its parent
+            // even when a zero-weight edge gives them the same distance
+            int reached = 0;
+            order[reached++] = root;
+            for (int head = 0; head < reached; head++) {
+                int v = order[head];
+                for (int c = offsets[v]; c < offsets[v + 1]; c++)
+                    order[reached++] = children[c];
+            }
+
+            Arrays.fill(size, 0);
+            for (int j = 0; j < reached; j++) {
+                int v = order[j];
+                double bound = 0;
+                for (double[] l : fromChosen) {
+                    if (l[root] != Double.MAX_VALUE && l[v] != Double.MAX_VALUE)
+                        bound = Math.max(bound, l[v] - l[root]);
+                }
+                size[v] = Math.max(d[v] - bound, 0);
+            }
+
+            // size = weight of the subtree, accumulated from the leaves up
+            boolean[] covered = new boolean[n];
+            for (int j = reached - 1; j >= 0; j--) {
+                int v = order[j];
+                if (isLandmark[v]) covered[v] = true;
+                if (covered[v]) size[v] = 0;
+
+                int p = parent[v];
+                if (p != -1) {
+                    size[p] += size[v];
+                    covered[p] |= covered[v];
+                }
+            }
+
+            int start = root;
+            for (int v = 0; v < n; v++)
+                if (size[v] > size[start]) start = v;
+            if (size[start] == 0) continue;
+
+            int best = descend(start, offsets, children, size);
+            if (isLandmark[best]) continue;
+            isLandmark[best] = true;
+            chosen.add(best);
+            fromChosen.add(distances(graph, best));
+        }
+
+        // fall back to farthest selection if the tree walk kept finding covered regions
+        if (chosen.size() < k) {
+            List<double[]> fromExtra = new ArrayList<>();
+            int[] extra = farthest(graph, k, random, fromExtra);
+            for (int i = 0; i < extra.length && chosen.size() < k; i++) {
+                int v = extra[i];
+                if (!isLandmark[v]) {
+                    isLandmark[v] = true;
+                    chosen.add(v);
+                    fromChosen.add(fromExtra.get(i));
+                }
+            }
+        }
+
+        return chosen.toArray();
+    }
+
+    /**
+     * Walks down the tree from {@code start}, always to the child with the largest size,
+     * and returns the leaf reached.
+     */
+    private static int descend(int start, int[] offsets, int[] children, double[] size) {
+        int v = start;
+        while (true) {
+            int best = -1;
+            for (int c = offsets[v]; c < offsets[v + 1]; c++) {
+                int w = children[c];
+                if (size[w] > 0 && (best == -1 || size[w] > size[best])) best = w;
+            }
+            if (best == -1) return v;
+            v = best;
+        }
+    }
+
+    /**
+     * Returns the number of landmarks.
+     *
+     * @return the number of landmarks
+     */
+    public int size() {
+        return landmarks.length;
+    }
+
+    /**
+     * Returns the landmark vertices.
+     *
+     * @return the landmarks, in order of selection
+     */
+    public List<VertexData> getLandmarks() {
+        List<VertexData> list = new ArrayList<>(landmarks.length);
+        for (int l : landmarks)
+            list.add(vertexAt(l));
+        return list;
+    }
+
+    @SuppressWarnings("unchecked")
+    private VertexData vertexAt(int i) {
+        return (VertexData) keys[i];
+    }
+
+    /**
+     * Returns a lower bound on the length of the shortest path between two vertices.
+     *
+     * @param v      the vertex
+     * @param target the target vertex
+     * @return the lower bound, or {@code 0} if either vertex is unknown
+     */
+    public double estimate(VertexData v, VertexData target) {
+        Integer i = indices.get(v), t = indices.get(target);
+        if (i == null || t == null) return 0;
+        return estimate(i, t);
+    }
+
+    private double estimate(int v, int t) {
+        int k = landmarks.length;
+        double best = 0;
+
+        for (int i = 0; i < k; i++) {
+            // d(v, t) >= d(L, t) - d(L, v)
+            double forward = (double) Math.nextDown(fromLandmark[t * k + i]) - Math.nextUp(fromLandmark[v * k + i]);
+            // d(v, t) >= d(v, L) - d(t, L)
+            double backward = (double) Math.nextDown(toLandmark[v * k + i]) - Math.nextUp(toLandmark[t * k + i]);
+
+            if (forward > best) best = forward;
+            if (backward > best) best = backward;
+        }
+
+        return best;
+    }
+
+    /**
+     * Returns the landmark lower bound as a heuristic for {@link AStar}.
+     *
+     * @return the ALT heuristic
+     */
+    public Heuristic<VertexData> heuristic() {
+        return this::estimate;
+    }
+
+    /**
+     * Saves the landmark tables to a file. Vertex data is stored as {@code String.valueOf(v)}.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(keys.length);
+            out.writeInt(landmarks.length);
+
+            for (Object key : keys)
+                out.writeUTF(String.valueOf(key));
+            for (int l : landmarks)
+                out.writeInt(l);
+            for (float d : fromLandmark)
+                out.writeFloat(d);
+            for (float d : toLandmark)
+                out.writeFloat(d);
+        }
+    }
+
+    /**
+     * Loads landmark tables saved with {@link #save(Path)}.
+     *
+     * @param file      the file to read
+     * @param keyParser converts the stored text of a vertex back to its data
+     * @param <V>       the type of data stored in the vertices
+     * @return the landmark tables
+     * @throws IOException if the file cannot be read or does not hold landmark tables
+     */
+    public static <V> Landmarks<V> load(Path file, Function<String, V> keyParser) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a landmarks file: " + file);
+
+            int n = in.readInt();
+            int k = in.readInt();
+            Object[] keys = new Object[n];
+            for (int i = 0; i < n; i++)
+                keys[i] = keyParser.apply(in.readUTF());
+
+            int[] landmarks = new int[k];
+            for (int i = 0; i < k; i++)
+                landmarks[i] = in.readInt();
+
+            float[] from = new float[n * k], to = new float[n * k];
+            for (int i = 0; i < from.length; i++)
+                from[i] = in.readFloat();
+            for (int i = 0; i < to.length; i++)
+                to[i] = in.readFloat();
+
+            return new Landmarks<>(keys, landmarks, from, to);
+        }
+    }
+}
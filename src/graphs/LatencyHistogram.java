@@ -0,0 +1,128 @@
+package graphs;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code LatencyHistogram} class represents a concurrent histogram of non-negative
+ * {@code long} values, such as latencies in nanoseconds, in the style of HdrHistogram.
+ * Values below {@code 256} are counted exactly; larger values fall into buckets of 128
+ * linear sub-buckets per power of two, so every recorded value is known to within 1%
+ * with a fixed footprint of about 57 KB whatever the range.
+ *
+ * <p>Recording is wait-free apart from the update of the maximum and may run concurrently
+ * with reads, which then see a consistent value per bucket but not across buckets.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 7;
+    private static final int SUB_HALF = 1 << SUB_BITS;                // 128
+    private static final int BUCKETS = Long.SIZE - SUB_BITS - 1;     // 56
+
+    private final AtomicLongArray counts = new AtomicLongArray((BUCKETS + 1) * SUB_HALF);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one value. Negative values are recorded as {@code 0}.
+     *
+     * @param value the value to record
+     */
+    public void record(long value) {
+        value = Math.max(value, 0);
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+
+        long m;
+        while (value > (m = max.get()) && !max.compareAndSet(m, value)) {
+        }
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the number of values
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return the largest value, or {@code 0} if nothing was recorded
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return the mean, or {@code 0} if nothing was recorded
+     */
+    public double mean() {
+        long n = count.sum();
+        return (n == 0 ? 0 : sum.sum() / (double) n);
+    }
+
+    /**
+     * Returns the value below which the given percentage of the recorded values fall,
+     * rounded up to the largest value of its bucket and capped at {@link #max()}.
+     *
+     * Time complexity: O(1), as the number of buckets is fixed.
+     *
+     * @param percentile the percentage, in {@code [0, 100]}
+     * @return the value at the percentile, or {@code 0} if nothing was recorded
+     * @throws IllegalArgumentException if {@code percentile} is outside {@code [0, 100]}
+     */
+    public long percentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100))
+            throw new IllegalArgumentException("Percentile must be between 0 and 100!");
+
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++)
+            total += counts.get(i);
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(highestEquivalent(i), max.get());
+        }
+        return max.get();
+    }
+
+    /**
+     * Forgets every recorded value. Values recorded concurrently may be partly kept.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++)
+            counts.set(i, 0);
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    /**
+     * Returns the bucket of a value: bucket {@code b} holds {@code 2 * SUB_HALF} values
+     * for {@code b = 0} and {@code SUB_HALF} values of width {@code 2^b} above them otherwise.
+     */
+    private static int indexOf(long value) {
+        int bucket = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BITS - 1);
+        int sub = (int) (value >>> bucket);
+        return (bucket == 0 ? sub : bucket * SUB_HALF + sub);
+    }
+
+    private static long highestEquivalent(int index) {
+        if (index < 2 * SUB_HALF) return index;
+
+        int bucket = index / SUB_HALF - 1;
+        long sub = index - bucket * SUB_HALF;
+        long highest = ((sub + 1) << bucket) - 1;
+        return (highest < 0 ? Long.MAX_VALUE : highest);
+    }
+}
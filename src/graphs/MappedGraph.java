@@ -0,0 +1,218 @@
+package graphs;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * The {@code MappedGraph} class represents a read-only graph backed by a memory-mapped
+ * {@link GraphFile}. Nothing is deserialized when the file is opened: offsets, targets
+ * and weights are read from the mapping as edges are traversed, so the operating system
+ * only pages in the parts of the file that are used.
+ *
+ * <p>Like {@link CompactGraph}, every vertex has a dense index in {@code [0, V)}, and the
+ * index-based methods never touch vertex data. Vertex data is parsed on first use and
+ * cached, and the map from vertex data to index is only built the first time a vertex
+ * is looked up by its data.
+ *
+ * @param <VertexData> the type of data stored in the vertices
+ */
+public class MappedGraph<VertexData> implements GraphView<VertexData> {
+    private final boolean undirected;
+    private final int verticesCount;
+    private final int edgesCount;
+    private final IntBuffer keyOffsets;
+    private final ByteBuffer keyBytes;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final DoubleBuffer weights;
+    private final Function<String, VertexData> keyParser;
+
+    // parsed vertex data by index, published safely to other threads;
+    // a racing parse yields an equal value, so no locking is needed
+    private final AtomicReferenceArray<Object> keys;
+    private volatile Map<VertexData, Integer> indices;
+
+    MappedGraph(boolean undirected, int verticesCount, int edgesCount, IntBuffer keyOffsets, ByteBuffer keyBytes,
+                IntBuffer offsets, IntBuffer targets, DoubleBuffer weights, Function<String, VertexData> keyParser) {
+        this.undirected = undirected;
+        this.verticesCount = verticesCount;
+        this.edgesCount = edgesCount;
+        this.keyOffsets = keyOffsets;
+        this.keyBytes = keyBytes;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.keyParser = keyParser;
+        this.keys = new AtomicReferenceArray<>(verticesCount);
+    }
+
+    /**
+     * Returns whether the graph is undirected.
+     *
+     * @return {@code true} if the graph is undirected, {@code false} if directed
+     */
+    public boolean isUndirected() {
+        return undirected;
+    }
+
+    /**
+     * Returns the number of vertices in the graph.
+     *
+     * @return the number of vertices
+     */
+    @Override
+    public int getVerticesCount() {
+        return verticesCount;
+    }
+
+    /**
+     * Returns the number of edges in the graph.
+     *
+     * @return the number of edges
+     */
+    public int getEdgesCount() {
+        return (undirected ? edgesCount / 2 : edgesCount);
+    }
+
+    /**
+     * Checks if the graph contains the specified vertex.
+     *
+     * @param v the vertex data
+     * @return {@code true} if the graph contains the vertex, {@code false} otherwise
+     */
+    @Override
+    public boolean hasVertex(VertexData v) {
+        return indexOf(v) != -1;
+    }
+
+    /**
+     * Returns the dense index of the specified vertex.
+     * The first call parses every key of the file.
+     *
+     * @param v the vertex data
+     * @return the index of {@code v}, or {@code -1} if the vertex is not in the graph
+     */
+    public int indexOf(VertexData v) {
+        Integer i = indices().get(v);
+        return (i == null ? -1 : i);
+    }
+
+    private Map<VertexData, Integer> indices() {
+        Map<VertexData, Integer> map = indices;
+        if (map != null) return map;
+
+        synchronized (this) {
+            if (indices == null) {
+                map = new HashMap<>(verticesCount * 4 / 3 + 1);
+                for (int i = 0; i < verticesCount; i++)
+                    map.put(vertexAt(i), i);
+                indices = map;
+            }
+            return indices;
+        }
+    }
+
+    /**
+     * Returns the vertex data at the given index.
+     *
+     * @param i the index
+     * @return the vertex data
+     */
+    @SuppressWarnings("unchecked")
+    public VertexData vertexAt(int i) {
+        Object key = keys.get(i);
+        if (key == null) {
+            int start = keyOffsets.get(i), end = keyOffsets.get(i + 1);
+            byte[] bytes = new byte[end - start];
+            keyBytes.get(start, bytes);
+            key = keyParser.apply(new String(bytes, StandardCharsets.UTF_8));
+            keys.set(i, key);
+        }
+        return (VertexData) key;
+    }
+
+    /**
+     * Returns the out-degree of the vertex at the given index.
+     *
+     * @param i the index
+     * @return the number of edges leaving the vertex
+     */
+    public int degree(int i) {
+        return offsets.get(i + 1) - offsets.get(i);
+    }
+
+    /**
+     * Returns the position of the first edge leaving the vertex at the given index.
+     * The edges of vertex {@code i} are at positions {@code [edgeStart(i), edgeStart(i + 1))}.
+     *
+     * @param i the index, in {@code [0, V]}
+     * @return the position of the first edge
+     */
+    public int edgeStart(int i) {
+        return offsets.get(i);
+    }
+
+    /**
+     * Returns the destination index of the edge at the given position.
+     *
+     * @param e the edge position
+     * @return the index of the destination vertex
+     */
+    public int target(int e) {
+        return targets.get(e);
+    }
+
+    /**
+     * Returns the weight of the edge at the given position.
+     *
+     * @param e the edge position
+     * @return the weight of the edge
+     */
+    public double weight(int e) {
+        return weights.get(e);
+    }
+
+    /**
+     * Passes every neighbor of the specified vertex, with the weight of the edge
+     * leading to it, to the given visitor.
+     *
+     * @param v       the vertex data
+     * @param visitor the visitor to call for every neighbor
+     */
+    @Override
+    public void forEachNeighbor(VertexData v, NeighborVisitor<VertexData> visitor) {
+        int i = indexOf(v);
+        if (i == -1) return;
+
+        int end = offsets.get(i + 1);
+        for (int e = offsets.get(i); e < end; e++)
+            visitor.visit(vertexAt(targets.get(e)), weights.get(e));
+    }
+
+    /**
+     * Copies the graph into an on-heap {@link CompactGraph}, for algorithms that need one.
+     *
+     * Time complexity: O(V + E), where V is the number of vertices and E is the number of edges.
+     *
+     * @return the snapshot
+     */
+    public CompactGraph<VertexData> toCompact() {
+        Object[] data = new Object[verticesCount];
+        for (int i = 0; i < verticesCount; i++)
+            data[i] = vertexAt(i);
+
+        int[] o = new int[verticesCount + 1];
+        int[] t = new int[edgesCount];
+        double[] w = new double[edgesCount];
+        offsets.get(0, o);
+        targets.get(0, t);
+        weights.get(0, w);
+
+        return new CompactGraph<>(undirected, data, o, t, w);
+    }
+}
@@ -0,0 +1,315 @@
+package graphs;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * The {@code Metrics} class collects opt-in counters about the searches run and the
+ * graphs built in this process.
+ *
+ * <p>While metrics are disabled, which is the default, a search only reads one volatile
+ * flag when it starts and another when it ends, and an added edge or vertex reads one.
+ * Once enabled with {@link #setEnabled(boolean)}, every {@link Search} records, per class:
+ * the number of queries, vertices settled, edges relaxed (scanned), heap operations,
+ * the high-water mark of its queue or stack, the bytes allocated by the calling thread
+ * (not by the pool threads of a parallel search), and its latency in a {@link LatencyHistogram}. {@link MyGraph} and {@link WeightedGraph}
+ * count their added vertices and edges.
+ *
+ * <p>The counters are read with {@link #snapshot()}, or through JMX once
+ * {@link #registerMBean()} has been called, under the name {@value #OBJECT_NAME}.
+ */
+public final class Metrics {
+    /**
+     * The JMX name under which {@link #registerMBean()} registers the counters.
+     */
+    public static final String OBJECT_NAME = "graphs:type=Metrics";
+
+    /**
+     * The counters of one kind of search.
+     *
+     * @param queries        the number of searches run
+     * @param settled        the number of vertices settled or visited, over all searches
+     * @param relaxed        the number of edges relaxed or scanned, over all searches
+     * @param heapOperations the number of priority queue inserts, key changes and removals
+     * @param queuePeak      the largest queue, frontier or stack held by one search
+     * @param allocatedBytes the bytes allocated by the thread that started each search; what the
+     *                       pool threads of a parallel search allocate is not counted
+     * @param meanNanos      the mean latency
+     * @param p50Nanos       the median latency
+     * @param p99Nanos       the 99th percentile of the latency
+     * @param p999Nanos      the 99.9th percentile of the latency
+     * @param maxNanos       the largest latency
+     */
+    public record QueryStats(long queries, long settled, long relaxed, long heapOperations, long queuePeak,
+                             long allocatedBytes, double meanNanos, long p50Nanos, long p99Nanos,
+                             long p999Nanos, long maxNanos) {
+
+        @Override
+        public String toString() {
+            return String.format("%d queries, %.1f settled/query, %.1f relaxed/query, %.1f heap ops/query, "
+                            + "queue peak %d, %.0f bytes/query, latency mean %.1f us, p50 %.1f us, p99 %.1f us, "
+                            + "p99.9 %.1f us, max %.1f us",
+                    queries, perQuery(settled), perQuery(relaxed), perQuery(heapOperations), queuePeak,
+                    perQuery(allocatedBytes), meanNanos / 1e3, p50Nanos / 1e3, p99Nanos / 1e3,
+                    p999Nanos / 1e3, maxNanos / 1e3);
+        }
+
+        private double perQuery(long total) {
+            return (queries == 0 ? 0 : total / (double) queries);
+        }
+    }
+
+    /**
+     * The counters at one point in time.
+     *
+     * @param searches      the counters of every kind of search that ran, by class name
+     * @param addedVertices the number of vertices added to graphs
+     * @param addedEdges    the number of edges added to graphs
+     * @param elapsedNanos  the time since the counters were last reset
+     */
+    public record Snapshot(Map<String, QueryStats> searches, long addedVertices, long addedEdges, long elapsedNanos) {
+
+        /**
+         * Returns the rate at which edges were added since the counters were last reset.
+         *
+         * @return the added edges per second
+         */
+        public double addedEdgesPerSecond() {
+            return (elapsedNanos == 0 ? 0 : addedEdges * 1e9 / elapsedNanos);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%d vertices, %d edges added (%.0f edges/s)%n",
+                    addedVertices, addedEdges, addedEdgesPerSecond()));
+            searches.forEach((name, stats) -> sb.append(name).append(": ").append(stats).append(System.lineSeparator()));
+            return sb.toString();
+        }
+    }
+
+    private static final Map<String, Counters> SEARCHES = new ConcurrentHashMap<>();
+    private static final LongAdder ADDED_VERTICES = new LongAdder();
+    private static final LongAdder ADDED_EDGES = new LongAdder();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static volatile boolean enabled;
+    private static volatile long resetAt = System.nanoTime();
+
+    private Metrics() {
+    }
+
+    /**
+     * Returns whether metrics are being collected.
+     *
+     * @return {@code true} if enabled, {@code false} otherwise
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts or stops collecting metrics. Searches already running when metrics are
+     * enabled are not counted. Enabling does not reset the counters.
+     *
+     * @param enabled {@code true} to collect metrics, {@code false} to stop
+     */
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * Sets every counter back to zero and restarts the clock of the rates.
+     */
+    public static void reset() {
+        SEARCHES.clear();
+        ADDED_VERTICES.reset();
+        ADDED_EDGES.reset();
+        resetAt = System.nanoTime();
+    }
+
+    /**
+     * Returns the current value of every counter. Counters updated concurrently
+     * may be read at slightly different moments.
+     *
+     * @return the snapshot of the counters
+     */
+    public static Snapshot snapshot() {
+        Map<String, QueryStats> searches = new TreeMap<>();
+        SEARCHES.forEach((name, counters) -> searches.put(name, counters.snapshot()));
+        return new Snapshot(Collections.unmodifiableMap(searches), ADDED_VERTICES.sum(), ADDED_EDGES.sum(),
+                System.nanoTime() - resetAt);
+    }
+
+    /**
+     * Registers the counters with the platform MBean server under {@value #OBJECT_NAME},
+     * unless they are registered already.
+     *
+     * @return the name of the MBean
+     * @throws IllegalStateException if the MBean cannot be registered
+     */
+    public static synchronized ObjectName registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) server.registerMBean(new Bean(), name);
+            return name;
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register the metrics MBean!", e);
+        }
+    }
+
+    /**
+     * Starts measuring a search.
+     *
+     * @return the probe to stop when the search ends, or {@code null} if metrics are disabled
+     */
+    static Probe start() {
+        return (enabled ? new Probe() : null);
+    }
+
+    static void vertexAdded() {
+        if (enabled) ADDED_VERTICES.increment();
+    }
+
+    static void edgeAdded() {
+        if (enabled) ADDED_EDGES.increment();
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemoryEnabled())
+            return threads.getCurrentThreadAllocatedBytes();
+        return 0;
+    }
+
+    /**
+     * Measures one search, from its creation to {@link #stop}.
+     */
+    static final class Probe {
+        private final long started = System.nanoTime();
+        private final long allocated = allocatedBytes();
+
+        void stop(String name, long settled, long relaxed, long queuePeak, long heapOperations) {
+            long nanos = System.nanoTime() - started;
+            long bytes = allocatedBytes() - allocated;
+            if (!enabled) return;
+
+            Counters counters = SEARCHES.computeIfAbsent(name, k -> new Counters());
+            counters.queries.increment();
+            counters.settled.add(settled);
+            counters.relaxed.add(relaxed);
+            counters.heapOperations.add(heapOperations);
+            counters.queuePeak.accumulate(queuePeak);
+            counters.allocated.add(bytes);
+            counters.latency.record(nanos);
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder queries = new LongAdder();
+        private final LongAdder settled = new LongAdder();
+        private final LongAdder relaxed = new LongAdder();
+        private final LongAdder heapOperations = new LongAdder();
+        private final LongAccumulator queuePeak = new LongAccumulator(Math::max, 0);
+        private final LongAdder allocated = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        QueryStats snapshot() {
+            return new QueryStats(queries.sum(), settled.sum(), relaxed.sum(), heapOperations.sum(),
+                    queuePeak.get(), allocated.sum(), latency.mean(), latency.percentile(50),
+                    latency.percentile(99), latency.percentile(99.9), latency.max());
+        }
+    }
+
+    private static final class Bean implements MetricsMXBean {
+
+        @Override
+        public boolean isEnabled() {
+            return Metrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            Metrics.setEnabled(enabled);
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+
+        @Override
+        public long getAddedVertices() {
+            return ADDED_VERTICES.sum();
+        }
+
+        @Override
+        public long getAddedEdges() {
+            return ADDED_EDGES.sum();
+        }
+
+        @Override
+        public double getAddedEdgesPerSecond() {
+            return snapshot().addedEdgesPerSecond();
+        }
+
+        @Override
+        public Map<String, Long> getQueries() {
+            return collect(QueryStats::queries);
+        }
+
+        @Override
+        public Map<String, Long> getSettled() {
+            return collect(QueryStats::settled);
+        }
+
+        @Override
+        public Map<String, Long> getRelaxed() {
+            return collect(QueryStats::relaxed);
+        }
+
+        @Override
+        public Map<String, Long> getHeapOperations() {
+            return collect(QueryStats::heapOperations);
+        }
+
+        @Override
+        public Map<String, Long> getQueuePeak() {
+            return collect(QueryStats::queuePeak);
+        }
+
+        @Override
+        public Map<String, Long> getAllocatedBytes() {
+            return collect(QueryStats::allocatedBytes);
+        }
+
+        @Override
+        public Map<String, Long> getLatencyP50Nanos() {
+            return collect(QueryStats::p50Nanos);
+        }
+
+        @Override
+        public Map<String, Long> getLatencyP99Nanos() {
+            return collect(QueryStats::p99Nanos);
+        }
+
+        @Override
+        public Map<String, Long> getLatencyMaxNanos() {
+            return collect(QueryStats::maxNanos);
+        }
+
+        private static Map<String, Long> collect(ToLongFunction<QueryStats> counter) {
+            Map<String, Long> values = new TreeMap<>();
+            snapshot().searches().forEach((name, stats) -> values.put(name, counter.applyAsLong(stats)));
+            return values;
+        }
+    }
+}
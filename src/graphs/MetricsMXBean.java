@@ -0,0 +1,114 @@
+package graphs;
+
+import java.util.Map;
+
+/**
+ * The {@code MetricsMXBean} interface represents the JMX view of {@link Metrics}.
+ * Per-search counters are maps from the class name of the search to the counter.
+ */
+public interface MetricsMXBean {
+
+    /**
+     * Returns whether metrics are being collected.
+     *
+     * @return {@code true} if enabled, {@code false} otherwise
+     */
+    boolean isEnabled();
+
+    /**
+     * Starts or stops collecting metrics.
+     *
+     * @param enabled {@code true} to collect metrics, {@code false} to stop
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Sets every counter back to zero.
+     */
+    void reset();
+
+    /**
+     * Returns the number of vertices added to graphs.
+     *
+     * @return the number of added vertices
+     */
+    long getAddedVertices();
+
+    /**
+     * Returns the number of edges added to graphs.
+     *
+     * @return the number of added edges
+     */
+    long getAddedEdges();
+
+    /**
+     * Returns the rate at which edges were added since the counters were last reset.
+     *
+     * @return the added edges per second
+     */
+    double getAddedEdgesPerSecond();
+
+    /**
+     * Returns the number of searches run.
+     *
+     * @return the queries by search class
+     */
+    Map<String, Long> getQueries();
+
+    /**
+     * Returns the number of vertices settled, over all searches.
+     *
+     * @return the settled vertices by search class
+     */
+    Map<String, Long> getSettled();
+
+    /**
+     * Returns the number of edges relaxed, over all searches.
+     *
+     * @return the relaxed edges by search class
+     */
+    Map<String, Long> getRelaxed();
+
+    /**
+     * Returns the number of priority queue operations, over all searches.
+     *
+     * @return the heap operations by search class
+     */
+    Map<String, Long> getHeapOperations();
+
+    /**
+     * Returns the largest queue held by one search.
+     *
+     * @return the queue high-water mark by search class
+     */
+    Map<String, Long> getQueuePeak();
+
+    /**
+     * Returns the bytes allocated by the threads that started the searches,
+     * not counting what the pool threads of parallel searches allocated.
+     *
+     * @return the allocated bytes by search class
+     */
+    Map<String, Long> getAllocatedBytes();
+
+    /**
+     * Returns the median latency.
+     *
+     * @return the median latency in nanoseconds by search class
+     */
+    Map<String, Long> getLatencyP50Nanos();
+
+    /**
+     * Returns the 99th percentile of the latency.
+     *
+     * @return the 99th percentile in nanoseconds by search class
+     */
+    Map<String, Long> getLatencyP99Nanos();
+
+    /**
+     * Returns the largest latency.
+     *
+     * @return the largest latency in nanoseconds by search class
+     */
+    Map<String, Long> getLatencyMaxNanos();
+}
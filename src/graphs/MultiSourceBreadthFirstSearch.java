@@ -0,0 +1,249 @@
+package graphs;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The {@code MultiSourceBreadthFirstSearch} class represents a data type for
+ * computing the hop distances from many sources at once, in the style of the
+ * MS-BFS algorithm of Then et al.
+ *
+ * <p>The sources are processed in batches of up to 64. Within a batch, every vertex keeps
+ * three {@code long} bitmasks with one bit per source: the sources that have seen it, the
+ * sources whose frontier contains it, and the sources whose next frontier will contain it.
+ * One pass over the edges of the frontier therefore advances all 64 searches by one level,
+ * and a vertex shared by the frontiers of several sources is expanded once instead of once
+ * per source. The frontier is kept as a list of vertices, so levels with few vertices,
+ * as in graphs of large diameter, stay cheap. Batches run in parallel on a {@link ForkJoinPool}.
+ * Sharing pays off when the searches overlap, as in small-world graphs; on road-like graphs
+ * with sources far apart it saves little over separate searches.
+ *
+ * <p>The search follows the edges leaving every vertex, as {@link BreadthFirstSearch} does,
+ * and keeps the hop distance from every source to every vertex: S * V {@code int}s in total.
+ *
+ * @param <VertexData> the type of data stored in the vertices
+ */
+public class MultiSourceBreadthFirstSearch<VertexData> {
+    /**
+     * The number of sources searched together in one pass, one per bit of a {@code long}.
+     */
+    public static final int BATCH = Long.SIZE;
+
+    private final CompactGraph<VertexData> graph;
+    private final List<VertexData> sources;
+    private final int[][] distances;
+    private final int[] eccentricities;
+    private final int[] reached;
+    private final long[] distanceSums;
+
+    /**
+     * Runs the searches from the given sources in an unweighted graph, on the common pool.
+     *
+     * @param graph   the graph to search
+     * @param sources the source vertices
+     * @throws IllegalArgumentException if a source is not in the graph
+     */
+    public MultiSourceBreadthFirstSearch(MyGraph<VertexData> graph, List<VertexData> sources) {
+        this(graph.toCompact(), sources, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs the searches from the given sources in a compact snapshot, on the common pool.
+     *
+     * @param graph   the snapshot to search
+     * @param sources the source vertices
+     * @throws IllegalArgumentException if a source is not in the graph
+     */
+    public MultiSourceBreadthFirstSearch(CompactGraph<VertexData> graph, List<VertexData> sources) {
+        this(graph, sources, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs the searches from the given sources in a compact snapshot, on the given pool.
+     *
+     * Time complexity: O(S * (V + E)) in the worst case, where S is the number of sources,
+     * V the number of vertices and E the number of edges in the graph; but a vertex reached
+     * at the same level by several sources of a batch is expanded only once.
+     *
+     * @param graph   the snapshot to search
+     * @param sources the source vertices
+     * @param pool    the pool to run the batches on
+     * @throws IllegalArgumentException if a source is not in the graph
+     */
+    public MultiSourceBreadthFirstSearch(CompactGraph<VertexData> graph, List<VertexData> sources, ForkJoinPool pool) {
+        int s = sources.size();
+        int[] indices = new int[s];
+        for (int i = 0; i < s; i++) {
+            indices[i] = graph.indexOf(sources.get(i));
+            if (indices[i] == -1)
+                throw new IllegalArgumentException("Source vertex is not in the graph!");
+        }
+
+        this.graph = graph;
+        this.sources = List.copyOf(sources);
+        distances = new int[s][];
+        eccentricities = new int[s];
+        reached = new int[s];
+        distanceSums = new long[s];
+
+        int batches = (s + BATCH - 1) / BATCH;
+        ParallelFor.run(pool, 0, batches, 1, (from, to) -> {
+            Masks masks = new Masks(graph.getVerticesCount());
+            for (int b = from; b < to; b++) {
+                int first = b * BATCH;
+                search(masks, indices, first, Math.min(s, first + BATCH));
+            }
+        });
+    }
+
+    /**
+     * The bitmasks of one batch, with the vertices of the current frontier and the vertices
+     * reached by the next one, reused by the batches run by one task.
+     */
+    private static final class Masks {
+        private final long[] seen;
+        private final long[] visit;
+        private final long[] visitNext;
+        private final IntList frontier = new IntList();
+        private final IntList touched = new IntList();
+
+        Masks(int n) {
+            seen = new long[n];
+            visit = new long[n];
+            visitNext = new long[n];
+        }
+    }
+
+    /**
+     * Searches from the sources {@code [first, last)} together, bit {@code i - first} standing for source {@code i}.
+     * Only the vertices of the frontier are expanded, so a level costs time in proportion to its edges.
+     */
+    private void search(Masks masks, int[] indices, int first, int last) {
+        int n = graph.getVerticesCount();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        long[] seen = masks.seen, visit = masks.visit, visitNext = masks.visitNext;
+        IntList frontier = masks.frontier, touched = masks.touched;
+        Arrays.fill(seen, 0);
+
+        for (int i = first; i < last; i++) {
+            distances[i] = new int[n];
+            Arrays.fill(distances[i], -1);
+            distances[i][indices[i]] = 0;
+            reached[i] = 1;
+
+            int v = indices[i];
+            if (visit[v] == 0) frontier.add(v);
+            long bit = 1L << (i - first);
+            seen[v] |= bit;
+            visit[v] |= bit;
+        }
+
+        for (int level = 1; !frontier.isEmpty(); level++) {
+            for (int k = 0; k < frontier.size(); k++) {
+                int v = frontier.get(k);
+                long sources = visit[v];
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    if (visitNext[w] == 0) touched.add(w);
+                    visitNext[w] |= sources;
+                }
+            }
+            for (int k = 0; k < frontier.size(); k++)
+                visit[frontier.get(k)] = 0;
+            frontier.clear();
+
+            for (int k = 0; k < touched.size(); k++) {
+                int w = touched.get(k);
+                long next = visitNext[w] & ~seen[w];
+                visitNext[w] = 0;
+                if (next == 0) continue;
+
+                seen[w] |= next;
+                visit[w] = next;
+                frontier.add(w);
+                for (long bits = next; bits != 0; bits &= bits - 1) {
+                    int i = first + Long.numberOfTrailingZeros(bits);
+                    distances[i][w] = level;
+                    eccentricities[i] = level;
+                    reached[i]++;
+                    distanceSums[i] += level;
+                }
+            }
+            touched.clear();
+        }
+    }
+
+    /**
+     * Returns the number of sources.
+     *
+     * @return the number of sources
+     */
+    public int getSourcesCount() {
+        return sources.size();
+    }
+
+    /**
+     * Returns the source vertex at the given position.
+     *
+     * @param i the position of the source
+     * @return the source vertex
+     */
+    public VertexData source(int i) {
+        return sources.get(i);
+    }
+
+    /**
+     * Returns the number of edges on a shortest path from a source to the given vertex.
+     *
+     * @param i the position of the source
+     * @param v the destination vertex
+     * @return the hop distance, or {@code -1} if {@code v} is not reachable
+     */
+    public int distTo(int i, VertexData v) {
+        int w = graph.indexOf(v);
+        return (w == -1 ? -1 : distances[i][w]);
+    }
+
+    /**
+     * Returns the hop distances from a source to every vertex, by the dense vertex index
+     * of the snapshot, {@code -1} for unreachable vertices. This is the array of the search itself.
+     *
+     * @param i the position of the source
+     * @return the hop distances
+     */
+    public int[] distances(int i) {
+        return distances[i];
+    }
+
+    /**
+     * Returns the number of vertices reachable from a source, the source included.
+     *
+     * @param i the position of the source
+     * @return the number of reached vertices
+     */
+    public int reachedCount(int i) {
+        return reached[i];
+    }
+
+    /**
+     * Returns the largest hop distance from a source to a vertex it reaches.
+     *
+     * @param i the position of the source
+     * @return the eccentricity of the source
+     */
+    public int eccentricity(int i) {
+        return eccentricities[i];
+    }
+
+    /**
+     * Returns the closeness of a source: the number of other vertices it reaches divided
+     * by the sum of their hop distances, so that only the reached component counts.
+     *
+     * @param i the position of the source
+     * @return the closeness, or {@code 0} if the source reaches no other vertex
+     */
+    public double closeness(int i) {
+        return (distanceSums[i] == 0 ? 0 : (reached[i] - 1) / (double) distanceSums[i]);
+    }
+}
@@ -9,7 +9,7 @@ import java.util.*;
  *
  * @param <VertexData> the type of data stored in the vertices
  */
-public class MyGraph<VertexData> {
+public class MyGraph<VertexData> implements GraphView<VertexData> {
     private final boolean undirected;
     private final Map<VertexData, Vertex<VertexData>> map = new HashMap<>();
 
@@ -37,6 +37,7 @@ public class MyGraph<VertexData> {
     public void addVertex(VertexData v) {
         if (hasVertex(v)) return;
         map.put(v, new Vertex<>(v));
+        Metrics.vertexAdded();
     }
 
     /**
@@ -57,6 +58,7 @@ public class MyGraph<VertexData> {
         sV.addAdjacentVertex(dV, 1);
 
         if (undirected) dV.addAdjacentVertex(sV, 1);
+        Metrics.edgeAdded();
     }
 
     /**
@@ -64,6 +66,7 @@ public class MyGraph<VertexData> {
      *
      * @return the number of vertices
      */
+    @Override
     public int getVerticesCount() {
         return map.size();
     }
@@ -76,7 +79,7 @@ public class MyGraph<VertexData> {
     public int getEdgesCount() {
         int count = 0;
         for (Vertex<VertexData> v : map.values()) {
-            count += v.getAdjacencyList().size();
+            count += v.degree();
         }
 
         if (undirected) count /= 2;
@@ -90,6 +93,7 @@ public class MyGraph<VertexData> {
      * @param v the vertex data
      * @return {@code true} if the graph contains the vertex, {@code false} otherwise
      */
+    @Override
     public boolean hasVertex(VertexData v) {
         return map.containsKey(v);
     }
@@ -106,6 +110,20 @@ public class MyGraph<VertexData> {
         return map.get(source).hasEdge(map.get(dest));
     }
 
+    /**
+     * Passes every neighbor of the specified vertex, with the weight of the edge
+     * leading to it, to the given visitor, without allocating.
+     * Does nothing if the vertex is not in the graph.
+     *
+     * @param v       the vertex data
+     * @param visitor the visitor to call for every neighbor
+     */
+    @Override
+    public void forEachNeighbor(VertexData v, NeighborVisitor<VertexData> visitor) {
+        Vertex<VertexData> vertex = map.get(v);
+        if (vertex != null) vertex.forEachAdjacent(visitor);
+    }
+
     /**
      * Returns the adjacency list of the specified vertex.
      *
@@ -116,4 +134,17 @@ public class MyGraph<VertexData> {
         if (!hasVertex(v)) return null;
         return map.get(v).getAdjacencyList();
     }
+
+    /**
+     * Builds an immutable compressed sparse row snapshot of the graph.
+     * Later changes to this graph are not reflected in the snapshot.
+     *
+     * Time complexity: O(V + E), where V is the number of vertices
+     * and E is the number of edges in the graph.
+     *
+     * @return the compact snapshot
+     */
+    public CompactGraph<VertexData> toCompact() {
+        return CompactGraph.of(map.values(), undirected);
+    }
 }
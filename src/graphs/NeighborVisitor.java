@@ -0,0 +1,22 @@
+package graphs;
+
+/**
+ * The {@code NeighborVisitor} interface represents a callback that receives
+ * the neighbors of a vertex one at a time, together with the weight of the
+ * edge leading to each of them.
+ * Graphs call it directly from their adjacency storage, so visiting the
+ * neighbors of a vertex allocates nothing.
+ *
+ * @param <Vertex> the type of vertices in the graph
+ */
+@FunctionalInterface
+public interface NeighborVisitor<Vertex> {
+
+    /**
+     * Visits one neighbor.
+     *
+     * @param neighbor the adjacent vertex
+     * @param weight   the weight of the edge to {@code neighbor}
+     */
+    void visit(Vertex neighbor, double weight);
+}
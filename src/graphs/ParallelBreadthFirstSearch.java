@@ -0,0 +1,223 @@
+package graphs;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code ParallelBreadthFirstSearch} class represents a data type for
+ * performing a level-synchronous, direction-optimizing breadth-first search
+ * over a {@link CompactGraph} on a {@link ForkJoinPool}.
+ * Each level is expanded in parallel either top-down, where frontier vertices
+ * claim their unvisited neighbors through an {@link AtomicBitSet}, or bottom-up,
+ * where every unvisited vertex looks for a parent in the frontier. The search
+ * switches to bottom-up when the frontier has more edges than the unexplored part
+ * of the graph divided by {@link #ALPHA}, and back to top-down when the frontier
+ * shrinks below {@code V / }{@link #BETA} vertices (Beamer et al.).
+ *
+ * <p>The search discovers exactly the vertices reachable from the source, and every
+ * path returned by {@link #pathTo(Object)} is a shortest path in number of edges.
+ * Which of several equally short paths is chosen depends on thread scheduling.
+ *
+ * @param <Vertex> the type of vertices in the graph
+ */
+public class ParallelBreadthFirstSearch<Vertex> extends Search<Vertex> {
+    /**
+     * Switch to bottom-up when the frontier edges exceed the unexplored edges divided by this.
+     */
+    public static final int ALPHA = 14;
+    /**
+     * Switch back to top-down when the frontier is smaller than the vertices divided by this.
+     */
+    public static final int BETA = 24;
+
+    private static final int GRAIN = 256;
+
+    private final ForkJoinPool pool;
+    private final LongAdder scanned = new LongAdder();
+
+    /**
+     * Initializes a parallel breadth-first search from the source vertex in the given
+     * snapshot, running on the common pool.
+     *
+     * @param graph  the snapshot to search
+     * @param source the source vertex
+     */
+    public ParallelBreadthFirstSearch(CompactGraph<Vertex> graph, Vertex source) {
+        this(graph, source, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Initializes a parallel breadth-first search from the source vertex in the given
+     * snapshot, running on the given pool.
+     *
+     * @param graph  the snapshot to search
+     * @param source the source vertex
+     * @param pool   the pool to run on
+     */
+    public ParallelBreadthFirstSearch(CompactGraph<Vertex> graph, Vertex source, ForkJoinPool pool) {
+        super(graph, source);
+        this.pool = pool;
+        bfs(graph, graph.indexOf(source));
+    }
+
+    /**
+     * Performs the search one level at a time, choosing the direction of every level.
+     *
+     * @param graph   the snapshot to search
+     * @param current the index of the source vertex
+     *
+     * Time complexity: O(V + E) work, where V is the number of vertices
+     * and E is the number of edges in the graph.
+     */
+    private void bfs(CompactGraph<Vertex> graph, int current) {
+        int n = graph.getVerticesCount();
+        int[] offsets = graph.offsets();
+        AtomicBitSet visited = new AtomicBitSet(n);
+
+        int[] frontier = new int[n];
+        int[] next = new int[n];
+        int frontierSize = 1;
+        AtomicBitSet frontierBits = null;
+
+        frontier[0] = current;
+        visited.set(current);
+        markedIds[current] = true;
+
+        long unexploredEdges = offsets[n];
+        long frontierEdges = 0;    // out-edges of the frontier, counted by the bottom-up step that found it
+        boolean bottomUp = false;
+        int reached = 1, peak = 1;
+
+        while (frontierSize > 0) {
+            if (bottomUp && frontierSize < n / BETA) {
+                bottomUp = false;
+                frontierSize = toList(frontierBits, frontier);
+                frontierBits = null;
+            }
+
+            if (!bottomUp) {
+                frontierEdges = 0;
+                for (int i = 0; i < frontierSize; i++)
+                    frontierEdges += offsets[frontier[i] + 1] - offsets[frontier[i]];
+            }
+            unexploredEdges -= frontierEdges;
+
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+                frontierBits = toBits(frontier, frontierSize, n);
+            }
+
+            if (bottomUp) {
+                AtomicBitSet nextBits = new AtomicBitSet(n);
+                LongAdder nextEdges = new LongAdder();
+                frontierSize = bottomUpStep(graph, visited, frontierBits, nextBits, nextEdges);
+                frontierBits = nextBits;
+                frontierEdges = nextEdges.sum();
+            } else {
+                scanned.add(frontierEdges);
+                frontierSize = topDownStep(graph, visited, frontier, frontierSize, next);
+
+                int[] t = frontier;
+                frontier = next;
+                next = t;
+            }
+
+            reached += frontierSize;
+            peak = Math.max(peak, frontierSize);
+        }
+
+        report(reached, scanned.sum(), peak, 0);
+    }
+
+    /**
+     * Expands the frontier by letting every frontier vertex claim its unvisited neighbors.
+     *
+     * @return the size of the next frontier, written to {@code next}
+     */
+    private int topDownStep(CompactGraph<Vertex> graph, AtomicBitSet visited,
+                            int[] frontier, int frontierSize, int[] next) {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        AtomicInteger tail = new AtomicInteger();
+
+        ParallelFor.run(pool, 0, frontierSize, GRAIN, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int v = frontier[i];
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    if (!visited.get(w) && visited.set(w)) {
+                        edgeToIds[w] = v;
+                        markedIds[w] = true;
+                        next[tail.getAndIncrement()] = w;
+                    }
+                }
+            }
+        });
+
+        return tail.get();
+    }
+
+    /**
+     * Expands the frontier by letting every unvisited vertex look for a parent in the frontier
+     * among its incoming edges. Every vertex is written by one task only.
+     *
+     * @return the size of the next frontier, set in {@code nextBits}, whose out-edges are added to {@code nextEdges}
+     */
+    private int bottomUpStep(CompactGraph<Vertex> graph, AtomicBitSet visited,
+                             AtomicBitSet frontierBits, AtomicBitSet nextBits, LongAdder nextEdges) {
+        CompactGraph<Vertex> reverse = graph.reverse();
+        int[] outOffsets = graph.offsets();
+        int[] offsets = reverse.offsets();
+        int[] targets = reverse.targets();
+        AtomicInteger count = new AtomicInteger();
+
+        ParallelFor.run(pool, 0, reverse.getVerticesCount(), GRAIN * 16, (from, to) -> {
+            int found = 0;
+            long checked = 0, edges = 0;
+            for (int w = from; w < to; w++) {
+                if (visited.get(w)) continue;
+
+                for (int e = offsets[w]; e < offsets[w + 1]; e++) {
+                    int v = targets[e];
+                    checked++;
+                    if (frontierBits.get(v)) {
+                        edgeToIds[w] = v;
+                        markedIds[w] = true;
+                        visited.set(w);
+                        nextBits.set(w);
+                        found++;
+                        edges += outOffsets[w + 1] - outOffsets[w];
+                        break;
+                    }
+                }
+            }
+            count.addAndGet(found);
+            scanned.add(checked);
+            nextEdges.add(edges);
+        });
+
+        return count.get();
+    }
+
+    private AtomicBitSet toBits(int[] list, int size, int n) {
+        AtomicBitSet bits = new AtomicBitSet(n);
+        ParallelFor.run(pool, 0, size, GRAIN * 16, (from, to) -> {
+            for (int i = from; i < to; i++)
+                bits.set(list[i]);
+        });
+        return bits;
+    }
+
+    private static int toList(AtomicBitSet bits, int[] list) {
+        int size = 0;
+        for (int w = 0; w < bits.wordCount(); w++) {
+            long word = bits.word(w);
+            while (word != 0) {
+                list[size++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return size;
+    }
+}
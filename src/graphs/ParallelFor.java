@@ -0,0 +1,73 @@
+package graphs;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The {@code ParallelFor} class runs a loop body over an index range
+ * on a {@link ForkJoinPool}, splitting the range in halves until the
+ * pieces are no larger than a given grain.
+ */
+final class ParallelFor {
+
+    /**
+     * The body of a parallel loop, called once per piece of the range.
+     */
+    @FunctionalInterface
+    interface Body {
+
+        /**
+         * Processes the indices {@code [from, to)}.
+         *
+         * @param from the first index, inclusive
+         * @param to   the last index, exclusive
+         */
+        void run(int from, int to);
+    }
+
+    private ParallelFor() {
+    }
+
+    /**
+     * Runs the body over {@code [from, to)} on the given pool and waits for it to finish.
+     * Small ranges run directly on the calling thread.
+     *
+     * @param pool  the pool to run on
+     * @param from  the first index, inclusive
+     * @param to    the last index, exclusive
+     * @param grain the largest piece processed by one task
+     * @param body  the loop body
+     */
+    static void run(ForkJoinPool pool, int from, int to, int grain, Body body) {
+        if (to - from <= grain || pool.getParallelism() == 1) {
+            if (from < to) body.run(from, to);
+            return;
+        }
+
+        pool.invoke(new Task(from, to, Math.max(grain, 1), body));
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Task extends RecursiveAction {
+        private final int from, to, grain;
+        private final Body body;
+
+        Task(int from, int to, int grain, Body body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                body.run(from, to);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new Task(from, mid, grain, body), new Task(mid, to, grain, body));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package graphs;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * The {@code Path} class represents a read-only view of the path from the source of a
+ * search to one vertex, over the parent links of the search itself.
+ * Creating a view copies nothing; the path is found by following the parent links
+ * each time it is read, so a view of a search whose tree later changes, such as a
+ * {@link DynamicDijkstra}, shows the current path.
+ *
+ * <p>{@link #reversed()} walks from the vertex back to the source without allocating.
+ * {@link #iterator()} goes from the source to the vertex, which needs the parent chain
+ * to be collected first, into one array of the length of the path.
+ *
+ * @param <Vertex> the type of vertices in the graph
+ */
+public final class Path<Vertex> implements Iterable<Vertex> {
+    private final int[] parents;
+    private final IntFunction<Vertex> vertexAt;
+    private final int target;
+
+    private final Map<Vertex, Vertex> edgeTo;
+    private final Vertex source;
+    private final Vertex targetVertex;
+
+    /**
+     * Initializes a view over an array of parent indices, ending at the root whose parent is {@code -1}.
+     *
+     * @param parents  the parent index of every vertex
+     * @param vertexAt the vertex of every index
+     * @param target   the index of the last vertex of the path
+     */
+    Path(int[] parents, IntFunction<Vertex> vertexAt, int target) {
+        this.parents = parents;
+        this.vertexAt = vertexAt;
+        this.target = target;
+        this.edgeTo = null;
+        this.source = null;
+        this.targetVertex = null;
+    }
+
+    /**
+     * Initializes a view over a map of parent vertices, ending at the source object itself.
+     *
+     * @param edgeTo the parent of every vertex but the source
+     * @param source the first vertex of the path
+     * @param target the last vertex of the path
+     */
+    Path(Map<Vertex, Vertex> edgeTo, Vertex source, Vertex target) {
+        this.parents = null;
+        this.vertexAt = null;
+        this.target = -1;
+        this.edgeTo = edgeTo;
+        this.source = source;
+        this.targetVertex = target;
+    }
+
+    /**
+     * Returns the number of edges on the path.
+     *
+     * Time complexity: O(L), where L is the length of the path.
+     *
+     * @return the number of edges
+     */
+    public int length() {
+        int length = -1;
+        for (Vertex ignored : reversed())
+            length++;
+        return length;
+    }
+
+    /**
+     * Returns the last vertex of the path.
+     *
+     * @return the vertex the path leads to
+     */
+    public Vertex target() {
+        return (parents != null ? vertexAt.apply(target) : targetVertex);
+    }
+
+    /**
+     * Returns the vertices of the path from its last vertex back to the source,
+     * without allocating anything but the iterator.
+     *
+     * @return the path in reverse
+     */
+    public Iterable<Vertex> reversed() {
+        if (parents != null) {
+            return () -> new Iterator<>() {
+                private int next = target;
+
+                @Override
+                public boolean hasNext() {
+                    return next != -1;
+                }
+
+                @Override
+                public Vertex next() {
+                    if (next == -1) throw new NoSuchElementException();
+                    Vertex v = vertexAt.apply(next);
+                    next = parents[next];
+                    return v;
+                }
+            };
+        }
+
+        return () -> new Iterator<>() {
+            private Vertex next = targetVertex;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Vertex next() {
+                if (next == null) throw new NoSuchElementException();
+                Vertex v = next;
+                next = (v == source ? null : edgeTo.get(v));
+                return v;
+            }
+        };
+    }
+
+    /**
+     * Returns the vertices of the path from the source to its last vertex.
+     *
+     * @return an iterator over the path
+     */
+    @Override
+    public Iterator<Vertex> iterator() {
+        Object[] vertices = new Object[length() + 1];
+        int i = vertices.length;
+        for (Vertex v : reversed())
+            vertices[--i] = v;
+
+        @SuppressWarnings("unchecked")
+        List<Vertex> path = (List<Vertex>) Arrays.asList(vertices);
+        return Collections.unmodifiableList(path).iterator();
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(" -> ");
+        for (Vertex v : this)
+            joiner.add(String.valueOf(v));
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,437 @@
+package graphs;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code QueryService} class represents an in-process service answering route and
+ * reachability requests over one shared, immutable {@link CompactGraph}.
+ *
+ * <p>Requests are meant to come from many cheap threads, such as one virtual thread per
+ * request of an HTTP or gRPC front end; {@link #newRequestExecutor()} returns an executor
+ * of virtual threads when the runtime has them. Each request is put on a bounded queue
+ * and served by a fixed set of worker threads:
+ * <ul>
+ *     <li>every worker takes up to {@code maxBatch} waiting requests at once and groups
+ *     them by source, so concurrent requests from the same source share one search that
+ *     stops once all their targets are settled;</li>
+ *     <li>every worker owns its search scratch space, arrays sized to the graph that are
+ *     reset by walking only the vertices a search touched, so a request allocates
+ *     nothing but its answer;</li>
+ *     <li>when the queue is full, {@link #submitRoute} and {@link #submitReachable} block
+ *     the calling thread until there is room, which pushes back on the front end.</li>
+ * </ul>
+ * Requests whose path is ruled out by the {@link Components} computed when the service
+ * starts, strong ones for a directed graph, are answered at once without queueing.
+ *
+ * @param <Vertex> the type of vertices in the graph
+ */
+public class QueryService<Vertex> implements AutoCloseable {
+    /**
+     * The answer to a route request.
+     *
+     * @param source   the source vertex
+     * @param target   the target vertex
+     * @param distance the length of the shortest path, or {@code Double.POSITIVE_INFINITY} if there is none
+     * @param path     the vertices of the shortest path, or an empty list if there is none
+     * @param <V>      the type of vertices in the graph
+     */
+    public record Route<V>(V source, V target, double distance, List<V> path) {
+
+        /**
+         * Returns whether a path exists.
+         *
+         * @return {@code true} if the target is reachable from the source
+         */
+        public boolean exists() {
+            return distance != Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * The counters of the service.
+     *
+     * @param requests the number of requests accepted
+     * @param rejected the number of requests answered at once because the components rule the path out
+     * @param batches  the number of times a worker took requests from the queue
+     * @param searches the number of searches run; fewer than the queued requests when sources are shared
+     */
+    public record Stats(long requests, long rejected, long batches, long searches) {
+
+        @Override
+        public String toString() {
+            long queued = requests - rejected;
+            return String.format("%d requests, %d rejected early, %d batches, %d searches (%.2f requests/search)",
+                    requests, rejected, batches, searches, (searches == 0 ? 0 : queued / (double) searches));
+        }
+    }
+
+    /**
+     * The default number of requests a worker takes from the queue at once.
+     */
+    public static final int DEFAULT_MAX_BATCH = 64;
+
+    private final CompactGraph<Vertex> graph;
+    private final Components<Vertex> components;
+    private final BlockingQueue<Request> queue;
+    private final int maxBatch;
+    private final Thread[] workers;
+    private volatile boolean closed;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder searches = new LongAdder();
+
+    /**
+     * Starts a service over the given snapshot with one worker per available processor,
+     * a queue of {@code 1024} requests per worker and batches of {@link #DEFAULT_MAX_BATCH}.
+     *
+     * @param graph the snapshot to answer requests on
+     */
+    public QueryService(CompactGraph<Vertex> graph) {
+        this(graph, Runtime.getRuntime().availableProcessors(),
+                1024 * Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_BATCH);
+    }
+
+    /**
+     * Starts a service over the given snapshot.
+     *
+     * @param graph         the snapshot to answer requests on
+     * @param workers       the number of worker threads
+     * @param queueCapacity the number of requests that can wait before submitters block
+     * @param maxBatch      the largest number of requests a worker takes at once
+     * @throws IllegalArgumentException if any of the sizes is not positive
+     */
+    public QueryService(CompactGraph<Vertex> graph, int workers, int queueCapacity, int maxBatch) {
+        if (workers <= 0 || queueCapacity <= 0 || maxBatch <= 0)
+            throw new IllegalArgumentException("Sizes must be positive!");
+
+        this.graph = graph;
+        this.components = new Components<>(graph,
+                (graph.isUndirected() ? Components.Engine.UNION_FIND : Components.Engine.TARJAN), ForkJoinPool.commonPool());
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.workers = new Thread[workers];
+
+        for (int i = 0; i < workers; i++) {
+            Worker worker = new Worker();
+            this.workers[i] = new Thread(worker::run, "query-worker-" + i);
+            this.workers[i].setDaemon(true);
+            this.workers[i].start();
+        }
+    }
+
+    /**
+     * Returns an executor that runs every task on a new virtual thread when the runtime
+     * supports them (Java 21 and later), and on a cached pool of platform threads otherwise.
+     *
+     * @return an executor for request handlers
+     */
+    public static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (Throwable e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Requests the shortest path between two vertices. Blocks while the queue is full.
+     *
+     * @param source the source vertex
+     * @param target the target vertex
+     * @return the future route
+     * @throws IllegalArgumentException if either vertex is not in the graph
+     * @throws RejectedExecutionException if the service is closed
+     * @throws CancellationException if the calling thread is interrupted while waiting for room
+     */
+    public CompletableFuture<Route<Vertex>> submitRoute(Vertex source, Vertex target) {
+        CompletableFuture<Route<Vertex>> future = new CompletableFuture<>();
+        Request request = request(source, target, true, future);
+
+        if (request == null) future.complete(new Route<>(source, target, Double.POSITIVE_INFINITY, List.of()));
+        else enqueue(request);
+        return future;
+    }
+
+    /**
+     * Requests whether the target is reachable from the source. Blocks while the queue is full.
+     *
+     * @param source the source vertex
+     * @param target the target vertex
+     * @return the future answer
+     * @throws IllegalArgumentException if either vertex is not in the graph
+     * @throws RejectedExecutionException if the service is closed
+     * @throws CancellationException if the calling thread is interrupted while waiting for room
+     */
+    public CompletableFuture<Boolean> submitReachable(Vertex source, Vertex target) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        Request request = request(source, target, false, future);
+
+        if (request == null) future.complete(false);
+        else enqueue(request);
+        return future;
+    }
+
+    /**
+     * Returns the shortest path between two vertices, waiting for it on the calling thread.
+     *
+     * @param source the source vertex
+     * @param target the target vertex
+     * @return the route
+     * @throws IllegalArgumentException if either vertex is not in the graph
+     * @throws RejectedExecutionException if the service is closed
+     */
+    public Route<Vertex> route(Vertex source, Vertex target) {
+        return submitRoute(source, target).join();
+    }
+
+    /**
+     * Returns whether the target is reachable from the source, waiting for the answer on the calling thread.
+     *
+     * @param source the source vertex
+     * @param target the target vertex
+     * @return {@code true} if there is a path, {@code false} otherwise
+     * @throws IllegalArgumentException if either vertex is not in the graph
+     * @throws RejectedExecutionException if the service is closed
+     */
+    public boolean reachable(Vertex source, Vertex target) {
+        return submitReachable(source, target).join();
+    }
+
+    /**
+     * Returns the number of requests waiting for a worker.
+     *
+     * @return the length of the queue
+     */
+    public int getQueueLength() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the counters of the service.
+     *
+     * @return the counters
+     */
+    public Stats getStats() {
+        return new Stats(requests.sum(), rejected.sum(), batches.sum(), searches.sum());
+    }
+
+    /**
+     * Stops the workers once the requests already queued are answered. Later requests are rejected.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Thread worker : workers)
+            worker.interrupt();
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Checks a request and returns it, or {@code null} if the components rule the path out.
+     */
+    private Request request(Vertex source, Vertex target, boolean route, CompletableFuture<?> future) {
+        if (closed) throw new RejectedExecutionException("Query service is closed!");
+
+        int s = graph.indexOf(source), t = graph.indexOf(target);
+        if (s == -1 || t == -1) throw new IllegalArgumentException("Vertex is not in the graph!");
+
+        requests.increment();
+        if (!components.mayReach(source, target)) {
+            rejected.increment();
+            return null;
+        }
+        return new Request(s, t, route, future);
+    }
+
+    private void enqueue(Request request) {
+        try {
+            queue.put(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            request.future.cancel(false);
+            throw new CancellationException("Interrupted while waiting for room in the queue!");
+        }
+
+        // a worker may have stopped between the check of closed and the put
+        if (closed && queue.remove(request))
+            request.future.completeExceptionally(new RejectedExecutionException("Query service is closed!"));
+    }
+
+    /**
+     * One queued request; {@code future} holds a {@code Route} for a route and a {@code Boolean} otherwise.
+     */
+    private record Request(int source, int target, boolean route, CompletableFuture<?> future) {
+    }
+
+    /**
+     * A worker thread and its scratch space: distances, parents and the state of every
+     * vertex, the queue of the current search, and the list of vertices it touched.
+     */
+    private final class Worker {
+        private final double[] dist;
+        private final int[] parent;
+        private final int[] wanted;       // number of requests of the current group targeting each vertex
+        private final boolean[] settled;
+        private final IndexMinPQ pq;
+        private final int[] fifo;
+        private final IntList touched = new IntList();
+        private final List<Request> batch = new ArrayList<>();
+
+        Worker() {
+            int n = graph.getVerticesCount();
+            dist = new double[n];
+            parent = new int[n];
+            wanted = new int[n];
+            settled = new boolean[n];
+            pq = new IndexMinPQ(n);
+            fifo = new int[n];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        }
+
+        void run() {
+            while (true) {
+                try {
+                    Request first = (closed ? queue.poll() : queue.take());
+                    if (first == null) return;
+
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatch - 1);
+                } catch (InterruptedException e) {
+                    // only close() stops a worker, once the queue is drained; a stray
+                    // interrupt while open must not strand the requests still queued
+                    continue;
+                }
+
+                batches.increment();
+                batch.sort(Comparator.comparingInt(Request::source));
+                for (int from = 0, to; from < batch.size(); from = to) {
+                    to = from + 1;
+                    while (to < batch.size() && batch.get(to).source() == batch.get(from).source())
+                        to++;
+                    serve(batch.subList(from, to));
+                }
+                batch.clear();
+            }
+        }
+
+        /**
+         * Answers the requests of one source with one search, a breadth-first search if they
+         * are all reachability requests and Dijkstra's algorithm otherwise.
+         */
+        private void serve(List<Request> group) {
+            searches.increment();
+            boolean route = false;
+            int remaining = 0;
+            for (Request r : group) {
+                route |= r.route();
+                if (wanted[r.target()]++ == 0) remaining++;
+            }
+
+            try {
+                if (route) dijkstra(group.get(0).source(), remaining);
+                else bfs(group.get(0).source(), remaining);
+
+                for (Request r : group)
+                    answer(r);
+            } catch (RuntimeException e) {
+                for (Request r : group)
+                    r.future().completeExceptionally(e);
+            } finally {
+                for (Request r : group)
+                    wanted[r.target()] = 0;
+                reset();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void answer(Request r) {
+            int t = r.target();
+            if (!r.route()) {
+                ((CompletableFuture<Boolean>) r.future()).complete(settled[t]);
+                return;
+            }
+
+            Vertex source = graph.vertexAt(r.source()), target = graph.vertexAt(t);
+            List<Vertex> path = new ArrayList<>();
+            if (settled[t]) {
+                for (int v = t; v != -1; v = parent[v])
+                    path.add(graph.vertexAt(v));
+                Collections.reverse(path);
+            }
+            ((CompletableFuture<Route<Vertex>>) r.future())
+                    .complete(new Route<>(source, target, dist[t], Collections.unmodifiableList(path)));
+        }
+
+        private void dijkstra(int s, int remaining) {
+            int[] offsets = graph.offsets(), targets = graph.targets();
+            double[] weights = graph.weights();
+            reach(s, 0, -1);
+
+            while (!pq.isEmpty() && remaining > 0) {
+                int v = pq.delMin();
+                settled[v] = true;
+                if (wanted[v] > 0) remaining--;
+
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    if (!settled[w] && dist[v] + weights[e] < dist[w]) reach(w, dist[v] + weights[e], v);
+                }
+            }
+        }
+
+        private void reach(int v, double d, int from) {
+            if (dist[v] == Double.POSITIVE_INFINITY) touched.add(v);
+            dist[v] = d;
+            parent[v] = from;
+            if (pq.contains(v)) pq.decreaseKey(v, d);
+            else pq.insert(v, d);
+        }
+
+        private void bfs(int s, int remaining) {
+            int[] offsets = graph.offsets(), targets = graph.targets();
+            int head = 0, tail = 0;
+            settled[s] = true;
+            touched.add(s);
+            fifo[tail++] = s;
+            if (wanted[s] > 0) remaining--;
+
+            while (head < tail && remaining > 0) {
+                int v = fifo[head++];
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    if (settled[w]) continue;
+
+                    settled[w] = true;
+                    touched.add(w);
+                    fifo[tail++] = w;
+                    if (wanted[w] > 0 && --remaining == 0) return;
+                }
+            }
+        }
+
+        private void reset() {
+            for (int k = 0; k < touched.size(); k++) {
+                int v = touched.get(k);
+                dist[v] = Double.POSITIVE_INFINITY;
+                settled[v] = false;
+            }
+            touched.clear();
+            pq.clear();
+        }
+    }
+}
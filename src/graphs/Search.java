@@ -4,6 +4,11 @@ import java.util.*;
 /**
  * The {@code Search} class represents a data type for
  * performing search operations on a graph from a source vertex.
+ * A search runs either over a mutable graph, recording its results in
+ * {@code marked} and {@code edgeTo}, or over a {@link CompactGraph} snapshot,
+ * recording them by dense index in {@code markedIds} and {@code edgeToIds}.
+ * Every subclass calls {@link #report(long, long, long, long)} once its work is done,
+ * which records the search in {@link Metrics} if they are enabled.
  *
  * @param <Vertex> the type of vertices in the graph
  */
@@ -12,6 +17,12 @@ public class Search<Vertex> {
     protected Map<Vertex, Vertex> edgeTo;
     protected final Vertex source;
 
+    protected final CompactGraph<Vertex> compact;
+    protected boolean[] markedIds;
+    protected int[] edgeToIds;
+
+    private final Metrics.Probe probe = Metrics.start();
+
     /**
      * Initializes the search with the given source vertex.
      *
@@ -19,10 +30,43 @@ public class Search<Vertex> {
      */
     public Search(Vertex source) {
         this.source = source;
+        this.compact = null;
         marked = new HashSet<>();
         edgeTo = new HashMap<>();
     }
 
+    /**
+     * Initializes a search over a compact snapshot with the given source vertex.
+     *
+     * @param graph  the snapshot to search
+     * @param source the source vertex
+     * @throws IllegalArgumentException if {@code source} is not in the snapshot
+     */
+    public Search(CompactGraph<Vertex> graph, Vertex source) {
+        if (!graph.hasVertex(source))
+            throw new IllegalArgumentException("Source vertex is not in the graph!");
+
+        this.source = source;
+        this.compact = graph;
+        markedIds = new boolean[graph.getVerticesCount()];
+        edgeToIds = new int[graph.getVerticesCount()];
+        Arrays.fill(edgeToIds, -1);
+    }
+
+    /**
+     * Records the work of the search in {@link Metrics}, if they were enabled when
+     * the search started. The arguments are cheap to compute in every subclass,
+     * so they are passed whether or not metrics are enabled.
+     *
+     * @param settled        the number of vertices settled or visited
+     * @param relaxed        the number of edges relaxed or scanned
+     * @param queuePeak      the largest queue, frontier or stack held by the search
+     * @param heapOperations the number of priority queue operations
+     */
+    protected final void report(long settled, long relaxed, long queuePeak, long heapOperations) {
+        if (probe != null) probe.stop(getClass().getSimpleName(), settled, relaxed, queuePeak, heapOperations);
+    }
+
     /**
      * Determines if there is a path from the source vertex to the specified vertex.
      *
@@ -30,25 +74,25 @@ public class Search<Vertex> {
      * @return {@code true} if there is a path, {@code false} otherwise
      */
     public boolean hasPathTo(Vertex v) {
+        if (compact != null) {
+            int i = compact.indexOf(v);
+            return i != -1 && markedIds[i];
+        }
+
         return marked.contains(v);
     }
 
     /**
      * Returns the path from the source vertex to the specified vertex, or {@code null} if no such path exists.
+     * The path is a view over the parent links of this search; nothing is copied until it is iterated.
      *
      * @param v the destination vertex
-     * @return an iterable of vertices representing the path, or {@code null} if no path exists
+     * @return the path from the source to {@code v}, or {@code null} if no path exists
      */
-    public Iterable<Vertex> pathTo(Vertex v) {
+    public Path<Vertex> pathTo(Vertex v) {
         if (!hasPathTo(v)) return null;
 
-        LinkedList<Vertex> ls = new LinkedList<>();
-        for (Vertex i = v; i != source; i = edgeTo.get(i)) {
-            ls.push(i);
-        }
-
-        ls.push(source);
-
-        return ls;
+        if (compact != null) return new Path<>(edgeToIds, compact::vertexAt, compact.indexOf(v));
+        return new Path<>(edgeTo, source, v);
     }
 }
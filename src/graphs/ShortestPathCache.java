@@ -0,0 +1,271 @@
+package graphs;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * The {@code ShortestPathCache} class represents a bounded cache of completed search trees
+ * for a {@link WeightedGraph}, for request mixes that keep asking for the same sources.
+ *
+ * <p>Entries are keyed by (graph version, source, algorithm) and stored as compact
+ * {@link ShortestPathTree}s. The cache holds at most {@code maximumSize} trees and drops the
+ * least recently used one when it is full; entries older than the time to live are dropped
+ * when they are next looked up. The cache listens to the graph, and every added edge or
+ * changed weight empties it. Adding a vertex fires no event, so the first lookup that sees
+ * a new {@link WeightedGraph#version()} empties it as well; entries of an older version are
+ * never returned in any case, since the version is part of the key.
+ *
+ * <p>Lookups can come from several threads while the graph is not being modified.
+ * Trees and the compact snapshot they are computed on are built outside the lock, so
+ * hits never wait for them, and two threads missing on the same key at the same time
+ * may both compute it.
+ *
+ * @param <Vertex> the type of vertices in the graph
+ */
+public class ShortestPathCache<Vertex> {
+    /**
+     * The search used to build a tree.
+     */
+    public enum Algorithm {
+        /**
+         * Dijkstra's algorithm; distances are sums of edge weights.
+         */
+        DIJKSTRA,
+        /**
+         * Breadth-first search; distances are numbers of edges.
+         */
+        BREADTH_FIRST
+    }
+
+    /**
+     * The counters of a cache.
+     *
+     * @param hits          the number of lookups answered from the cache
+     * @param misses        the number of lookups that computed a tree
+     * @param evictions     the number of trees dropped because the cache was full
+     * @param expirations   the number of trees dropped because they outlived the time to live
+     * @param invalidations the number of trees dropped because the graph changed
+     * @param size          the number of trees currently cached
+     */
+    public record Stats(long hits, long misses, long evictions, long expirations, long invalidations, int size) {
+
+        /**
+         * Returns the fraction of lookups answered from the cache.
+         *
+         * @return the hit rate, or {@code 0} if there was no lookup
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return (lookups == 0 ? 0 : hits / (double) lookups);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d hits, %d misses (%.1f%% hit rate), %d evictions, %d expirations, %d invalidations, %d cached",
+                    hits, misses, 100 * hitRate(), evictions, expirations, invalidations, size);
+        }
+    }
+
+    private record Key(long version, Object source, Algorithm algorithm) {
+    }
+
+    private record Entry<V>(ShortestPathTree<V> tree, long created) {
+    }
+
+    private final WeightedGraph<Vertex> graph;
+    private final int maximumSize;
+    private final long timeToLive;
+    private final LinkedHashMap<Key, Entry<Vertex>> entries;
+    private final EdgeListener<Vertex> listener = (source, dest, oldWeight, newWeight) -> invalidateAll();
+    private CompactGraph<Vertex> snapshot;
+    private long snapshotVersion = -1;
+    private long entriesVersion;
+    private long hits, misses, evictions, expirations, invalidations;
+
+    /**
+     * Initializes a cache whose entries never expire.
+     *
+     * @param graph       the graph to search
+     * @param maximumSize the maximum number of trees to keep
+     * @throws IllegalArgumentException if {@code maximumSize} is not positive
+     */
+    public ShortestPathCache(WeightedGraph<Vertex> graph, int maximumSize) {
+        this(graph, maximumSize, Duration.ZERO);
+    }
+
+    /**
+     * Initializes a cache.
+     *
+     * @param graph       the graph to search
+     * @param maximumSize the maximum number of trees to keep
+     * @param timeToLive  how long a tree stays usable after it is computed, or {@code Duration.ZERO} for ever
+     * @throws IllegalArgumentException if {@code maximumSize} is not positive or {@code timeToLive} is negative
+     */
+    public ShortestPathCache(WeightedGraph<Vertex> graph, int maximumSize, Duration timeToLive) {
+        if (maximumSize < 1)
+            throw new IllegalArgumentException("Maximum size must be positive!");
+        if (timeToLive.isNegative())
+            throw new IllegalArgumentException("Time to live must not be negative!");
+
+        this.graph = graph;
+        this.maximumSize = maximumSize;
+        this.timeToLive = (timeToLive.isZero() ? Long.MAX_VALUE : timeToLive.toNanos());
+        this.entriesVersion = graph.version();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry<Vertex>> eldest) {
+                if (size() <= ShortestPathCache.this.maximumSize) return false;
+                evictions++;
+                return true;
+            }
+        };
+        graph.addListener(listener);
+    }
+
+    /**
+     * Returns the Dijkstra tree of the given source, computing it on a miss.
+     *
+     * @param source the source vertex
+     * @return the shortest path tree
+     * @throws IllegalArgumentException if {@code source} is not in the graph
+     */
+    public ShortestPathTree<Vertex> get(Vertex source) {
+        return get(source, Algorithm.DIJKSTRA);
+    }
+
+    /**
+     * Returns the tree of the given source built by the given algorithm, computing it on a miss.
+     *
+     * @param source    the source vertex
+     * @param algorithm the search to build the tree with
+     * @return the shortest path tree
+     * @throws IllegalArgumentException if {@code source} is not in the graph
+     */
+    public ShortestPathTree<Vertex> get(Vertex source, Algorithm algorithm) {
+        Key key = new Key(graph.version(), source, algorithm);
+        CompactGraph<Vertex> compact;
+
+        synchronized (this) {
+            if (key.version > entriesVersion) {
+                invalidateAll();
+                entriesVersion = key.version;
+            }
+            Entry<Vertex> entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.created < timeToLive) {
+                hits++;
+                return entry.tree;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                expirations++;
+            }
+            misses++;
+            compact = (snapshotVersion == key.version ? snapshot : null);
+        }
+
+        if (compact == null) compact = snapshot(key.version);
+
+        ShortestPathTree<Vertex> tree = compute(compact, source, key.version, algorithm);
+        synchronized (this) {
+            if (key.version == graph.version()) entries.put(key, new Entry<>(tree, System.nanoTime()));
+        }
+        return tree;
+    }
+
+    /**
+     * Takes a new compact snapshot outside the lock, so that hits are not held up by it,
+     * and publishes it for later misses unless the graph changed in the meantime.
+     */
+    private CompactGraph<Vertex> snapshot(long version) {
+        CompactGraph<Vertex> compact = graph.toCompact();
+        synchronized (this) {
+            if (graph.version() == version && snapshotVersion != version) {
+                snapshot = compact;
+                snapshotVersion = version;
+            }
+        }
+        return compact;
+    }
+
+    private static <V> ShortestPathTree<V> compute(CompactGraph<V> graph, V source, long version, Algorithm algorithm) {
+        if (!graph.hasVertex(source))
+            throw new IllegalArgumentException("Source vertex is not in the graph!");
+
+        int n = graph.getVerticesCount();
+        double[] distances;
+        Search<V> search;
+        if (algorithm == Algorithm.DIJKSTRA) {
+            Dijkstra<V> dijkstra = new Dijkstra<>(graph, source);
+            distances = dijkstra.distancesById();
+            search = dijkstra;
+        } else {
+            search = new BreadthFirstSearch<>(graph, source);
+            distances = new double[n];
+            depths(search.edgeToIds, search.markedIds, distances);
+        }
+
+        for (int i = 0; i < n; i++)
+            if (!search.markedIds[i]) distances[i] = Double.POSITIVE_INFINITY;
+        return new ShortestPathTree<>(graph, source, version, search.edgeToIds, distances);
+    }
+
+    /**
+     * Fills in the depth of every reached vertex of a breadth-first tree,
+     * walking up to the first vertex whose depth is known.
+     */
+    private static void depths(int[] parents, boolean[] marked, double[] depths) {
+        Arrays.fill(depths, -1);
+        IntList stack = new IntList();
+
+        for (int i = 0; i < parents.length; i++) {
+            if (!marked[i]) continue;
+
+            int v = i;
+            while (depths[v] < 0 && parents[v] != -1) {
+                stack.add(v);
+                v = parents[v];
+            }
+            if (depths[v] < 0) depths[v] = 0;
+
+            double depth = depths[v];
+            while (!stack.isEmpty())
+                depths[stack.removeLast()] = ++depth;
+        }
+    }
+
+    /**
+     * Drops every cached tree.
+     */
+    public synchronized void invalidateAll() {
+        invalidations += entries.size();
+        entries.clear();
+        snapshot = null;
+        snapshotVersion = -1;
+    }
+
+    /**
+     * Stops listening to the graph and drops every cached tree.
+     */
+    public void close() {
+        graph.removeListener(listener);
+        invalidateAll();
+    }
+
+    /**
+     * Returns the number of trees currently cached.
+     *
+     * @return the number of trees
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the counters of the cache.
+     *
+     * @return the counters
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, expirations, invalidations, entries.size());
+    }
+}
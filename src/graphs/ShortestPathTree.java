@@ -0,0 +1,97 @@
+package graphs;
+
+/**
+ * The {@code ShortestPathTree} class represents the completed result of a search from one
+ * source, stored compactly: the parent and the distance of every vertex are kept in flat
+ * arrays indexed like the {@link CompactGraph} snapshot the search ran on, instead of the
+ * maps of a {@link Search}. Trees are immutable and are handed out by {@link ShortestPathCache}.
+ *
+ * @param <Vertex> the type of vertices in the graph
+ */
+public final class ShortestPathTree<Vertex> {
+    private final CompactGraph<Vertex> graph;
+    private final Vertex source;
+    private final long version;
+    private final int[] parents;
+    private final double[] distances;
+
+    /**
+     * Initializes a tree from the arrays of a finished search.
+     *
+     * @param graph     the snapshot the search ran on
+     * @param source    the source vertex
+     * @param version   the version of the graph the snapshot was taken from
+     * @param parents   the parent index of every vertex, or {@code -1}
+     * @param distances the distance of every vertex, {@code Double.POSITIVE_INFINITY} if unreached
+     */
+    ShortestPathTree(CompactGraph<Vertex> graph, Vertex source, long version, int[] parents, double[] distances) {
+        this.graph = graph;
+        this.source = source;
+        this.version = version;
+        this.parents = parents;
+        this.distances = distances;
+    }
+
+    /**
+     * Returns the source vertex of the tree.
+     *
+     * @return the source vertex
+     */
+    public Vertex source() {
+        return source;
+    }
+
+    /**
+     * Returns the version of the graph the tree was computed on.
+     *
+     * @return the graph version
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Determines if there is a path from the source vertex to the specified vertex.
+     *
+     * @param v the vertex to check
+     * @return {@code true} if there is a path, {@code false} otherwise
+     */
+    public boolean hasPathTo(Vertex v) {
+        int i = graph.indexOf(v);
+        return i != -1 && distances[i] != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the length of the shortest path from the source to the given vertex:
+     * the sum of its weights for a Dijkstra tree, the number of its edges for a breadth-first tree.
+     *
+     * @param v the destination vertex
+     * @return the length of the shortest path, or {@code Double.POSITIVE_INFINITY} if no path exists
+     */
+    public double distTo(Vertex v) {
+        int i = graph.indexOf(v);
+        return (i == -1 ? Double.POSITIVE_INFINITY : distances[i]);
+    }
+
+    /**
+     * Returns the path from the source vertex to the specified vertex, or {@code null} if no such path exists.
+     * The path is a view over the parent array of this tree; nothing is copied until it is iterated.
+     *
+     * @param v the destination vertex
+     * @return the path from the source to {@code v}, or {@code null} if no path exists
+     */
+    public Path<Vertex> pathTo(Vertex v) {
+        if (!hasPathTo(v)) return null;
+
+        return new Path<>(parents, graph::vertexAt, graph.indexOf(v));
+    }
+
+    /**
+     * Returns the approximate number of bytes taken by the arrays of the tree.
+     *
+     * @return the size of the tree in bytes
+     */
+    public long sizeInBytes() {
+        return 4L * parents.length + 8L * distances.length;
+    }
+}
@@ -0,0 +1,104 @@
+package graphs;
+
+/**
+ * The {@code UnionFind} class represents a disjoint-set forest over the
+ * integers {@code [0, n)}.
+ * It is implemented with union by size and full path compression, so any
+ * sequence of {@code m} operations takes O(m alpha(n)) time, where alpha is the
+ * inverse Ackermann function.
+ */
+public class UnionFind {
+    private final int[] parent;  // parent[i] = parent of i, or i if i is a root
+    private final int[] size;    // size[i] = number of elements in the tree rooted at i
+    private int count;
+
+    /**
+     * Initializes {@code n} sets, each holding one element.
+     *
+     * @param n the number of elements
+     * @throws IllegalArgumentException if {@code n} is negative
+     */
+    public UnionFind(int n) {
+        if (n < 0) throw new IllegalArgumentException("Number of elements must be non-negative!");
+        parent = new int[n];
+        size = new int[n];
+        count = n;
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+    }
+
+    /**
+     * Returns the number of sets.
+     *
+     * @return the number of sets
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns the representative of the set containing {@code i}, compressing
+     * the path from {@code i} to it.
+     *
+     * @param i the element
+     * @return the representative of its set
+     */
+    public int find(int i) {
+        int root = i;
+        while (parent[root] != root)
+            root = parent[root];
+
+        while (parent[i] != root) {
+            int next = parent[i];
+            parent[i] = root;
+            i = next;
+        }
+        return root;
+    }
+
+    /**
+     * Checks if the two elements are in the same set.
+     *
+     * @param i the first element
+     * @param j the second element
+     * @return {@code true} if they are in the same set, {@code false} otherwise
+     */
+    public boolean connected(int i, int j) {
+        return find(i) == find(j);
+    }
+
+    /**
+     * Returns the number of elements in the set containing {@code i}.
+     *
+     * @param i the element
+     * @return the size of its set
+     */
+    public int size(int i) {
+        return size[find(i)];
+    }
+
+    /**
+     * Merges the sets containing the two elements, hanging the smaller tree under the larger.
+     *
+     * @param i the first element
+     * @param j the second element
+     * @return {@code true} if two sets were merged, {@code false} if they were already one
+     */
+    public boolean union(int i, int j) {
+        int ri = find(i);
+        int rj = find(j);
+        if (ri == rj) return false;
+
+        if (size[ri] < size[rj]) {
+            int t = ri;
+            ri = rj;
+            rj = t;
+        }
+        parent[rj] = ri;
+        size[ri] += size[rj];
+        count--;
+        return true;
+    }
+}
@@ -0,0 +1,525 @@
+package graphs;
+
+import java.util.*;
+
+/**
+ * The {@code VersionedGraph} class represents a weighted graph with multi-version
+ * snapshots, so that every query sees one consistent version of the graph while
+ * batches of changes are applied.
+ *
+ * <p>A version is a {@link Snapshot}: an immutable {@link CompactGraph} base with a chain
+ * of delta overlays that hold the new edge arrays of every vertex changed since the base.
+ * Committing a {@link Batch} builds one more overlay with the vertices it changed and
+ * shares everything else with the previous version, then publishes the new snapshot
+ * with a single {@code volatile} write. Readers call {@link #snapshot()} and never wait:
+ * commits are serialized among writers only, and a snapshot never changes once taken.
+ *
+ * <p>Every {@link #MAX_DEPTH} commits the overlay chain is merged into one overlay, and
+ * once the overlay covers more than an eighth of the vertices it is compacted into a new
+ * CSR base. A snapshot does not reference older snapshots, so an old version is
+ * garbage-collected as soon as no query holds it; newer versions only keep the overlays
+ * they share with it.
+ *
+ * @param <VertexData> the type of data stored in the vertices
+ */
+public class VersionedGraph<VertexData> {
+    /**
+     * The longest overlay chain before it is merged into one overlay.
+     */
+    public static final int MAX_DEPTH = 8;
+    private static final int MIN_COMPACTION = 1024;
+
+    private final boolean undirected;
+    private final Object writeLock = new Object();
+    private volatile Snapshot<VertexData> current;
+
+    /**
+     * Initializes an empty undirected versioned graph.
+     */
+    public VersionedGraph() {
+        this(true);
+    }
+
+    /**
+     * Initializes an empty versioned graph, directed or undirected.
+     *
+     * @param undirected {@code true} if the graph is undirected, {@code false} if directed
+     */
+    public VersionedGraph(boolean undirected) {
+        this(new CompactGraph<>(undirected, new Object[0], new int[1], new int[0], new double[0]));
+    }
+
+    /**
+     * Initializes a versioned graph whose first version is the given snapshot.
+     *
+     * @param base the first version of the graph
+     */
+    public VersionedGraph(CompactGraph<VertexData> base) {
+        this.undirected = base.isUndirected();
+        this.current = new Snapshot<>(0, base, null, base.getVerticesCount(), arcsOf(base));
+    }
+
+    private static int arcsOf(CompactGraph<?> graph) {
+        return graph.offsets()[graph.getVerticesCount()];
+    }
+
+    /**
+     * Returns whether the graph is undirected.
+     *
+     * @return {@code true} if the graph is undirected, {@code false} if directed
+     */
+    public boolean isUndirected() {
+        return undirected;
+    }
+
+    /**
+     * Returns the latest committed version of the graph. Never blocks.
+     *
+     * @return the current snapshot
+     */
+    public Snapshot<VertexData> snapshot() {
+        return current;
+    }
+
+    /**
+     * Returns the number of the latest committed version.
+     *
+     * @return the current version
+     */
+    public long version() {
+        return current.version;
+    }
+
+    /**
+     * Starts a batch of changes. Nothing is visible to readers until the batch is committed.
+     *
+     * @return the new batch
+     */
+    public Batch batch() {
+        return new Batch();
+    }
+
+    /**
+     * Adds an edge in a batch of its own, as {@code batch().addEdge(source, dest, weight).commit()}.
+     *
+     * @param source the source vertex
+     * @param dest   the destination vertex
+     * @param weight the weight of the edge
+     * @return the new version
+     */
+    public Snapshot<VertexData> addEdge(VertexData source, VertexData dest, double weight) {
+        return batch().addEdge(source, dest, weight).commit();
+    }
+
+    /**
+     * Changes the weight of an edge in a batch of its own.
+     *
+     * @param source the source vertex
+     * @param dest   the destination vertex
+     * @param weight the new weight of the edge
+     * @return the new version
+     */
+    public Snapshot<VertexData> setEdgeWeight(VertexData source, VertexData dest, double weight) {
+        return batch().setEdgeWeight(source, dest, weight).commit();
+    }
+
+    /**
+     * Removes an edge in a batch of its own.
+     *
+     * @param source the source vertex
+     * @param dest   the destination vertex
+     * @return the new version
+     */
+    public Snapshot<VertexData> removeEdge(VertexData source, VertexData dest) {
+        return batch().removeEdge(source, dest).commit();
+    }
+
+    /**
+     * Merges the overlays of the current version into a new CSR base and publishes it
+     * as the same version. Readers of the current version are not affected.
+     *
+     * Time complexity: O(V + E), where V is the number of vertices
+     * and E is the number of edges in the graph.
+     */
+    public void compact() {
+        synchronized (writeLock) {
+            Snapshot<VertexData> s = current;
+            if (s.delta != null) current = new Snapshot<>(s.version, s.toCompact(), null, s.verticesCount, s.arcsCount);
+        }
+    }
+
+    private enum Operation { ADD_VERTEX, ADD_EDGE, SET_WEIGHT, REMOVE_EDGE }
+
+    private record Change(Operation operation, Object source, Object dest, double weight) {
+    }
+
+    /**
+     * Applies the changes on top of the latest version and publishes the result.
+     */
+    private Snapshot<VertexData> apply(List<Change> changes) {
+        synchronized (writeLock) {
+            Snapshot<VertexData> from = current;
+            Map<Object, Adjacency> changed = new HashMap<>();
+            int vertices = from.verticesCount, arcs = from.arcsCount;
+
+            for (Change c : changes) {
+                Adjacency s = edgesOf(c.source, changed, from);
+                Adjacency d = (c.dest == null ? null : edgesOf(c.dest, changed, from));
+
+                switch (c.operation) {
+                    case ADD_VERTEX, ADD_EDGE -> {
+                        if (s == null) {
+                            changed.put(c.source, s = Adjacency.EMPTY);
+                            vertices++;
+                        }
+                        if (c.operation == Operation.ADD_VERTEX) break;
+                        if (c.source.equals(c.dest)) d = s;
+                        if (d == null) {
+                            changed.put(c.dest, d = Adjacency.EMPTY);
+                            vertices++;
+                        }
+                        if (c.source.equals(c.dest) || s.indexOf(c.dest) != -1) break;
+
+                        changed.put(c.source, s.with(c.dest, c.weight));
+                        if (undirected) changed.put(c.dest, d.with(c.source, c.weight));
+                        arcs += (undirected ? 2 : 1);
+                    }
+                    case SET_WEIGHT -> {
+                        if (s == null || s.indexOf(c.dest) == -1) break;
+
+                        changed.put(c.source, s.with(c.dest, c.weight));
+                        if (undirected) changed.put(c.dest, d.with(c.source, c.weight));
+                    }
+                    case REMOVE_EDGE -> {
+                        int k = (s == null ? -1 : s.indexOf(c.dest));
+                        if (k == -1) break;
+
+                        changed.put(c.source, s.without(k));
+                        if (undirected) changed.put(c.dest, d.without(d.indexOf(c.source)));
+                        arcs -= (undirected ? 2 : 1);
+                    }
+                }
+            }
+            if (changed.isEmpty()) return from;
+
+            Delta delta = new Delta(from.delta, changed);
+            if (delta.depth > MAX_DEPTH) delta = new Delta(null, delta.flatten());
+
+            Snapshot<VertexData> next = new Snapshot<>(from.version + 1, from.base, delta, vertices, arcs);
+            int threshold = Math.max(MIN_COMPACTION, from.base.getVerticesCount() / 8);
+            if (delta.depth == 1 && delta.changed.size() > threshold)
+                next = new Snapshot<>(next.version, next.toCompact(), null, vertices, arcs);
+
+            current = next;
+            return next;
+        }
+    }
+
+    private static Adjacency edgesOf(Object v, Map<Object, Adjacency> changed, Snapshot<?> from) {
+        Adjacency a = changed.get(v);
+        return (a != null ? a : from.adjacency(v));
+    }
+
+    /**
+     * One overlay: the edge arrays of the vertices changed by one commit,
+     * on top of the overlays of the versions before it.
+     */
+    private static final class Delta {
+        final Delta parent;
+        final Map<Object, Adjacency> changed;
+        final int depth;
+
+        Delta(Delta parent, Map<Object, Adjacency> changed) {
+            this.parent = parent;
+            this.changed = changed;
+            this.depth = (parent == null ? 1 : parent.depth + 1);
+        }
+
+        Adjacency get(Object v) {
+            for (Delta d = this; d != null; d = d.parent) {
+                Adjacency a = d.changed.get(v);
+                if (a != null) return a;
+            }
+            return null;
+        }
+
+        Map<Object, Adjacency> flatten() {
+            if (parent == null) return changed;
+
+            Map<Object, Adjacency> all = new HashMap<>(parent.flatten());
+            all.putAll(changed);
+            return all;
+        }
+    }
+
+    /**
+     * The {@code Batch} class represents a group of changes committed as one version.
+     * Changes are recorded in order and applied on top of the latest version at commit:
+     * adding an existing edge or a self-loop does nothing, as in {@link WeightedGraph},
+     * and changing or removing a missing edge does nothing either.
+     * A batch is meant to be used by one thread.
+     */
+    public final class Batch {
+        private final List<Change> changes = new ArrayList<>();
+
+        private Batch() {
+        }
+
+        /**
+         * Adds a vertex to the graph.
+         *
+         * @param v the vertex data to add
+         * @return this batch
+         */
+        public Batch addVertex(VertexData v) {
+            changes.add(new Change(Operation.ADD_VERTEX, v, null, 0));
+            return this;
+        }
+
+        /**
+         * Adds an edge between the source and destination vertices with the given weight.
+         * If the graph is undirected, also adds the reverse edge.
+         *
+         * @param source the source vertex
+         * @param dest   the destination vertex
+         * @param weight the weight of the edge
+         * @return this batch
+         */
+        public Batch addEdge(VertexData source, VertexData dest, double weight) {
+            changes.add(new Change(Operation.ADD_EDGE, source, dest, weight));
+            return this;
+        }
+
+        /**
+         * Changes the weight of an existing edge.
+         *
+         * @param source the source vertex
+         * @param dest   the destination vertex
+         * @param weight the new weight of the edge
+         * @return this batch
+         */
+        public Batch setEdgeWeight(VertexData source, VertexData dest, double weight) {
+            changes.add(new Change(Operation.SET_WEIGHT, source, dest, weight));
+            return this;
+        }
+
+        /**
+         * Removes the edge between the source and destination vertices.
+         * If the graph is undirected, also removes the reverse edge.
+         *
+         * @param source the source vertex
+         * @param dest   the destination vertex
+         * @return this batch
+         */
+        public Batch removeEdge(VertexData source, VertexData dest) {
+            changes.add(new Change(Operation.REMOVE_EDGE, source, dest, 0));
+            return this;
+        }
+
+        /**
+         * Returns the number of changes recorded so far.
+         *
+         * @return the number of changes
+         */
+        public int size() {
+            return changes.size();
+        }
+
+        /**
+         * Applies all the changes as one new version and publishes it.
+         * Returns the current version unchanged if the batch changed nothing.
+         *
+         * Time complexity: O(sum of the degrees of the changed vertices) per change.
+         *
+         * @return the new version
+         */
+        public Snapshot<VertexData> commit() {
+            Snapshot<VertexData> s = apply(changes);
+            changes.clear();
+            return s;
+        }
+    }
+
+    /**
+     * The {@code Snapshot} class represents one immutable version of a {@link VersionedGraph}.
+     * It can be searched by every {@link Search} subclass that accepts a {@link GraphView},
+     * from any number of threads, while newer versions are committed.
+     *
+     * @param <VertexData> the type of data stored in the vertices
+     */
+    public static final class Snapshot<VertexData> implements GraphView<VertexData> {
+        private final long version;
+        private final CompactGraph<VertexData> base;
+        private final Delta delta;
+        private final int verticesCount;
+        private final int arcsCount;
+
+        private Snapshot(long version, CompactGraph<VertexData> base, Delta delta, int verticesCount, int arcsCount) {
+            this.version = version;
+            this.base = base;
+            this.delta = delta;
+            this.verticesCount = verticesCount;
+            this.arcsCount = arcsCount;
+        }
+
+        /**
+         * Returns the number of this version; the first version is {@code 0}.
+         *
+         * @return the version
+         */
+        public long version() {
+            return version;
+        }
+
+        /**
+         * Returns whether the graph is undirected.
+         *
+         * @return {@code true} if the graph is undirected, {@code false} if directed
+         */
+        public boolean isUndirected() {
+            return base.isUndirected();
+        }
+
+        /**
+         * Returns the number of vertices in this version.
+         *
+         * @return the number of vertices
+         */
+        @Override
+        public int getVerticesCount() {
+            return verticesCount;
+        }
+
+        /**
+         * Returns the number of edges in this version.
+         *
+         * @return the number of edges
+         */
+        public int getEdgesCount() {
+            return (isUndirected() ? arcsCount / 2 : arcsCount);
+        }
+
+        /**
+         * Checks if this version contains the specified vertex.
+         *
+         * @param v the vertex data
+         * @return {@code true} if the graph contains the vertex, {@code false} otherwise
+         */
+        @Override
+        public boolean hasVertex(VertexData v) {
+            return base.hasVertex(v) || (delta != null && delta.get(v) != null);
+        }
+
+        /**
+         * Checks if this version contains an edge between the specified vertices.
+         *
+         * @param source the source vertex
+         * @param dest   the destination vertex
+         * @return {@code true} if the edge exists, {@code false} otherwise
+         */
+        public boolean hasEdge(VertexData source, VertexData dest) {
+            Adjacency a = adjacency(source);
+            return a != null && a.indexOf(dest) != -1;
+        }
+
+        /**
+         * Returns the weight of the edge between the specified vertices in this version.
+         *
+         * @param source the source vertex
+         * @param dest   the destination vertex
+         * @return the weight of the edge
+         * @throws NoSuchElementException if there is no such edge
+         */
+        public double getEdgeWeight(VertexData source, VertexData dest) {
+            Adjacency a = adjacency(source);
+            int k = (a == null ? -1 : a.indexOf(dest));
+            if (k == -1) throw new NoSuchElementException("Edge is not in the graph!");
+            return a.weights[k];
+        }
+
+        /**
+         * Passes every neighbor of the specified vertex in this version, with the weight
+         * of the edge leading to it, to the given visitor.
+         * Does nothing if the vertex is not in the graph.
+         *
+         * @param v       the vertex data
+         * @param visitor the visitor to call for every neighbor
+         */
+        @Override
+        public void forEachNeighbor(VertexData v, NeighborVisitor<VertexData> visitor) {
+            Adjacency a = (delta == null ? null : delta.get(v));
+            if (a != null) a.forEach(visitor);
+            else base.forEachNeighbor(v, visitor);
+        }
+
+        /**
+         * Returns the edges of the specified vertex, or {@code null} if it is not in this version.
+         */
+        private Adjacency adjacency(Object v) {
+            Adjacency a = (delta == null ? null : delta.get(v));
+            if (a != null) return a;
+
+            @SuppressWarnings("unchecked")
+            int i = base.indexOf((VertexData) v);
+            if (i == -1) return null;
+
+            int from = base.offsets()[i], to = base.offsets()[i + 1];
+            Object[] neighbors = new Object[to - from];
+            for (int e = from; e < to; e++)
+                neighbors[e - from] = base.vertexAt(base.targets()[e]);
+            return new Adjacency(neighbors, Arrays.copyOfRange(base.weights(), from, to));
+        }
+
+        /**
+         * Builds a compressed sparse row copy of this version. Vertices of the base
+         * keep their indices, and vertices added later follow them.
+         *
+         * Time complexity: O(V + E), where V is the number of vertices
+         * and E is the number of edges in the graph.
+         *
+         * @return this version as a {@code CompactGraph}
+         */
+        @SuppressWarnings("unchecked")
+        public CompactGraph<VertexData> toCompact() {
+            if (delta == null) return base;
+
+            Map<Object, Adjacency> overlay = delta.flatten();
+            int baseCount = base.getVerticesCount();
+            Object[] keys = new Object[verticesCount];
+            Map<Object, Integer> added = new HashMap<>();
+            for (int i = 0; i < baseCount; i++)
+                keys[i] = base.vertexAt(i);
+            int n = baseCount;
+            for (Object v : overlay.keySet()) {
+                if (base.indexOf((VertexData) v) != -1) continue;
+                added.put(v, n);
+                keys[n++] = v;
+            }
+
+            int[] baseOffsets = base.offsets(), baseTargets = base.targets();
+            double[] baseWeights = base.weights();
+            int[] offsets = new int[n + 1];
+            int[] targets = new int[arcsCount];
+            double[] weights = new double[arcsCount];
+            int e = 0;
+            for (int i = 0; i < n; i++) {
+                Adjacency a = overlay.get(keys[i]);
+                if (a == null) {
+                    int length = baseOffsets[i + 1] - baseOffsets[i];
+                    System.arraycopy(baseTargets, baseOffsets[i], targets, e, length);
+                    System.arraycopy(baseWeights, baseOffsets[i], weights, e, length);
+                    e += length;
+                } else {
+                    for (int k = 0; k < a.neighbors.length; k++) {
+                        int j = base.indexOf((VertexData) a.neighbors[k]);
+                        targets[e] = (j != -1 ? j : added.get(a.neighbors[k]));
+                        weights[e++] = a.weights[k];
+                    }
+                }
+                offsets[i + 1] = e;
+            }
+
+            return new CompactGraph<>(base.isUndirected(), keys, offsets, targets, weights);
+        }
+    }
+}
@@ -4,6 +4,8 @@ import java.util.*;
 /**
  * The {@code Vertex} class represents a vertex in a graph.
  * Each vertex contains data and maintains a list of adjacent vertices with corresponding edge weights.
+ * Adjacent vertices and weights are kept in parallel arrays in insertion order,
+ * with a map from each adjacent vertex to its position for constant-time lookups.
  *
  * @param <V> the type of data stored in the vertex
  */
@@ -11,17 +13,26 @@ public class Vertex<V> {
     private static int nodeIndex = 0;
     private final int hash;
     private V data;
-    private final Map<Vertex<V>, Double> adjacentVertices;
+    private final Map<Vertex<V>, Integer> adjacentVertices;
+    private Vertex<V>[] adjacent;
+    private double[] weights;
+    private int degree;
+    private Vertex<V>[] incoming;
+    private double[] incomingWeights;
+    private int inDegree;
 
     /**
      * Initializes a vertex with the given data.
      *
      * @param data the data stored in the vertex
      */
+    @SuppressWarnings("unchecked")
     public Vertex(V data) {
         this.data = data;
         hash = nodeIndex++;
         this.adjacentVertices = new HashMap<>();
+        this.adjacent = (Vertex<V>[]) new Vertex<?>[2];
+        this.weights = new double[2];
     }
 
     /**
@@ -35,12 +46,26 @@ public class Vertex<V> {
 
     /**
      * Adds an adjacent vertex with the specified weight.
+     * If the vertex is already adjacent, the weight of the edge is replaced.
      *
      * @param destination the adjacent vertex
      * @param weight      the weight of the edge to the adjacent vertex
      */
     public void addAdjacentVertex(Vertex<V> destination, double weight) {
-        adjacentVertices.put(destination, weight);
+        Integer position = adjacentVertices.get(destination);
+        if (position != null) {
+            weights[position] = weight;
+            return;
+        }
+
+        if (degree == adjacent.length) {
+            adjacent = Arrays.copyOf(adjacent, degree * 2);
+            weights = Arrays.copyOf(weights, degree * 2);
+        }
+
+        adjacent[degree] = destination;
+        weights[degree] = weight;
+        adjacentVertices.put(destination, degree++);
     }
 
     /**
@@ -53,15 +78,115 @@ public class Vertex<V> {
         return adjacentVertices.get(other) != null;
     }
 
+    /**
+     * Returns the number of adjacent vertices.
+     *
+     * @return the degree of the vertex
+     */
+    public int degree() {
+        return degree;
+    }
+
+    /**
+     * Returns the adjacent vertex at the given position, in insertion order.
+     *
+     * @param i the position, in {@code [0, degree())}
+     * @return the adjacent vertex
+     */
+    Vertex<V> adjacentAt(int i) {
+        return adjacent[i];
+    }
+
+    /**
+     * Returns the weight of the edge to the adjacent vertex at the given position.
+     *
+     * @param i the position, in {@code [0, degree())}
+     * @return the weight of the edge
+     */
+    double weightAt(int i) {
+        return weights[i];
+    }
+
+    /**
+     * Passes the data of every adjacent vertex, with the weight of the edge to it,
+     * to the given visitor, without allocating.
+     *
+     * @param visitor the visitor to call for every adjacent vertex
+     */
+    public void forEachAdjacent(NeighborVisitor<V> visitor) {
+        Vertex<V>[] adjacent = this.adjacent;
+        double[] weights = this.weights;
+
+        for (int i = 0; i < degree; i++)
+            visitor.visit(adjacent[i].data, weights[i]);
+    }
+
+    /**
+     * Records an incoming edge from the given vertex. Only directed graphs keep incoming
+     * edges, since in an undirected graph they are the same as the adjacent vertices.
+     * The edge must not be recorded already; use {@link #setIncomingWeight} to change it.
+     *
+     * @param origin the vertex the edge comes from
+     * @param weight the weight of the edge
+     */
+    @SuppressWarnings("unchecked")
+    public void addIncomingVertex(Vertex<V> origin, double weight) {
+        if (incoming == null) {
+            incoming = (Vertex<V>[]) new Vertex<?>[2];
+            incomingWeights = new double[2];
+        }
+
+        if (inDegree == incoming.length) {
+            incoming = Arrays.copyOf(incoming, inDegree * 2);
+            incomingWeights = Arrays.copyOf(incomingWeights, inDegree * 2);
+        }
+
+        incoming[inDegree] = origin;
+        incomingWeights[inDegree++] = weight;
+    }
+
+    /**
+     * Changes the weight of a recorded incoming edge from the given vertex.
+     *
+     * Time complexity: O(in-degree).
+     *
+     * @param origin the vertex the edge comes from
+     * @param weight the new weight of the edge
+     * @throws NoSuchElementException if no edge from {@code origin} is recorded
+     */
+    public void setIncomingWeight(Vertex<V> origin, double weight) {
+        for (int i = 0; i < inDegree; i++) {
+            if (incoming[i] == origin) {
+                incomingWeights[i] = weight;
+                return;
+            }
+        }
+        throw new NoSuchElementException("Edge is not in the graph!");
+    }
+
+    /**
+     * Passes the data of every vertex with a recorded edge into this vertex, with the weight
+     * of that edge, to the given visitor, without allocating.
+     *
+     * @param visitor the visitor to call for every incoming edge
+     */
+    public void forEachIncoming(NeighborVisitor<V> visitor) {
+        Vertex<V>[] incoming = this.incoming;
+        double[] weights = this.incomingWeights;
+
+        for (int i = 0; i < inDegree; i++)
+            visitor.visit(incoming[i].data, weights[i]);
+    }
+
     /**
      * Returns a list of data from all adjacent vertices.
      *
      * @return a list of data from adjacent vertices
      */
     public List<V> getAdjacencyList() {
-        List<V> res = new LinkedList<>();
-        for (var i : adjacentVertices.keySet())
-            res.add(i.getData());
+        List<V> res = new ArrayList<>(degree);
+        for (int i = 0; i < degree; i++)
+            res.add(adjacent[i].getData());
         return res;
     }
 
@@ -72,9 +197,10 @@ public class Vertex<V> {
      * @return the weight of the edge, or {@code null} if no edge exists
      */
     public Double getEdgeWeight(Vertex<V> other) {
-        if (!hasEdge(other))
+        Integer position = adjacentVertices.get(other);
+        if (position == null)
             return null;
-        return adjacentVertices.get(other);
+        return weights[position];
     }
 
     /**
@@ -8,9 +8,11 @@ import java.util.*;
  *
  * @param <VertexData> the type of data stored in the vertices
  */
-public class WeightedGraph<VertexData> {
+public class WeightedGraph<VertexData> implements GraphView<VertexData> {
     private final boolean undirected;
     private Map<VertexData, Vertex<VertexData>> map = new HashMap<>();
+    private final List<EdgeListener<VertexData>> listeners = new ArrayList<>();
+    private long version;
 
     /**
      * Initializes an undirected weighted graph.
@@ -28,6 +30,49 @@ public class WeightedGraph<VertexData> {
         this.undirected = undirected;
     }
 
+    /**
+     * Returns whether the graph is undirected.
+     *
+     * @return {@code true} if the graph is undirected, {@code false} if directed
+     */
+    public boolean isUndirected() {
+        return undirected;
+    }
+
+    /**
+     * Returns the number of changes made to the graph so far.
+     * It grows with every added vertex, added edge and changed weight, so two
+     * equal versions of the same graph denote the same vertices, edges and weights.
+     *
+     * @return the version of the graph
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Registers a listener to call after every added edge and changed edge weight.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(EdgeListener<VertexData> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener added with {@link #addListener(EdgeListener)}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(EdgeListener<VertexData> listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireEdgeChanged(VertexData source, VertexData dest, double oldWeight, double newWeight) {
+        for (int i = 0; i < listeners.size(); i++)
+            listeners.get(i).edgeChanged(source, dest, oldWeight, newWeight);
+    }
+
     /**
      * Returns the vertex object corresponding to the given vertex data.
      *
@@ -46,6 +91,8 @@ public class WeightedGraph<VertexData> {
     public void addVertex(VertexData v) {
         if (map.get(v) != null) return;
         map.put(v, new Vertex<>(v));
+        version++;
+        Metrics.vertexAdded();
     }
 
     /**
@@ -67,6 +114,50 @@ public class WeightedGraph<VertexData> {
         sV.addAdjacentVertex(dV, weight);
 
         if (undirected) dV.addAdjacentVertex(sV, weight);
+        else dV.addIncomingVertex(sV, weight);
+
+        version++;
+        Metrics.edgeAdded();
+        fireEdgeChanged(source, dest, Double.POSITIVE_INFINITY, weight);
+    }
+
+    /**
+     * Changes the weight of an existing edge.
+     * If the graph is undirected, also changes the weight of the reverse edge.
+     *
+     * @param source the source vertex
+     * @param dest   the destination vertex
+     * @param weight the new weight of the edge
+     * @throws NoSuchElementException if there is no such edge
+     */
+    public void setEdgeWeight(VertexData source, VertexData dest, double weight) {
+        double oldWeight = getEdgeWeight(source, dest);
+
+        Vertex<VertexData> sV = map.get(source);
+        Vertex<VertexData> dV = map.get(dest);
+
+        sV.addAdjacentVertex(dV, weight);
+
+        if (undirected) dV.addAdjacentVertex(sV, weight);
+        else dV.setIncomingWeight(sV, weight);
+
+        version++;
+        fireEdgeChanged(source, dest, oldWeight, weight);
+    }
+
+    /**
+     * Returns the weight of the edge between the specified vertices.
+     *
+     * @param source the source vertex
+     * @param dest   the destination vertex
+     * @return the weight of the edge
+     * @throws NoSuchElementException if there is no such edge
+     */
+    public double getEdgeWeight(VertexData source, VertexData dest) {
+        Vertex<VertexData> sV = map.get(source);
+        Double weight = (sV == null ? null : sV.getEdgeWeight(map.get(dest)));
+        if (weight == null) throw new NoSuchElementException("Edge is not in the graph!");
+        return weight;
     }
 
     /**
@@ -74,6 +165,7 @@ public class WeightedGraph<VertexData> {
      *
      * @return the number of vertices
      */
+    @Override
     public int getVerticesCount() {
         return map.size();
     }
@@ -86,7 +178,7 @@ public class WeightedGraph<VertexData> {
     public int getEdgesCount() {
         int count = 0;
         for (Vertex<VertexData> v : map.values()) {
-            count += v.getAdjacencyList().size();
+            count += v.degree();
         }
 
         if (undirected) count /= 2;
@@ -100,6 +192,7 @@ public class WeightedGraph<VertexData> {
      * @param v the vertex data
      * @return {@code true} if the graph contains the vertex, {@code false} otherwise
      */
+    @Override
     public boolean hasVertex(VertexData v) {
         return map.get(v) != null;
     }
@@ -116,6 +209,63 @@ public class WeightedGraph<VertexData> {
         return map.get(source).hasEdge(map.get(dest));
     }
 
+    /**
+     * Passes every neighbor of the specified vertex, with the weight of the edge
+     * leading to it, to the given visitor, without allocating.
+     * Does nothing if the vertex is not in the graph.
+     *
+     * @param v       the vertex data
+     * @param visitor the visitor to call for every neighbor
+     */
+    @Override
+    public void forEachNeighbor(VertexData v, NeighborVisitor<VertexData> visitor) {
+        Vertex<VertexData> vertex = map.get(v);
+        if (vertex != null) vertex.forEachAdjacent(visitor);
+    }
+
+    /**
+     * Passes every vertex with an edge into the specified vertex, with the weight of that edge,
+     * to the given visitor, without allocating. In an undirected graph these are the neighbors.
+     * Does nothing if the vertex is not in the graph.
+     *
+     * @param v       the vertex data
+     * @param visitor the visitor to call for every incoming edge
+     */
+    public void forEachIncoming(VertexData v, NeighborVisitor<VertexData> visitor) {
+        Vertex<VertexData> vertex = map.get(v);
+        if (vertex == null) return;
+
+        if (undirected) vertex.forEachAdjacent(visitor);
+        else vertex.forEachIncoming(visitor);
+    }
+
+    /**
+     * Returns a live view of this graph with every edge reversed, as used by backward searches.
+     * An undirected graph is its own reverse.
+     *
+     * @return the reverse view
+     */
+    public GraphView<VertexData> reverse() {
+        if (undirected) return this;
+
+        return new GraphView<>() {
+            @Override
+            public int getVerticesCount() {
+                return WeightedGraph.this.getVerticesCount();
+            }
+
+            @Override
+            public boolean hasVertex(VertexData v) {
+                return WeightedGraph.this.hasVertex(v);
+            }
+
+            @Override
+            public void forEachNeighbor(VertexData v, NeighborVisitor<VertexData> visitor) {
+                forEachIncoming(v, visitor);
+            }
+        };
+    }
+
     /**
      * Returns the adjacency list of the specified vertex.
      *
@@ -129,17 +279,29 @@ public class WeightedGraph<VertexData> {
 
     /**
      * Returns the edges connected to the specified vertex.
+     * This allocates a new list of edges on every call; searches should use
+     * {@link #forEachNeighbor(Object, NeighborVisitor)} instead.
      *
      * @param v the vertex data
      * @return an iterable of edges
      */
     public Iterable<Edge<VertexData>> getEdges(VertexData v) {
         if (!hasVertex(v)) return null;
-        List<Edge<VertexData>> edges = new LinkedList<>();
-        for (VertexData dest : map.get(v).getAdjacencyList()) {
-            if (hasVertex(dest))
-                edges.add(new Edge<>(v, dest, map.get(v).getEdgeWeight(map.get(dest))));
-        }
+        List<Edge<VertexData>> edges = new ArrayList<>(map.get(v).degree());
+        forEachNeighbor(v, (dest, weight) -> edges.add(new Edge<>(v, dest, weight)));
         return edges;
     }
+
+    /**
+     * Builds an immutable compressed sparse row snapshot of the graph.
+     * Later changes to this graph are not reflected in the snapshot.
+     *
+     * Time complexity: O(V + E), where V is the number of vertices
+     * and E is the number of edges in the graph.
+     *
+     * @return the compact snapshot
+     */
+    public CompactGraph<VertexData> toCompact() {
+        return CompactGraph.of(map.values(), undirected);
+    }
 }